@@ -0,0 +1,76 @@
+package com.example.byt.benchmarks;
+
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.services.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// cost of Appointment.Builder.build() for one service, against a salon that already has the given number of bookings
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AppointmentBenchmark {
+
+    @Param({"100", "10000"})
+    public int masters;
+
+    @Param({"0", "100000"})
+    public int bookedServices;
+
+    private List<Master> masterList;
+
+    private List<Customer> customers;
+
+    private Service service;
+
+    private int next;
+
+    // the extents grow with every build, so they are rebuilt for each iteration
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Fixtures.reset();
+        masterList = Fixtures.masters(masters);
+        customers = Fixtures.customers(1000);
+        service = Fixtures.service(1, masterList);
+        Fixtures.book(service, masterList, customers, bookedServices);
+        next = bookedServices;
+    }
+
+    @Benchmark
+    public Appointment build() {
+        return new Appointment.Builder(Fixtures.OPENING.toLocalDate(), customer(), Set.of(nextServiceInfo())).build();
+    }
+
+    @Benchmark
+    public Appointment buildCheckingAvailability() {
+        return new Appointment.Builder(Fixtures.OPENING.toLocalDate(), customer(), Set.of(nextServiceInfo()))
+                .checkAvailability()
+                .build();
+    }
+
+    private Customer customer() {
+        return customers.get(next % customers.size());
+    }
+
+    // continues the round-robin of Fixtures.book, so checked builds never hit a busy master
+    private ServiceInfo nextServiceInfo() {
+        int i = next++;
+        LocalDateTime time = Fixtures.OPENING.plusMinutes(30L * (i / masterList.size()));
+        return new ServiceInfo(service, time, Set.of(masterList.get(i % masterList.size())));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.byt.benchmarks;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// builds salon data of a given size for the benchmarks; every call starts from empty extents
+final class Fixtures {
+
+    static final LocalDateTime OPENING = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+    static final LocalDate BIRTH_DATE = LocalDate.of(1985, 1, 1);
+
+    private Fixtures() {
+    }
+
+    static void reset() {
+        ExtentRegistry.clearAll();
+    }
+
+    static List<Master> masters(int count) {
+        List<Master> masters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            masters.add(Worker.createMaster("Master" + i, "Smith", phone(i), BIRTH_DATE, i % 6));
+        }
+        return masters;
+    }
+
+    static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(Person.createCustomer("Customer" + i, "Doe", phone(500000 + i), BIRTH_DATE));
+        }
+        return customers;
+    }
+
+    static Service service(int id, List<Master> masters) {
+        return new Service(id, "Service" + id, 100.0, "Benchmark service", 30, new LinkedHashSet<>(masters));
+    }
+
+    // one appointment per provided service, spread round-robin over the masters and customers
+    static List<Appointment> book(Service service, List<Master> masters, List<Customer> customers, int count) {
+        List<Appointment> appointments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Master master = masters.get(i % masters.size());
+            LocalDateTime time = OPENING.plusMinutes(30L * (i / masters.size()));
+            ServiceInfo serviceInfo = new ServiceInfo(service, time, Set.of(master));
+            appointments.add(new Appointment.Builder(time.toLocalDate(), customers.get(i % customers.size()),
+                    Set.of(serviceInfo)).build());
+        }
+        return appointments;
+    }
+
+    static String phone(int i) {
+        return String.valueOf(100000000 + i);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.byt.benchmarks;
+
+import com.example.byt.models.Certification;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Master.removeMaster() for one master with the given number of links of each kind, among the given number of other masters
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MasterRemovalBenchmark {
+
+    @Param({"10000"})
+    public int masters;
+
+    @Param({"10", "1000"})
+    public int links;
+
+    private List<Master> masterList;
+
+    private List<Service> services;
+
+    private Master removed;
+
+    private int created;
+
+    @Setup
+    public void setUp() {
+        Fixtures.reset();
+        masterList = Fixtures.masters(masters);
+        services = new ArrayList<>(links);
+        for (int i = 0; i < links; i++) {
+            services.add(Fixtures.service(i + 1, masterList.subList(0, 1)));
+        }
+    }
+
+    // removal is destructive, so every invocation gets a freshly linked master; the setup is not measured
+    @Setup(Level.Invocation)
+    public void linkMaster() {
+        int id = masters + created++;
+        removed = Worker.createMaster("Removed" + id, "Smith", Fixtures.phone(id), Fixtures.BIRTH_DATE, 5);
+        for (int i = 0; i < links; i++) {
+            removed.addServiceSpecialisesIn(services.get(i));
+            removed.addTrainee(masterList.get(i % masterList.size()));
+            new Certification(removed, "Certification" + i, id + "-" + i, "Benchmark certification", "Academy",
+                    Fixtures.OPENING.toLocalDate());
+        }
+    }
+
+    @Benchmark
+    public Master removeMaster() {
+        removed.removeMaster();
+        return removed;
+    }
+}
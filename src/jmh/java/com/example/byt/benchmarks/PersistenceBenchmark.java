@@ -0,0 +1,69 @@
+package com.example.byt.benchmarks;
+
+import com.example.byt.models.person.Master;
+import com.example.byt.models.services.SkinService;
+import com.example.byt.persistence.ExtentPersistence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading every extent, the work behind SkinService.save() and
+ * SkinService.loadExtent(). Those two always use skinservice.ser in the
+ * working directory, so the benchmark calls ExtentPersistence with a
+ * temporary file instead of writing into the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PersistenceBenchmark {
+
+    @Param({"1000", "10000"})
+    public int masters;
+
+    @Param({"10000", "100000"})
+    public int providedServices;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        Fixtures.reset();
+        List<Master> masterList = Fixtures.masters(masters);
+        SkinService service = new SkinService(1, "Facial", 80.0, "Benchmark facial", 45,
+                new LinkedHashSet<>(masterList), "Hydration");
+        Fixtures.book(service, masterList, Fixtures.customers(1000), providedServices);
+        file = Files.createTempFile("extents", ".ser");
+        ExtentPersistence.save(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Path save() throws IOException {
+        ExtentPersistence.save(file);
+        return file;
+    }
+
+    @Benchmark
+    public Path load() throws IOException {
+        ExtentPersistence.load(file);
+        return file;
+    }
+}
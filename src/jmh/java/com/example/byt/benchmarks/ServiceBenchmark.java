@@ -0,0 +1,75 @@
+package com.example.byt.benchmarks;
+
+import com.example.byt.models.Promotion;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.services.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Service.getTotalPrice() and getRating() on a service with the given numbers of bookings and promotions
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ServiceBenchmark {
+
+    @Param({"10000"})
+    public int masters;
+
+    @Param({"1000", "100000", "1000000"})
+    public int providedServices;
+
+    @Param({"0", "100"})
+    public int promotions;
+
+    private Service service;
+
+    private List<ProvidedService> booked;
+
+    private LocalDate date;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures.reset();
+        List<Master> masterList = Fixtures.masters(masters);
+        service = Fixtures.service(1, masterList);
+        Fixtures.book(service, masterList, Fixtures.customers(1000), providedServices);
+        booked = new ArrayList<>(service.getProvidedServicesView());
+        date = Fixtures.OPENING.toLocalDate();
+        for (int i = 0; i < promotions; i++) {
+            LocalDate start = date.minusDays(promotions).plusDays(i);
+            new Promotion("Promotion" + i, "Benchmark promotion", 5 + i % 46, start, start.plusDays(7), Set.of(service));
+        }
+    }
+
+    @Benchmark
+    public double totalPrice() {
+        return service.getTotalPrice(date);
+    }
+
+    @Benchmark
+    public double rating() {
+        return service.getRating();
+    }
+
+    // rating a booking updates the service and master aggregates that getRating() reads
+    @Benchmark
+    public double rateAndRead() {
+        booked.get(next++ % booked.size()).setRating(1 + next % 5);
+        return service.getRating();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.byt.concurrency;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks guarding the two sides of model associations. An operation
+ * names every object it is going to modify and the stripes of those objects
+ * are taken in ascending index order, so two operations can only wait on each
+ * other in one direction. The locks are reentrant: when one side of a link
+ * calls back into the other, the nested call finds its stripes already held.
+ * Operations on unrelated objects (e.g. two bookings for different
+ * appointments) usually hash to different stripes and run in parallel.
+ *
+ * An operation names all of its parties in the one call that opens it,
+ * before it changes anything; parties that depend on links another thread
+ * may change are named through {@link #lockStable}. A nested call then only
+ * re-enters stripes its caller holds. One that reaches a stripe its caller
+ * did not take is a bug, counted for the tests. If that stripe is below the
+ * ones held it is waited for only for a bounded time and then reported
+ * rather than risking a deadlock; this is a safety net, not an error path.
+ */
+public final class LinkLocks {
+
+    private static final int STRIPES = 256;
+
+    // bound on waiting for a stripe taken out of order before reporting a deadlock
+    private static final long OUT_OF_ORDER_TIMEOUT_MILLIS = 2000;
+
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    // nested calls that took a stripe their caller did not hold
+    private static final AtomicLong unnamedAcquisitions = new AtomicLong();
+
+    // highest stripe held by each thread, -1 when it holds none
+    private static final ThreadLocal<int[]> highestHeld = ThreadLocal.withInitial(() -> new int[]{-1});
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private LinkLocks() {
+    }
+
+    public static Guard lock(Object first, Object second) {
+        return lock(new Object[]{first, second});
+    }
+
+    // null parties are ignored, so optional ends (e.g. an unset manager) can be passed as they are
+    public static Guard lock(Object... parties) {
+        int[] stripes = stripesOf(parties);
+        int[] highest = highestHeld.get();
+        int previousHighest = highest[0];
+        if (previousHighest >= 0) {
+            countUnnamed(stripes);
+        }
+        int taken = 0;
+        try {
+            for (int stripe : stripes) {
+                acquire(stripe, previousHighest);
+                taken++;
+            }
+        } catch (RuntimeException e) {
+            release(stripes, taken);
+            throw e;
+        }
+        if (stripes.length > 0) {
+            highest[0] = Math.max(previousHighest, stripes[stripes.length - 1]);
+        }
+        return new Guard(stripes, previousHighest);
+    }
+
+    // for operations whose parties are read from links: the parties are read again once their stripes are held,
+    // and locked afresh until another thread no longer changed them in between
+    public static Guard lockStable(Supplier<? extends Collection<?>> parties) {
+        while (true) {
+            Guard guard = lock(parties.get().toArray());
+            boolean stable = true;
+            for (Object party : parties.get()) {
+                if (party != null && !locks[stripeOf(party)].isHeldByCurrentThread()) {
+                    stable = false;
+                    break;
+                }
+            }
+            if (stable) {
+                return guard;
+            }
+            guard.close();
+        }
+    }
+
+    public static boolean isHeldByCurrentThread(Object party) {
+        return party != null && locks[stripeOf(party)].isHeldByCurrentThread();
+    }
+
+    static long unnamedAcquisitionCount() {
+        return unnamedAcquisitions.get();
+    }
+
+    private static void countUnnamed(int[] stripes) {
+        for (int stripe : stripes) {
+            if (!locks[stripe].isHeldByCurrentThread()) {
+                unnamedAcquisitions.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    static int stripeOf(Object party) {
+        int h = System.identityHashCode(party);
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static int[] stripesOf(Object[] parties) {
+        int[] stripes = new int[parties.length];
+        int n = 0;
+        for (Object party : parties) {
+            if (party != null) {
+                stripes[n++] = stripeOf(party);
+            }
+        }
+        stripes = Arrays.copyOf(stripes, n);
+        Arrays.sort(stripes);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || stripes[distinct - 1] != stripes[i]) {
+                stripes[distinct++] = stripes[i];
+            }
+        }
+        return Arrays.copyOf(stripes, distinct);
+    }
+
+    private static void acquire(int stripe, int highest) {
+        ReentrantLock lock = locks[stripe];
+        if (stripe > highest || lock.isHeldByCurrentThread()) {
+            lock.lock();
+            return;
+        }
+        // a nested operation reached an object its caller did not name; waiting
+        // unconditionally could deadlock against a thread that locked in order
+        try {
+            if (lock.tryLock(OUT_OF_ORDER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("Could not lock stripe " + stripe + " out of order, possible deadlock");
+    }
+
+    private static void release(int[] stripes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Stripes taken by one {@link #lock} call, released by {@link #close}.
+     */
+    public static final class Guard implements AutoCloseable {
+
+        private final int[] stripes;
+
+        private final int previousHighest;
+
+        private boolean closed;
+
+        private Guard(int[] stripes, int previousHighest) {
+            this.stripes = stripes;
+            this.previousHighest = previousHighest;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release(stripes, stripes.length);
+            highestHeld.get()[0] = previousHighest;
+        }
+    }
+}
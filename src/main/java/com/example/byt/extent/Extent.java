@@ -0,0 +1,182 @@
+package com.example.byt.extent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Insertion-ordered set of model instances keyed by identity.
+ * Elements live in an array with an identity index of their slots, so add,
+ * remove and contains are O(1); removals leave holes that are compacted once
+ * they outnumber the live elements. All operations synchronize on the extent;
+ * listeners are notified after the lock is released.
+ */
+public final class Extent<T> implements ExtentView<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Class<T> type;
+
+    private final Map<T, Integer> slots = new IdentityHashMap<>();
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+
+    private int end;
+
+    private List<T> snapshot;
+
+    Extent(Class<T> type) {
+        if (type == null) {
+            throw new NullPointerException("Extent type cannot be null");
+        }
+        this.type = type;
+    }
+
+    public boolean add(T element) {
+        if (!insert(element)) {
+            return false;
+        }
+        ExtentRegistry.fireAdded(this, element);
+        return true;
+    }
+
+    synchronized boolean insert(T element) {
+        if (element == null) {
+            throw new NullPointerException(type.getSimpleName() + " cannot be null");
+        }
+        if (slots.containsKey(element)) {
+            return false;
+        }
+        if (end == elements.length) {
+            if (slots.size() < end / 2) {
+                compact();
+            } else {
+                elements = Arrays.copyOf(elements, elements.length * 2);
+            }
+        }
+        elements[end] = element;
+        slots.put(element, end++);
+        snapshot = null;
+        return true;
+    }
+
+    public boolean addAll(Iterable<? extends T> newElements) {
+        boolean changed = false;
+        for (T element : newElements) {
+            changed |= add(element);
+        }
+        return changed;
+    }
+
+    public boolean remove(Object element) {
+        if (!delete(element)) {
+            return false;
+        }
+        ExtentRegistry.fireRemoved(this, element);
+        return true;
+    }
+
+    private synchronized boolean delete(Object element) {
+        if (element == null) {
+            return false;
+        }
+        Integer slot = slots.remove(element);
+        if (slot == null) {
+            return false;
+        }
+        elements[slot] = null;
+        snapshot = null;
+        if (end > INITIAL_CAPACITY && slots.size() < end / 2) {
+            compact();
+        }
+        return true;
+    }
+
+    public void clear() {
+        reset();
+        ExtentRegistry.fireCleared(this);
+    }
+
+    synchronized void reset() {
+        Arrays.fill(elements, 0, end, null);
+        slots.clear();
+        end = 0;
+        snapshot = null;
+    }
+
+    @Override
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean contains(Object element) {
+        return element != null && slots.containsKey(element);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> snapshot() {
+        List<T> current = snapshot;
+        if (current == null) {
+            Object[] live = new Object[slots.size()];
+            int i = 0;
+            for (int slot = 0; slot < end; slot++) {
+                if (elements[slot] != null) {
+                    live[i++] = elements[slot];
+                }
+            }
+            current = Collections.unmodifiableList(Arrays.asList((T[]) live));
+            snapshot = current;
+        }
+        return current;
+    }
+
+    // iterates over a snapshot, so callers may remove elements while iterating
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return snapshot().stream();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void compact() {
+        int live = 0;
+        for (int slot = 0; slot < end; slot++) {
+            Object element = elements[slot];
+            if (element != null) {
+                elements[live] = element;
+                slots.put((T) element, live);
+                live++;
+            }
+        }
+        Arrays.fill(elements, live, end, null);
+        end = live;
+    }
+
+    @Override
+    public String toString() {
+        return "Extent{" +
+                "type=" + type.getSimpleName() +
+                ", size=" + size() +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.byt.extent;
+
+/**
+ * Notified of every change to the membership of a registered extent.
+ * Restoring the registry replaces the extents wholesale and is reported to
+ * restore listeners instead.
+ */
+public interface ExtentListener {
+
+    void added(ExtentView<?> extent, Object element);
+
+    void removed(ExtentView<?> extent, Object element);
+
+    void cleared(ExtentView<?> extent);
+}
@@ -0,0 +1,128 @@
+package com.example.byt.extent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of the extent of every model class, in the order the classes
+ * registered them.
+ */
+public final class ExtentRegistry {
+
+    private static final Map<Class<?>, Extent<?>> extents = new LinkedHashMap<>();
+
+    // state derived from extent contents (e.g. static aggregates) is rebuilt by these after a restore
+    private static final List<Runnable> restoreListeners = new CopyOnWriteArrayList<>();
+
+    private static final List<ExtentListener> extentListeners = new CopyOnWriteArrayList<>();
+
+    private ExtentRegistry() {
+    }
+
+    public static synchronized <T> Extent<T> register(Class<T> type) {
+        if (type == null) {
+            throw new NullPointerException("Extent type cannot be null");
+        }
+        if (extents.containsKey(type)) {
+            throw new IllegalStateException("Extent already registered for " + type.getName());
+        }
+        Extent<T> extent = new Extent<>(type);
+        extents.put(type, extent);
+        return extent;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> ExtentView<T> getExtent(Class<T> type) {
+        return (ExtentView<T>) extents.get(type);
+    }
+
+    public static synchronized List<ExtentView<?>> getExtents() {
+        return new ArrayList<>(extents.values());
+    }
+
+    // true if the type or one of its superclasses owns an extent
+    public static synchronized boolean isRegisteredType(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            if (extents.containsKey(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void addRestoreListener(Runnable listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        restoreListeners.add(listener);
+    }
+
+    public static void removeRestoreListener(Runnable listener) {
+        restoreListeners.remove(listener);
+    }
+
+    public static void addExtentListener(ExtentListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        extentListeners.add(listener);
+    }
+
+    public static void removeExtentListener(ExtentListener listener) {
+        extentListeners.remove(listener);
+    }
+
+    static void fireAdded(ExtentView<?> extent, Object element) {
+        for (ExtentListener listener : extentListeners) {
+            listener.added(extent, element);
+        }
+    }
+
+    static void fireRemoved(ExtentView<?> extent, Object element) {
+        for (ExtentListener listener : extentListeners) {
+            listener.removed(extent, element);
+        }
+    }
+
+    static void fireCleared(ExtentView<?> extent) {
+        for (ExtentListener listener : extentListeners) {
+            listener.cleared(extent);
+        }
+    }
+
+    // replaces the contents of every registered extent; types missing from the map end up empty
+    public static void restore(Map<Class<?>, ? extends Collection<?>> contents) {
+        synchronized (ExtentRegistry.class) {
+            for (Class<?> type : contents.keySet()) {
+                if (!extents.containsKey(type)) {
+                    throw new IllegalArgumentException("No extent registered for " + type.getName());
+                }
+            }
+            for (Extent<?> extent : extents.values()) {
+                extent.reset();
+            }
+            for (Map.Entry<Class<?>, ? extends Collection<?>> entry : contents.entrySet()) {
+                fill(extents.get(entry.getKey()), entry.getValue());
+            }
+        }
+        for (Runnable listener : restoreListeners) {
+            listener.run();
+        }
+    }
+
+    private static <T> void fill(Extent<T> extent, Collection<?> elements) {
+        for (Object element : elements) {
+            extent.insert(extent.getType().cast(element));
+        }
+    }
+
+    public static synchronized void clearAll() {
+        for (Extent<?> extent : extents.values()) {
+            extent.clear();
+        }
+    }
+}
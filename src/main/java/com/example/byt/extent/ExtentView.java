@@ -0,0 +1,20 @@
+package com.example.byt.extent;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ExtentView<T> extends Iterable<T> {
+
+    Class<T> getType();
+
+    int size();
+
+    boolean isEmpty();
+
+    boolean contains(Object element);
+
+    // unmodifiable, insertion-ordered list; the same instance is returned until the extent changes
+    List<T> snapshot();
+
+    Stream<T> stream();
+}
@@ -0,0 +1,130 @@
+package com.example.byt.extent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Base of the indexes kept next to an extent. The index stores one value per
+ * element, read from the model by the caller under the element's link lock,
+ * and the subclass keeps its aggregates in step with every change of a value.
+ * Everything happens under the index's own monitor, which is a leaf: nothing
+ * is read from the model while it is held.
+ *
+ * After a load the index is stale and is rebuilt by the first query, outside
+ * the monitor. Elements updated while it is rebuilt keep their newer value
+ * over what the rebuild read earlier.
+ */
+public abstract class IncrementalIndex<K, V> {
+
+    private final Map<K, V> values = new IdentityHashMap<>();
+
+    private final Set<K> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean stale;
+
+    // moves the aggregates of the element from the old value to the new one; either may be null
+    protected abstract void changed(K element, V old, V value);
+
+    // drops every aggregate
+    protected abstract void cleared();
+
+    /**
+     * Keeps the index in step with the extent of the given type: added
+     * elements are handed to the callback, which reads and puts them,
+     * removed ones are dropped, clearing the extent clears the index and a
+     * restore marks it stale.
+     */
+    public final void follow(Class<K> type, Consumer<? super K> added) {
+        ExtentRegistry.addExtentListener(new ExtentListener() {
+            @Override
+            public void added(ExtentView<?> extent, Object element) {
+                if (extent.getType() == type) {
+                    added.accept(type.cast(element));
+                }
+            }
+
+            @Override
+            public void removed(ExtentView<?> extent, Object element) {
+                if (extent.getType() == type) {
+                    put(type.cast(element), null);
+                }
+            }
+
+            @Override
+            public void cleared(ExtentView<?> extent) {
+                if (extent.getType() == type) {
+                    clear();
+                }
+            }
+        });
+        ExtentRegistry.addRestoreListener(this::markStale);
+    }
+
+    // a null value takes the element out of the index
+    public final synchronized void put(K element, V value) {
+        if (stale) {
+            touched.add(element);
+        }
+        V old = value == null ? values.remove(element) : values.put(element, value);
+        if (old != value) {
+            changed(element, old, value);
+        }
+    }
+
+    public final void remove(K element) {
+        put(element, null);
+    }
+
+    public final synchronized V get(K element) {
+        return values.get(element);
+    }
+
+    public final synchronized void clear() {
+        values.clear();
+        touched.clear();
+        stale = false;
+        cleared();
+    }
+
+    public final synchronized void markStale() {
+        clear();
+        stale = true;
+    }
+
+    public final synchronized boolean isStale() {
+        return stale;
+    }
+
+    // reads the elements outside the monitor if the index is stale
+    public final void ensureBuilt(Collection<? extends K> elements, Function<? super K, ? extends V> reader) {
+        if (!isStale()) {
+            return;
+        }
+        List<Map.Entry<K, V>> rebuilt = new ArrayList<>(elements.size());
+        for (K element : elements) {
+            V value = reader.apply(element);
+            if (value != null) {
+                rebuilt.add(Map.entry(element, value));
+            }
+        }
+        synchronized (this) {
+            if (!stale) {
+                return;
+            }
+            stale = false;
+            for (Map.Entry<K, V> entry : rebuilt) {
+                if (!touched.contains(entry.getKey())) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            }
+            touched.clear();
+        }
+    }
+}
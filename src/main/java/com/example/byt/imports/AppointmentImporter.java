@@ -0,0 +1,237 @@
+package com.example.byt.imports;
+
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.services.FourHandsService;
+import com.example.byt.models.services.Service;
+import com.example.byt.validation.ModelValidator;
+import com.example.byt.validation.ValidationResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Creates appointments from a stream of records. Records are read in batches
+ * and every batch is validated as a whole before anything is linked. A record
+ * that passes validation but still fails while it is built (e.g. a master
+ * booked concurrently) is undone by the appointment, so a rejected record
+ * leaves no half-built objects behind. The accepted records of
+ * a batch are grouped by customer; with a parallelism above one the groups are
+ * built concurrently, since bookings of different customers only meet on the
+ * shared services and masters, which the link locks keep consistent.
+ */
+public final class AppointmentImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private int parallelism = 1;
+
+    private boolean checkAvailability;
+
+    public ImportReport importAll(Stream<AppointmentRecord> records) {
+        if (records == null) {
+            throw new NullPointerException("Records cannot be null");
+        }
+        try (records) {
+            return importAll(records.iterator());
+        }
+    }
+
+    public ImportReport importAll(Iterable<AppointmentRecord> records) {
+        if (records == null) {
+            throw new NullPointerException("Records cannot be null");
+        }
+        return importAll(records.iterator());
+    }
+
+    private ImportReport importAll(Iterator<AppointmentRecord> records) {
+        long started = System.nanoTime();
+        List<RejectedRecord> rejected = new ArrayList<>();
+        long imported = 0;
+        int batches = 0;
+        long index = 0;
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        try {
+            while (records.hasNext()) {
+                List<AppointmentRecord> batch = new ArrayList<>(batchSize);
+                long firstIndex = index;
+                while (batch.size() < batchSize && records.hasNext()) {
+                    batch.add(records.next());
+                    index++;
+                }
+                imported += importBatch(batch, firstIndex, rejected, executor);
+                batches++;
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        rejected.sort(Comparator.comparingLong(RejectedRecord::getIndex));
+        return new ImportReport(imported, rejected, batches, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private long importBatch(List<AppointmentRecord> batch, long firstIndex, List<RejectedRecord> rejected,
+                             ExecutorService executor) {
+        Map<Customer, List<Integer>> byCustomer = new LinkedHashMap<>();
+        int accepted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            AppointmentRecord record = batch.get(i);
+            String problem = validate(record);
+            if (problem != null) {
+                rejected.add(new RejectedRecord(firstIndex + i, record, problem, null));
+            } else {
+                byCustomer.computeIfAbsent(record.getCustomer(), c -> new ArrayList<>()).add(i);
+                accepted++;
+            }
+        }
+
+        List<Callable<List<RejectedRecord>>> groups = new ArrayList<>(byCustomer.size());
+        for (List<Integer> positions : byCustomer.values()) {
+            groups.add(() -> build(batch, positions, firstIndex));
+        }
+        List<RejectedRecord> failed = new ArrayList<>();
+        if (executor == null) {
+            for (Callable<List<RejectedRecord>> group : groups) {
+                failed.addAll(runGroup(group));
+            }
+        } else {
+            try {
+                for (Future<List<RejectedRecord>> future : executor.invokeAll(groups)) {
+                    failed.addAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import was interrupted", e);
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        rejected.addAll(failed);
+        return accepted - failed.size();
+    }
+
+    private List<RejectedRecord> build(List<AppointmentRecord> batch, List<Integer> positions, long firstIndex) {
+        List<RejectedRecord> failed = new ArrayList<>();
+        for (int position : positions) {
+            AppointmentRecord record = batch.get(position);
+            try {
+                Appointment.Builder builder = record.toBuilder();
+                if (checkAvailability) {
+                    builder.checkAvailability();
+                }
+                Appointment appointment = builder.build();
+                if (!Appointment.getAppointmentExtent().contains(appointment)) {
+                    failed.add(new RejectedRecord(firstIndex + position, record, "Appointment failed validation", null));
+                }
+            } catch (RuntimeException e) {
+                failed.add(new RejectedRecord(firstIndex + position, record, e.getMessage(), e));
+            }
+        }
+        return failed;
+    }
+
+    // returns the first problem of the record, or null if it can be imported
+    private static String validate(AppointmentRecord record) {
+        if (record == null) {
+            return "Record cannot be null";
+        }
+        ValidationResult<AppointmentRecord> result = ModelValidator.validate(record);
+        if (!result.isValid()) {
+            return "Invalid record: " + result.getMessagesByProperty();
+        }
+        if (record.getNotes() != null && record.getNotes().stream().anyMatch(n -> n == null || n.isBlank())) {
+            return "notes can't contain null or empty elements";
+        }
+        for (ServiceInfo serviceInfo : record.getServices()) {
+            if (serviceInfo == null) {
+                return "ServiceInfo cannot be null";
+            }
+            if (!(serviceInfo.getService() instanceof Service service)) {
+                return "Only services can be booked, not " + serviceInfo.getService().getClass().getSimpleName();
+            }
+            if (serviceInfo.getTime() == null) {
+                return "Time of " + service.getName() + " cannot be null";
+            }
+            int required = service.getRelatedService() instanceof FourHandsService
+                    ? FourHandsService.getNumOfSpecialistsRequired() : 1;
+            int masters = serviceInfo.getMastersView().size();
+            if (masters < required || masters > ProvidedService.getMaxMasters()) {
+                return service.getName() + " requires " + required + " master(s), but " + masters + " provided";
+            }
+            for (Master master : serviceInfo.getMastersView()) {
+                if (!master.hasServiceSpecialisesIn(service)) {
+                    return "Master " + master.getName() + " " + master.getSurname()
+                            + " does not specialize in service " + service.getName();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<RejectedRecord> runGroup(Callable<List<RejectedRecord>> group) {
+        try {
+            return group.call();
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("Import failed", cause);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // number of threads building appointments; 1 builds them on the calling thread
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public boolean isCheckAvailability() {
+        return checkAvailability;
+    }
+
+    // rejects records that book a master who is already busy, see Appointment.Builder.checkAvailability
+    public void setCheckAvailability(boolean checkAvailability) {
+        this.checkAvailability = checkAvailability;
+    }
+}
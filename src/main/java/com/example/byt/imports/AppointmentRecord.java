@@ -0,0 +1,95 @@
+package com.example.byt.imports;
+
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Receptionist;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+// one appointment to be created by AppointmentImporter; mirrors Appointment.Builder
+public class AppointmentRecord {
+
+    @NotNull
+    private final LocalDate date;
+
+    @NotNull
+    private final Customer customer;
+
+    @NotEmpty
+    private final Set<ServiceInfo> services;
+
+    private List<String> notes;
+
+    private PaymentMethod paymentMethod;
+
+    private Receptionist receptionist;
+
+    public AppointmentRecord(LocalDate date, Customer customer, Set<ServiceInfo> services) {
+        this.date = date;
+        this.customer = customer;
+        this.services = services;
+    }
+
+    public AppointmentRecord notes(List<String> notes) {
+        this.notes = notes == null ? null : new ArrayList<>(notes);
+        return this;
+    }
+
+    public AppointmentRecord paymentMethod(PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+        return this;
+    }
+
+    public AppointmentRecord receptionist(Receptionist receptionist) {
+        this.receptionist = receptionist;
+        return this;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public Set<ServiceInfo> getServices() {
+        return services == null ? null : Collections.unmodifiableSet(services);
+    }
+
+    public List<String> getNotes() {
+        return notes == null ? null : Collections.unmodifiableList(notes);
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public Receptionist getReceptionist() {
+        return receptionist;
+    }
+
+    Appointment.Builder toBuilder() {
+        return new Appointment.Builder(date, customer, services)
+                .notes(notes)
+                .paymentMethod(paymentMethod)
+                .receptionist(receptionist);
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentRecord{" +
+                "date=" + date +
+                ", services=" + (services == null ? 0 : services.size()) +
+                ", paymentMethod=" + paymentMethod +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.byt.imports;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+// outcome of one AppointmentImporter run
+public class ImportReport {
+
+    private final long importedCount;
+
+    private final List<RejectedRecord> rejected;
+
+    private final int batchCount;
+
+    private final Duration elapsed;
+
+    ImportReport(long importedCount, List<RejectedRecord> rejected, int batchCount, Duration elapsed) {
+        this.importedCount = importedCount;
+        this.rejected = Collections.unmodifiableList(rejected);
+        this.batchCount = batchCount;
+        this.elapsed = elapsed;
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejected.size();
+    }
+
+    // ordered by their position in the input
+    public List<RejectedRecord> getRejected() {
+        return rejected;
+    }
+
+    public long getProcessedCount() {
+        return importedCount + rejected.size();
+    }
+
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    // processed records per second
+    public double getThroughput() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0.0 : getProcessedCount() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "imported=" + importedCount +
+                ", rejected=" + rejected.size() +
+                ", batches=" + batchCount +
+                ", elapsed=" + elapsed +
+                ", throughput=" + String.format("%.1f/s", getThroughput()) +
+                '}';
+    }
+}
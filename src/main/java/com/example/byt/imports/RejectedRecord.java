@@ -0,0 +1,45 @@
+package com.example.byt.imports;
+
+// a record AppointmentImporter did not import, with its position in the input
+public class RejectedRecord {
+
+    private final long index;
+
+    private final AppointmentRecord record;
+
+    private final String reason;
+
+    private final Exception cause;
+
+    RejectedRecord(long index, AppointmentRecord record, String reason, Exception cause) {
+        this.index = index;
+        this.record = record;
+        this.reason = reason;
+        this.cause = cause;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public AppointmentRecord getRecord() {
+        return record;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    // the exception thrown while the appointment was built, null if the record failed validation
+    public Exception getCause() {
+        return cause;
+    }
+
+    @Override
+    public String toString() {
+        return "RejectedRecord{" +
+                "index=" + index +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
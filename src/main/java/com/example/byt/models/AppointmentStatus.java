@@ -4,5 +4,19 @@ public enum AppointmentStatus {
     SCHEDULED,
     COMPLETED,
     CANCELLED,
-    PAID
+    PAID;
+
+    // the appointment took place, so its services count as revenue
+    public boolean isCarriedOut() {
+        return this == COMPLETED || this == PAID;
+    }
+
+    // a scheduled appointment is either carried out or cancelled, and a completed one is paid
+    public boolean canChangeTo(AppointmentStatus next) {
+        return switch (this) {
+            case SCHEDULED -> next == COMPLETED || next == CANCELLED;
+            case COMPLETED -> next == PAID;
+            case CANCELLED, PAID -> false;
+        };
+    }
 }
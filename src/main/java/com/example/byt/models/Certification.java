@@ -1,10 +1,12 @@
 package com.example.byt.models;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
@@ -12,6 +14,7 @@ import jakarta.validation.constraints.PastOrPresent;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -34,7 +37,7 @@ public class Certification implements Serializable {
 
     private LocalDate expiryDate;
 
-    private static List<Certification> certifications = new ArrayList<>();
+    private static final Extent<Certification> certifications = ExtentRegistry.register(Certification.class);
 
     private Master master;
 
@@ -50,8 +53,23 @@ public class Certification implements Serializable {
         this.organization = organization;
         setIssueDate(issueDate);
         setExpiryDate(expiryDate);
-        addCertification(this);
-        setMaster(master);
+        if (master == null) {
+            throw new IllegalArgumentException("Master cannot be null");
+        }
+        // an invalid certification stays out of the extent, claims no number and is not linked
+        if (!ModelValidator.isValid(this)) {
+            return;
+        }
+        // the number is claimed before the extent sees the certification and released if it cannot be linked
+        CertificationNumberIndex.claim(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, master)) {
+            certifications.add(this);
+            setMaster(master);
+        } catch (RuntimeException e) {
+            certifications.remove(this);
+            CertificationNumberIndex.release(this);
+            throw e;
+        }
     }
 
     public Certification(Master master, String name, String certificationNumber,
@@ -59,46 +77,45 @@ public class Certification implements Serializable {
         this(master, name, certificationNumber, description, organization, issueDate, null);
     }
 
-    private void addCertification(Certification certification) {
-        if (certification == null) {
-            throw new NullPointerException("certification cannot be null");
-        }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Certification>> violations = validator.validate(certification);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the certification cannot be added to the list");
-            return;
-        }
-        certifications.add(certification);
-    }
-
     public void removeFromExtent() {
-        if (this.master != null) {
-            this.master.removeCertification(this.certificationNumber);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, this.master))) {
+            if (this.master != null) {
+                this.master.removeCertification(this.certificationNumber);
+            }
+            certifications.remove(this);
         }
-        certifications.remove(this);
     }
 
     public static List<Certification> getCertificationList() {
-        return new ArrayList<>(certifications);
+        return new ArrayList<>(certifications.snapshot());
+    }
+
+    public static ExtentView<Certification> getCertificationExtent() {
+        return certifications;
     }
 
     public void setExpiryDate(LocalDate expiryDate) {
-        if (expiryDate != null && issueDate.isAfter(expiryDate)) {
-            throw new IllegalArgumentException("expiryDate must be after issueDate");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (expiryDate != null && issueDate.isAfter(expiryDate)) {
+                throw new IllegalArgumentException("expiryDate must be after issueDate");
+            }
+            this.expiryDate = expiryDate;
+            ChangeLog.fieldSet(this, "expiryDate");
+            CertificationExpiry.expiryChanged(this);
         }
-        this.expiryDate = expiryDate;
     }
 
     public void setIssueDate(LocalDate issueDate) {
         if (issueDate == null) {
             throw new IllegalArgumentException("issueDate cannot be null");
         }
-        if (expiryDate != null && issueDate.isAfter(expiryDate)) {
-            throw new IllegalArgumentException("expiryDate must be after issueDate");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (expiryDate != null && issueDate.isAfter(expiryDate)) {
+                throw new IllegalArgumentException("expiryDate must be after issueDate");
+            }
+            this.issueDate = issueDate;
+            ChangeLog.fieldSet(this, "issueDate");
         }
-        this.issueDate = issueDate;
     }
 
     public String getName() {
@@ -133,11 +150,22 @@ public class Certification implements Serializable {
         if (master == null) {
             throw new IllegalArgumentException("Master cannot be null");
         }
-        if (this.master != null) {
-            this.master.removeCertification(this.certificationNumber);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, this.master, master))) {
+            if (this.master == master) {
+                return;
+            }
+            // checked before the old master lets go, so a failed move leaves the certification where it was
+            Certification existing = master.getCertificationByNumber(certificationNumber);
+            if (existing != null && existing != this) {
+                throw new IllegalStateException("Certification number already used for this Master.");
+            }
+            if (this.master != null) {
+                this.master.handOverCertification(this);
+            }
+            this.master = master;
+            ChangeLog.fieldSet(this, "master");
+            master.addCertification(this);
         }
-        this.master = master;
-        master.addCertification(this);
     }
 
     public static void clearExtent() {
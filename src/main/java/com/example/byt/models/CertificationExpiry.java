@@ -0,0 +1,193 @@
+package com.example.byt.models;
+
+import com.example.byt.extent.IncrementalIndex;
+import com.example.byt.models.person.Master;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Certifications of the extent ordered by expiry date. A daily job calls
+ * {@link #notifyExpiring} and the registered listeners are told once about
+ * every certification that expires within the notice period; each call only
+ * reads the days that came into the period since the previous one. A
+ * certification whose expiry date is moved into days that were already
+ * notified is reported by the next call.
+ *
+ * The index follows the certification extent and expiry date changes. After
+ * a load it is rebuilt on first use and every certification in the notice
+ * period is notified again.
+ */
+public final class CertificationExpiry {
+
+    private static final TreeMap<LocalDate, Set<Certification>> byExpiry = new TreeMap<>();
+
+    // moved into days that were already notified
+    private static final Set<Certification> pending = new LinkedHashSet<>();
+
+    // last day of the notice period at the previous notifyExpiring call, null before the first one
+    private static LocalDate notifiedThrough;
+
+    // the expiry date of every certification; byExpiry, pending and notifiedThrough are guarded by its monitor
+    private static final IncrementalIndex<Certification, LocalDate> expiries = new IncrementalIndex<>() {
+        @Override
+        protected void changed(Certification certification, LocalDate old, LocalDate expiry) {
+            moved(certification, old, expiry);
+        }
+
+        @Override
+        protected void cleared() {
+            byExpiry.clear();
+            pending.clear();
+            notifiedThrough = null;
+        }
+    };
+
+    private static final List<CertificationExpiryListener> listeners = new CopyOnWriteArrayList<>();
+
+    static {
+        expiries.follow(Certification.class,
+                certification -> expiries.put(certification, certification.getExpiryDate()));
+        // certifications loaded before the first model change reached this class are read on first use
+        if (!Certification.getCertificationExtent().isEmpty()) {
+            expiries.markStale();
+        }
+    }
+
+    private CertificationExpiry() {
+    }
+
+    public static void addListener(CertificationExpiryListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        listeners.add(listener);
+    }
+
+    public static void removeListener(CertificationExpiryListener listener) {
+        listeners.remove(listener);
+    }
+
+    // called under the certification's link lock after its expiry date changed
+    static void expiryChanged(Certification certification) {
+        if (Certification.getCertificationExtent().contains(certification)) {
+            expiries.put(certification, certification.getExpiryDate());
+        }
+    }
+
+    // tells the listeners about the certifications expiring from today to noticeDays ahead that were not
+    // reported yet, and returns them in order of expiry
+    public static List<Certification> notifyExpiring(LocalDate today, int noticeDays) {
+        if (today == null) {
+            throw new IllegalArgumentException("today cannot be null");
+        }
+        if (noticeDays < 0) {
+            throw new IllegalArgumentException("noticeDays cannot be negative");
+        }
+        ensureBuilt();
+        LocalDate horizon = today.plusDays(noticeDays);
+        List<Certification> due = new ArrayList<>();
+        synchronized (expiries) {
+            for (Certification certification : pending) {
+                LocalDate expiry = expiries.get(certification);
+                if (!expiry.isBefore(today) && !expiry.isAfter(horizon)) {
+                    due.add(certification);
+                }
+            }
+            pending.clear();
+            LocalDate from = notifiedThrough == null || notifiedThrough.isBefore(today)
+                    ? today
+                    : notifiedThrough.plusDays(1);
+            if (!from.isAfter(horizon)) {
+                for (Set<Certification> certifications : byExpiry.subMap(from, true, horizon, true).values()) {
+                    due.addAll(certifications);
+                }
+            }
+            if (notifiedThrough == null || notifiedThrough.isBefore(horizon)) {
+                notifiedThrough = horizon;
+            }
+            due.sort(Comparator.comparing(expiries::get));
+        }
+        for (CertificationExpiryListener listener : listeners) {
+            for (Certification certification : due) {
+                listener.expiring(certification);
+            }
+        }
+        return due;
+    }
+
+    // both dates inclusive, in order of expiry
+    public static List<Certification> getExpiringBetween(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        ensureBuilt();
+        List<Certification> result = new ArrayList<>();
+        synchronized (expiries) {
+            for (Set<Certification> certifications : byExpiry.subMap(from, true, to, true).values()) {
+                result.addAll(certifications);
+            }
+        }
+        return result;
+    }
+
+    // masters with a certification expiring within the days that hold no other certification of the same name
+    // valid after them, with the certifications they lose
+    public static Map<Master, List<Certification>> getMastersLosingQualification(LocalDate today, int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("days cannot be negative");
+        }
+        if (today == null) {
+            throw new IllegalArgumentException("today cannot be null");
+        }
+        LocalDate horizon = today.plusDays(days);
+        Map<Master, List<Certification>> result = new LinkedHashMap<>();
+        for (Certification certification : getExpiringBetween(today, horizon)) {
+            Master master = certification.getMaster();
+            if (master != null && !isRenewed(master, certification, horizon)) {
+                result.computeIfAbsent(master, m -> new ArrayList<>()).add(certification);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isRenewed(Master master, Certification expiring, LocalDate horizon) {
+        for (Certification other : master.getCertificationList().values()) {
+            if (other != expiring && other.getName() != null && other.getName().equals(expiring.getName())
+                    && (other.getExpiryDate() == null || other.getExpiryDate().isAfter(horizon))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void moved(Certification certification, LocalDate old, LocalDate expiry) {
+        if (old != null) {
+            Set<Certification> certifications = byExpiry.get(old);
+            certifications.remove(certification);
+            if (certifications.isEmpty()) {
+                byExpiry.remove(old);
+            }
+        }
+        if (expiry == null) {
+            pending.remove(certification);
+            return;
+        }
+        byExpiry.computeIfAbsent(expiry, d -> new LinkedHashSet<>()).add(certification);
+        if (notifiedThrough != null && !expiry.isAfter(notifiedThrough) && !expiry.equals(old)) {
+            pending.add(certification);
+        } else if (!expiry.equals(old)) {
+            pending.remove(certification);
+        }
+    }
+
+    private static void ensureBuilt() {
+        expiries.ensureBuilt(Certification.getCertificationExtent().snapshot(), Certification::getExpiryDate);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.byt.models;
+
+// told about certifications that are about to expire, see CertificationExpiry.notifyExpiring
+@FunctionalInterface
+public interface CertificationExpiryListener {
+
+    void expiring(Certification certification);
+}
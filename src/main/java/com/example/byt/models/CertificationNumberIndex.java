@@ -0,0 +1,129 @@
+package com.example.byt.models;
+
+import com.example.byt.extent.IncrementalIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Certifications held by masters, keyed by certification number and
+ * organization, so an audit finds the holder of a number without visiting
+ * every master. A number is unique within its organization across all
+ * masters: a certification {@link #claim claims} its key before it joins
+ * the extent, which fails if another certification already holds the key,
+ * and releases it when it leaves.
+ *
+ * The index follows the certification extent and is rebuilt from it on
+ * first use after a load.
+ */
+public final class CertificationNumberIndex {
+
+    private static final Map<String, Map<String, Certification>> byNumber = new HashMap<>();
+
+    // the key of every certification; byNumber is guarded by the monitor of this index and names the first
+    // certification that took each key
+    private static final IncrementalIndex<Certification, Key> keys = new IncrementalIndex<>() {
+        @Override
+        protected void changed(Certification certification, Key old, Key key) {
+            if (old != null) {
+                Map<String, Certification> byOrganization = byNumber.get(old.number);
+                if (byOrganization != null && byOrganization.get(old.organization) == certification) {
+                    byOrganization.remove(old.organization);
+                    if (byOrganization.isEmpty()) {
+                        byNumber.remove(old.number);
+                    }
+                }
+            }
+            if (key != null) {
+                byNumber.computeIfAbsent(key.number, n -> new LinkedHashMap<>())
+                        .putIfAbsent(key.organization, certification);
+            }
+        }
+
+        @Override
+        protected void cleared() {
+            byNumber.clear();
+        }
+    };
+
+    static {
+        // certifications replayed from a change log join without going through the constructor
+        keys.follow(Certification.class, certification -> keys.put(certification, Key.of(certification)));
+        // certifications loaded before the first model change reached this class are read on first use
+        if (!Certification.getCertificationExtent().isEmpty()) {
+            keys.markStale();
+        }
+    }
+
+    private CertificationNumberIndex() {
+    }
+
+    // the organization may be null for certifications issued without one
+    public static Certification find(String organization, String certificationNumber) {
+        if (certificationNumber == null) {
+            throw new IllegalArgumentException("certificationNumber cannot be null");
+        }
+        ensureBuilt();
+        synchronized (keys) {
+            Map<String, Certification> byOrganization = byNumber.get(certificationNumber);
+            return byOrganization == null ? null : byOrganization.get(organization);
+        }
+    }
+
+    // the certifications with this number from every organization
+    public static List<Certification> findAll(String certificationNumber) {
+        if (certificationNumber == null) {
+            throw new IllegalArgumentException("certificationNumber cannot be null");
+        }
+        ensureBuilt();
+        synchronized (keys) {
+            Map<String, Certification> byOrganization = byNumber.get(certificationNumber);
+            return byOrganization == null ? new ArrayList<>() : new ArrayList<>(byOrganization.values());
+        }
+    }
+
+    // called by the certification before it joins the extent, and again by Master.addCertification
+    public static void claim(Certification certification) {
+        ensureBuilt();
+        Key key = Key.of(certification);
+        synchronized (keys) {
+            Map<String, Certification> byOrganization = key == null ? null : byNumber.get(key.number);
+            Certification holder = byOrganization == null ? null : byOrganization.get(key.organization);
+            if (holder != null && holder != certification) {
+                throw new IllegalStateException("Certification number " + certification.getCertificationNumber()
+                        + " of " + certification.getOrganization() + " is already held by another certification");
+            }
+            keys.put(certification, key);
+        }
+    }
+
+    // called when the certification leaves the extent; a certification that does not hold its key is ignored
+    public static void release(Certification certification) {
+        keys.put(certification, null);
+    }
+
+    private static void ensureBuilt() {
+        keys.ensureBuilt(Certification.getCertificationExtent().snapshot(), Key::of);
+    }
+
+    private static final class Key {
+
+        private final String number;
+
+        private final String organization;
+
+        private Key(String number, String organization) {
+            this.number = number;
+            this.organization = organization;
+        }
+
+        // certifications without a number hold no key
+        private static Key of(Certification certification) {
+            String number = certification.getCertificationNumber();
+            return number == null ? null : new Key(number, certification.getOrganization());
+        }
+    }
+}
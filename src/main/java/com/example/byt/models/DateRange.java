@@ -0,0 +1,19 @@
+package com.example.byt.models;
+
+import java.time.LocalDate;
+
+// argument check of the queries over a range of days, both ends inclusive
+public final class DateRange {
+
+    private DateRange() {
+    }
+
+    public static void validate(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to cannot be null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+    }
+}
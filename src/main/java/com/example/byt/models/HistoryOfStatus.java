@@ -1,11 +1,14 @@
 package com.example.byt.models;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.appointment.Appointment;
 import com.example.byt.models.person.Customer;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.persistence.MappedSource;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
 
@@ -28,7 +31,10 @@ public class HistoryOfStatus implements Serializable {
     @PastOrPresent
     private LocalDate dateOfChangingStatus;
 
-    private static List<HistoryOfStatus> historyOfStatuses = new ArrayList<>();
+    private static final Extent<HistoryOfStatus> historyOfStatuses = ExtentRegistry.register(HistoryOfStatus.class);
+
+    // set while the fields are still in a mapped extent file, see MappedExtentStore
+    private transient MappedSource mappedSource;
 
     private HistoryOfStatus() {
     }
@@ -36,9 +42,46 @@ public class HistoryOfStatus implements Serializable {
     public HistoryOfStatus(AppointmentStatus status, LocalDate dateOfChangingStatus, Customer customer, Appointment appointment) {
         this.status = status;
         this.dateOfChangingStatus = dateOfChangingStatus;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> partiesOf(this, customer, appointment))) {
+            link(customer, appointment);
+        }
+    }
 
-        addCustomer(customer);
+    // a change of the appointment's status, recorded only if the check passes under the locks it is linked with
+    public static HistoryOfStatus record(AppointmentStatus status, LocalDate dateOfChangingStatus, Customer customer,
+                                         Appointment appointment, Runnable check) {
+        HistoryOfStatus historyOfStatus = new HistoryOfStatus();
+        historyOfStatus.status = status;
+        historyOfStatus.dateOfChangingStatus = dateOfChangingStatus;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> partiesOf(historyOfStatus, customer, appointment))) {
+            check.run();
+            historyOfStatus.link(customer, appointment);
+        }
+        return historyOfStatus;
+    }
+
+    // a status change also reaches the appointment's provided services, so their stripes are taken up front
+    private static List<Object> partiesOf(HistoryOfStatus historyOfStatus, Customer customer, Appointment appointment) {
+        List<Object> parties = new ArrayList<>();
+        parties.add(historyOfStatus);
+        parties.add(customer);
+        if (appointment != null) {
+            parties.add(appointment);
+            parties.addAll(appointment.getProvidedServicesView());
+        }
+        return parties;
+    }
+
+    // everything removeFromExtent unlinks; read from the links, so callers lock it through LinkLocks.lockStable
+    public List<Object> linkedParties() {
+        materialize();
+        return partiesOf(this, customer, appointment);
+    }
+
+    private void link(Customer customer, Appointment appointment) {
+        // the appointment is linked first so the customer's timeline sees the visit
         addAppointment(appointment);
+        addCustomer(customer);
 
         addHistoryOfStatus(this);
     }
@@ -47,60 +90,100 @@ public class HistoryOfStatus implements Serializable {
         if (historyOfStatus == null){
             throw new NullPointerException("HistoryOfStatus cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<HistoryOfStatus>> violations = validator.validate(historyOfStatus);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the history cannot be added to the list");
+        if (!ModelValidator.isValid(historyOfStatus)) {
             return;
         }
         historyOfStatuses.add(historyOfStatus);
     }
 
     public void addCustomer(Customer customer){
+        materialize();
         if  (customer == null){
             throw new NullPointerException("Customer cannot be null");
         }
 
-        if (this.customer == customer){
-            return;
-        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, customer)) {
+            if (this.customer == customer){
+                return;
+            }
 
-        this.customer = customer;
-        customer.addHistory(this);
+            this.customer = customer;
+            ChangeLog.fieldSet(this, "customer");
+            customer.addHistory(this);
+        }
     }
 
     public void addAppointment(Appointment appointment){
+        materialize();
         if (appointment == null){
             throw new NullPointerException("Appointment cannot be null");
         }
 
-        if (this.appointment == appointment){
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> partiesOf(this, null, appointment))) {
+            if (this.appointment == appointment){
+                return;
+            }
+
+            this.appointment = appointment;
+            ChangeLog.fieldSet(this, "appointment");
+            appointment.addHistory(this);
         }
+    }
 
-        this.appointment = appointment;
-        appointment.addHistory(this);
+    // unlinks the status change from its customer and appointment and drops it from the extent
+    public void removeFromExtent() {
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(this::linkedParties)) {
+            Customer oldCustomer = customer;
+            if (oldCustomer != null) {
+                // the customer's timeline still reads the appointment of the change
+                customer = null;
+                ChangeLog.fieldSet(this, "customer");
+                oldCustomer.removeHistory(this);
+            }
+            Appointment oldAppointment = appointment;
+            if (oldAppointment != null) {
+                appointment = null;
+                ChangeLog.fieldSet(this, "appointment");
+                oldAppointment.removeHistory(this);
+            }
+            historyOfStatuses.remove(this);
+        }
     }
 
     public Customer getCustomer() {
+        materialize();
         return customer;
     }
 
     public Appointment getAppointment() {
+        materialize();
         return appointment;
     }
 
     public AppointmentStatus getStatus() {
+        materialize();
         return status;
     }
 
     public LocalDate getDateOfChangingStatus() {
+        materialize();
         return dateOfChangingStatus;
     }
 
+    private void materialize() {
+        MappedSource source = mappedSource;
+        if (source != null) {
+            source.materialize(this);
+        }
+    }
+
     public static List<HistoryOfStatus> getHistoryOfStatusList() {
-        return new ArrayList<>(historyOfStatuses);
+        return new ArrayList<>(historyOfStatuses.snapshot());
+    }
+
+    public static ExtentView<HistoryOfStatus> getHistoryOfStatusExtent() {
+        return historyOfStatuses;
     }
 
     public static void clearExtent() {
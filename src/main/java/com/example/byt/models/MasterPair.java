@@ -0,0 +1,85 @@
+package com.example.byt.models;
+
+import com.example.byt.models.person.Master;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// two masters free together for a four-hands service, as returned by FourHandsService.findMasterPairs
+public class MasterPair {
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    private final Master first;
+
+    private final Master second;
+
+    public MasterPair(LocalDateTime start, LocalDateTime end, Master first, Master second) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Pair start and end cannot be null");
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Pair end must not be before its start");
+        }
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Masters cannot be null");
+        }
+        if (first == second) {
+            throw new IllegalArgumentException("A pair needs two different masters");
+        }
+        this.start = start;
+        this.end = end;
+        this.first = first;
+        this.second = second;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Master getFirst() {
+        return first;
+    }
+
+    public Master getSecond() {
+        return second;
+    }
+
+    public boolean hasTopMaster() {
+        return first.isTopMaster() || second.isTopMaster();
+    }
+
+    public boolean contains(Master master) {
+        return master != null && (first == master || second == master);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MasterPair)) return false;
+        MasterPair pair = (MasterPair) o;
+        return start.equals(pair.start) && end.equals(pair.end)
+                && ((first == pair.first && second == pair.second) || (first == pair.second && second == pair.first));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, System.identityHashCode(first) ^ System.identityHashCode(second));
+    }
+
+    @Override
+    public String toString() {
+        return "MasterPair{" +
+                "start=" + start +
+                ", end=" + end +
+                ", first=" + first.getName() + " " + first.getSurname() +
+                ", second=" + second.getName() + " " + second.getSurname() +
+                '}';
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.byt.models;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.services.Service;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotBlank;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Material implements Serializable {
     @NotBlank
@@ -19,9 +23,12 @@ public class Material implements Serializable {
     @NotBlank
     private String producer;
 
-    private Set<Service> servicesUsedIn = new HashSet<>();
+    private Set<Service> servicesUsedIn = ConcurrentHashMap.newKeySet();
 
-    private static List<Material> materials = new ArrayList<>();
+    // on hand after the booked services took their share; negative when bookings exceed the stock
+    private double stock;
+
+    private static final Extent<Material> materials = ExtentRegistry.register(Material.class);
 
     private Material() {
     }
@@ -36,11 +43,7 @@ public class Material implements Serializable {
         if (material == null){
             throw new NullPointerException("Material cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Material>> violations = validator.validate(material);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the material cannot be added to the list");
+        if (!ModelValidator.isValid(material)) {
             return;
         }
         materials.add(material);
@@ -49,20 +52,63 @@ public class Material implements Serializable {
     public void addServiceUsedIn(Service service){
         if(service == null)
             throw new IllegalArgumentException("Service cannot be null");
-        if(servicesUsedIn.add(service))
-            service.addMaterialUsed(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if(servicesUsedIn.add(service)) {
+                ChangeLog.elementAdded(this, "servicesUsedIn", service);
+                service.addMaterialUsed(this);
+            }
+        }
     }
 
     public void removeServiceUsedIn(Service service){
-        if(service != null && servicesUsedIn.remove(service))
-            service.removeMaterialUsed(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if(service != null && servicesUsedIn.remove(service)) {
+                ChangeLog.elementRemoved(this, "servicesUsedIn", service);
+                service.removeMaterialUsed(this);
+            }
+        }
     }
 
     public Set<Service> getServicesUsedIn() {
         return new HashSet<>(servicesUsedIn);
     }
+
+    public Set<Service> getServicesUsedInView() {
+        return Collections.unmodifiableSet(servicesUsedIn);
+    }
+
+    public boolean isUsedIn(Service service) {
+        return service != null && servicesUsedIn.contains(service);
+    }
+
+    public int getServiceUsedInCount() {
+        return servicesUsedIn.size();
+    }
+    public void addStock(double quantity) {
+        if (quantity < 0 || Double.isNaN(quantity) || Double.isInfinite(quantity))
+            throw new IllegalArgumentException("Quantity must be a non-negative number");
+        adjustStock(quantity);
+    }
+
+    public synchronized double getStock() {
+        return stock;
+    }
+
+    // called by provided services as they are booked and cancelled, under their own link locks
+    synchronized void adjustStock(double delta) {
+        if (delta == 0) {
+            return;
+        }
+        stock += delta;
+        ChangeLog.fieldSet(this, "stock");
+    }
+
     public static List<Material> getMaterialList() {
-        return new ArrayList<>(materials);
+        return new ArrayList<>(materials.snapshot());
+    }
+
+    public static ExtentView<Material> getMaterialExtent() {
+        return materials;
     }
 
     public String getName() {
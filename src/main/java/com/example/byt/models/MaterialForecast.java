@@ -0,0 +1,208 @@
+package com.example.byt.models;
+
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.IncrementalIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Booked material demand per material and day. A provided service takes its
+ * materials from stock when it is booked; its usage is added here on the day
+ * it takes place, so the forecast only walks the booked days of one material
+ * instead of going through every provided service.
+ *
+ * Stock already excludes everything booked, so the stock on hand before a
+ * day is the current stock plus the demand booked from that day on. A
+ * material runs out on the first day that demand takes it below zero.
+ *
+ * Provided services of a cancelled appointment give their materials back, so
+ * they drop out of the forecast. The model reports every take and give-back;
+ * a load leaves the forecast to be read again by the first query.
+ */
+public final class MaterialForecast {
+
+    // rounding left over after booking and cancelling fractional quantities
+    private static final double TOLERANCE = 1e-9;
+
+    private static final Map<Material, TreeMap<LocalDate, double[]>> demand = new IdentityHashMap<>();
+
+    // the usage booked by each provided service; demand is guarded by the monitor of this index
+    private static final IncrementalIndex<ProvidedService, Usage> usages = new IncrementalIndex<>() {
+        @Override
+        protected void changed(ProvidedService providedService, Usage old, Usage usage) {
+            if (old != null) {
+                book(old, -1);
+            }
+            if (usage != null) {
+                book(usage, 1);
+            }
+        }
+
+        @Override
+        protected void cleared() {
+            demand.clear();
+        }
+    };
+
+    static {
+        usages.follow(ProvidedService.class, MaterialForecast::providedServiceChanged);
+        if (!ProvidedService.getProvidedServiceExtent().isEmpty()) {
+            usages.markStale();
+        }
+    }
+
+    private MaterialForecast() {
+    }
+
+    // called by the model whenever a provided service takes or gives back its materials
+    public static void providedServiceChanged(ProvidedService providedService) {
+        if (providedService == null) {
+            return;
+        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(providedService)) {
+            usages.put(providedService, usageOf(providedService));
+        }
+    }
+
+    public static double getDemand(Material material, LocalDate from, LocalDate to) {
+        double total = 0;
+        for (double quantity : getDemandByDay(material, from, to).values()) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    public static SortedMap<LocalDate, Double> getDemandByDay(Material material, LocalDate from, LocalDate to) {
+        validateMaterial(material);
+        DateRange.validate(from, to);
+        ensureBuilt();
+        SortedMap<LocalDate, Double> result = new TreeMap<>();
+        synchronized (usages) {
+            TreeMap<LocalDate, double[]> days = demand.get(material);
+            if (days != null) {
+                for (Map.Entry<LocalDate, double[]> day : days.subMap(from, true, to, true).entrySet()) {
+                    result.put(day.getKey(), day.getValue()[0]);
+                }
+            }
+        }
+        return result;
+    }
+
+    // the first day from the given one the booked services need more than is left, or null if the stock lasts
+    public static LocalDate getDepletionDate(Material material, LocalDate from) {
+        validateMaterial(material);
+        if (from == null) {
+            throw new IllegalArgumentException("from cannot be null");
+        }
+        ensureBuilt();
+        synchronized (usages) {
+            return depletionDate(material, from);
+        }
+    }
+
+    // materials running out by the given day, earliest first
+    public static Map<Material, LocalDate> getMaterialsRunningOut(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        ensureBuilt();
+        List<Map.Entry<Material, LocalDate>> running = new ArrayList<>();
+        synchronized (usages) {
+            for (Material material : Material.getMaterialExtent().snapshot()) {
+                LocalDate date = depletionDate(material, from);
+                if (date != null && !date.isAfter(to)) {
+                    running.add(Map.entry(material, date));
+                }
+            }
+        }
+        running.sort(Map.Entry.comparingByValue());
+        Map<Material, LocalDate> result = new LinkedHashMap<>();
+        for (Map.Entry<Material, LocalDate> entry : running) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static LocalDate depletionDate(Material material, LocalDate from) {
+        NavigableMap<LocalDate, double[]> ahead = demand.getOrDefault(material, new TreeMap<>()).tailMap(from, true);
+        double onHand = material.getStock();
+        for (double[] day : ahead.values()) {
+            onHand += day[0];
+        }
+        // services before the given day already took more than there was
+        if (onHand < -TOLERANCE) {
+            return from;
+        }
+        for (Map.Entry<LocalDate, double[]> day : ahead.entrySet()) {
+            onHand -= day.getValue()[0];
+            if (onHand < -TOLERANCE) {
+                return day.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static void validateMaterial(Material material) {
+        if (material == null) {
+            throw new IllegalArgumentException("Material cannot be null");
+        }
+    }
+
+    // what the provided service took from stock, on the day it takes place; read under its link lock
+    private static Usage usageOf(ProvidedService providedService) {
+        if (!ProvidedService.getProvidedServiceExtent().contains(providedService)) {
+            return null;
+        }
+        if (providedService.getTime() == null) {
+            return null;
+        }
+        Map<Material, Double> quantities = providedService.getMaterialUsage();
+        if (quantities.isEmpty()) {
+            return null;
+        }
+        return new Usage(providedService.getTime().toLocalDate(), quantities);
+    }
+
+    // adds or takes away the usage on its day, for every material it names
+    private static void book(Usage usage, int sign) {
+        for (Map.Entry<Material, Double> quantity : usage.quantities.entrySet()) {
+            TreeMap<LocalDate, double[]> days = demand.computeIfAbsent(quantity.getKey(), m -> new TreeMap<>());
+            double[] day = days.computeIfAbsent(usage.date, d -> new double[2]);
+            day[0] += sign * quantity.getValue();
+            // the number of provided services booked on the day; a day without any is dropped
+            day[1] += sign;
+            if (day[1] == 0) {
+                days.remove(usage.date);
+                if (days.isEmpty()) {
+                    demand.remove(quantity.getKey());
+                }
+            }
+        }
+    }
+
+    private static void ensureBuilt() {
+        usages.ensureBuilt(ProvidedService.getProvidedServiceExtent().snapshot(), providedService -> {
+            try (LinkLocks.Guard guard = LinkLocks.lock(providedService)) {
+                return usageOf(providedService);
+            }
+        });
+    }
+
+    private static final class Usage {
+
+        private final LocalDate date;
+
+        private final Map<Material, Double> quantities;
+
+        private Usage(LocalDate date, Map<Material, Double> quantities) {
+            this.date = date;
+            this.quantities = quantities;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.byt.models;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.services.Service;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -12,9 +14,11 @@ import jakarta.validation.constraints.NotBlank;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Promotion implements Serializable {
     @NotBlank
@@ -31,9 +35,9 @@ public class Promotion implements Serializable {
 
     private LocalDate endDate;
 
-    private Set<Service> servicesApplicableTo = new HashSet<>();
+    private Set<Service> servicesApplicableTo = ConcurrentHashMap.newKeySet();
 
-    private static List<Promotion> promotions = new ArrayList<>();
+    private static final Extent<Promotion> promotions = ExtentRegistry.register(Promotion.class);
 
     private Promotion() {
     }
@@ -58,11 +62,7 @@ public class Promotion implements Serializable {
         if (promotion == null){
             throw new NullPointerException("Promotion cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Promotion>> violations = validator.validate(promotion);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the promotion cannot be added to the list");
+        if (!ModelValidator.isValid(promotion)) {
             return;
         }
         promotions.add(promotion);
@@ -71,18 +71,25 @@ public class Promotion implements Serializable {
     public void addServiceApplicableTo(Service service){
         if(service == null)
             throw new IllegalArgumentException("Service cannot be null");
-        if(servicesApplicableTo.add(service))
-            service.addPromotionApplied(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if(servicesApplicableTo.add(service)) {
+                ChangeLog.elementAdded(this, "servicesApplicableTo", service);
+                service.addPromotionApplied(this);
+            }
+        }
     }
 
     public void removeServiceApplicableTo(Service service){
         if(service == null) return;
-        if(servicesApplicableTo.remove(service)){
-            service.removePromotionApplied(this);
-        }
-        if(servicesApplicableTo.isEmpty()) {
-            addServiceApplicableTo(service);
-            throw new IllegalStateException("Promotion must have at least one service");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if(servicesApplicableTo.remove(service)){
+                ChangeLog.elementRemoved(this, "servicesApplicableTo", service);
+                service.removePromotionApplied(this);
+            }
+            if(servicesApplicableTo.isEmpty()) {
+                addServiceApplicableTo(service);
+                throw new IllegalStateException("Promotion must have at least one service");
+            }
         }
     }
 
@@ -90,28 +97,54 @@ public class Promotion implements Serializable {
         return new HashSet<>(servicesApplicableTo);
     }
 
+    public Set<Service> getServicesApplicableToView() {
+        return Collections.unmodifiableSet(servicesApplicableTo);
+    }
+
+    public boolean isApplicableTo(Service service) {
+        return service != null && servicesApplicableTo.contains(service);
+    }
+
+    public int getServiceApplicableToCount() {
+        return servicesApplicableTo.size();
+    }
+
 
     public void setStartDate(LocalDate startDate) {
         if (startDate == null) {
             throw new IllegalArgumentException("startDate cannot be null");
         }
-        if (endDate != null && startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("startDate must not be after endDate");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (endDate != null && startDate.isAfter(endDate)) {
+                throw new IllegalArgumentException("startDate must not be after endDate");
+            }
+            this.startDate = startDate;
+            ChangeLog.fieldSet(this, "startDate");
+            notifyDatesChanged();
         }
-        this.startDate = startDate;
     }
 
     public void setEndDate(LocalDate endDate) {
         if (endDate == null) {
             throw new IllegalArgumentException("endDate cannot be null");
         }
-        if (startDate == null) {
-            throw new IllegalArgumentException("startDate must be set before endDate");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (startDate == null) {
+                throw new IllegalArgumentException("startDate must be set before endDate");
+            }
+            if (startDate.isAfter(endDate)) {
+                throw new IllegalArgumentException("endDate must not be before startDate");
+            }
+            this.endDate = endDate;
+            ChangeLog.fieldSet(this, "endDate");
+            notifyDatesChanged();
         }
-        if (startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("endDate must not be before startDate");
+    }
+
+    private void notifyDatesChanged() {
+        for (Service service : servicesApplicableTo) {
+            service.promotionDatesChanged(this);
         }
-        this.endDate = endDate;
     }
 
     public String getName() {
@@ -135,7 +168,11 @@ public class Promotion implements Serializable {
     }
 
     public static List<Promotion> getPromotionList() {
-        return new ArrayList<>(promotions);
+        return new ArrayList<>(promotions.snapshot());
+    }
+
+    public static ExtentView<Promotion> getPromotionExtent() {
+        return promotions;
     }
 
     public static void clearExtent() {
@@ -1,21 +1,32 @@
 package com.example.byt.models;
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.appointment.Appointment;
 import com.example.byt.models.person.Master;
 import com.example.byt.models.person.Worker;
 import com.example.byt.models.services.FourHandsService;
 import com.example.byt.models.services.Service;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.persistence.MappedSource;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.*;
 
 import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ProvidedService implements Serializable {
 
@@ -32,12 +43,36 @@ public class ProvidedService implements Serializable {
 
     private Appointment appointment;
 
-    private Set<Master> completedByMasters = new HashSet<>();
+    private Set<Master> completedByMasters = ConcurrentHashMap.newKeySet();
+
+    // the price as booked, captured once by capturePrice
+    @Min(0)
+    private double basePrice;
+
+    @Min(0)
+    @Max(100)
+    private double discount;
+
+    private boolean topMasterSurcharge;
+
+    @Min(0)
+    private double price;
+
+    // false only for provided services saved before prices were captured
+    private volatile boolean priced;
+
+    // materials taken from stock when the service was booked, given back if it is cancelled
+    private Map<Material, Double> materialUsage = new ConcurrentHashMap<>();
 
     private static final int MIN_MASTERS = 1;
     private static final int MAX_MASTERS = 2;
 
-    private static List<ProvidedService> providedServices = new ArrayList<>();
+    private static final double TOP_MASTER_SURCHARGE = 0.2;
+
+    private static final Extent<ProvidedService> providedServices = ExtentRegistry.register(ProvidedService.class);
+
+    // set while the fields are still in a mapped extent file, see MappedExtentStore
+    private transient MappedSource mappedSource;
 
     private ProvidedService() {}
 
@@ -45,123 +80,170 @@ public class ProvidedService implements Serializable {
         this.rating = builder.rating;
         this.comment = builder.comment;
         this.time = builder.time;
-        addService(builder.service);
-        addAppointment(builder.appointment);
-        if (builder.masters == null || builder.masters.isEmpty()) {
-            throw new IllegalArgumentException("ProvidedService must have at least " + MIN_MASTERS + " master(s)");
-        }
-        for (Master master : builder.masters) {
-            addMaster(master);
+        try {
+            addService(builder.service);
+            addAppointment(builder.appointment);
+            if (builder.masters == null || builder.masters.isEmpty()) {
+                throw new IllegalArgumentException("ProvidedService must have at least " + MIN_MASTERS + " master(s)");
+            }
+            for (Master master : builder.masters) {
+                // the check and the booking happen under one lock, so concurrent bookings cannot both pass
+                try (LinkLocks.Guard guard = LinkLocks.lock(this, master)) {
+                    if (builder.checkAvailability) {
+                        validateMasterAvailability(master);
+                    }
+                    addMaster(master);
+                }
+            }
+            validateMasterCount();
+            capturePrice(LocalDate.now());
+            addProvidedService(this);
+            try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+                takeMaterials();
+            }
+        } catch (RuntimeException e) {
+            // a booking that failed part way leaves nothing linked behind
+            detach(true);
+            throw e;
         }
-        validateMasterCount();
-        addProvidedService(this);
     }
 
     private static void addProvidedService(ProvidedService providedService){
         if (providedService == null) {
             throw new NullPointerException("ProvidedService cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<ProvidedService>> violations = validator.validate(providedService);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the provided service cannot be added to the list");
+        if (!ModelValidator.isValid(providedService)) {
             return;
         }
         providedServices.add(providedService);
     }
 
     public void addService(Service service){
+        materialize();
         if (service == null) {
             throw new NullPointerException("Service cannot be null");
         }
 
-        if (this.service == service) {
-            return;
-        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if (this.service == service) {
+                return;
+            }
 
-        this.service = service;
-        service.addProvidedService(this);
+            this.service = service;
+            ChangeLog.fieldSet(this, "service");
+            service.addProvidedService(this);
+            takeMaterials();
+            RevenueCube.providedServiceChanged(this);
+        }
     }
 
     public void addAppointment(Appointment appointment){
+        materialize();
         if (appointment == null) {
             throw new NullPointerException("Appointment cannot be null");
         }
 
-        if (this.appointment == appointment) {
-            return;
-        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, appointment)) {
+            if (this.appointment == appointment) {
+                return;
+            }
 
-        this.appointment = appointment;
-        appointment.addProvidedService(this);
+            this.appointment = appointment;
+            ChangeLog.fieldSet(this, "appointment");
+            appointment.addProvidedService(this);
+            RevenueCube.providedServiceChanged(this);
+        }
     }
 
     public void addMaster(Master master) {
+        materialize();
         if (master == null) {
             throw new NullPointerException("Master cannot be null");
         }
-        if (completedByMasters.contains(master)) {
-            return;
-        }
-        if (completedByMasters.size() >= MAX_MASTERS) {
-            throw new IllegalStateException(
-                    "Cannot add more masters. Maximum is " + MAX_MASTERS
-            );
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, master)) {
+            if (completedByMasters.contains(master)) {
+                return;
+            }
+            if (completedByMasters.size() >= MAX_MASTERS) {
+                throw new IllegalStateException(
+                        "Cannot add more masters. Maximum is " + MAX_MASTERS
+                );
+            }
+            validateMasterSpecialization(master);
+            completedByMasters.add(master);
+            ChangeLog.elementAdded(this, "completedByMasters", master);
+            master.addCompletedService(this);
+            RevenueCube.providedServiceChanged(this);
         }
-        validateMasterSpecialization(master);
-        completedByMasters.add(master);
-        master.addCompletedService(this);
     }
 
     public void removeAppointment(Appointment appointment){
+        materialize();
         if (appointment == null) {
             throw new NullPointerException("Appointment cannot be null");
         }
-        if (this.appointment != appointment) {
-            return;
-        }
-        Appointment oldAppointment = this.appointment;
-        Service oldService = this.service;
-        this.appointment = null;
-        this.service = null;
-        oldAppointment.removeProvidedService(this);
-        if (oldService != null) {
-            oldService.removeProvidedService(this);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, appointment, this.service))) {
+            if (this.appointment != appointment) {
+                return;
+            }
+            Appointment oldAppointment = this.appointment;
+            Service oldService = this.service;
+            this.appointment = null;
+            this.service = null;
+            ChangeLog.fieldSet(this, "appointment");
+            ChangeLog.fieldSet(this, "service");
+            oldAppointment.removeProvidedService(this);
+            if (oldService != null) {
+                oldService.removeProvidedService(this);
+            }
+            returnMaterials();
+            RevenueCube.providedServiceChanged(this);
         }
     }
 
     public void removeService(Service service){
+        materialize();
         if (service == null) {
             throw new NullPointerException("Service cannot be null");
         }
-        if (this.service != service) {
-            return;
-        }
-        Service oldService = this.service;
-        Appointment oldAppointment = this.appointment;
-        this.service = null;
-        this.appointment = null;
-        oldService.removeProvidedService(this);
-        if (oldAppointment != null) {
-            oldAppointment.removeProvidedService(this);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, service, this.appointment))) {
+            if (this.service != service) {
+                return;
+            }
+            Service oldService = this.service;
+            Appointment oldAppointment = this.appointment;
+            this.service = null;
+            this.appointment = null;
+            ChangeLog.fieldSet(this, "service");
+            ChangeLog.fieldSet(this, "appointment");
+            oldService.removeProvidedService(this);
+            if (oldAppointment != null) {
+                oldAppointment.removeProvidedService(this);
+            }
+            returnMaterials();
+            RevenueCube.providedServiceChanged(this);
         }
     }
 
     public void removeMaster(Master master) {
+        materialize();
         if (master == null) {
             throw new NullPointerException("Master cannot be null");
         }
-        if (!completedByMasters.contains(master)) {
-            return;
-        }
-        if (completedByMasters.size() <= MIN_MASTERS) {
-            throw new IllegalStateException(
-                    "Cannot remove master. ProvidedService must have at least " + MIN_MASTERS + " master(s)"
-            );
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, master)) {
+            if (!completedByMasters.contains(master)) {
+                return;
+            }
+            if (completedByMasters.size() <= MIN_MASTERS) {
+                throw new IllegalStateException(
+                        "Cannot remove master. ProvidedService must have at least " + MIN_MASTERS + " master(s)"
+                );
+            }
+            completedByMasters.remove(master);
+            ChangeLog.elementRemoved(this, "completedByMasters", master);
+            master.removeCompletedService(this);
+            RevenueCube.providedServiceChanged(this);
         }
-        completedByMasters.remove(master);
-        master.removeCompletedService(this);
     }
 
     private void validateMasterCount() {
@@ -193,7 +275,7 @@ public class ProvidedService implements Serializable {
         if (service == null) {
             return;
         }
-        if (!master.getServiceSpecialisesIn().contains(service)) {
+        if (!master.hasServiceSpecialisesIn(service)) {
             throw new IllegalArgumentException(
                     "Master " + master.getName() + " " + master.getSurname()
                             + " does not specialize in service " + service.getName()
@@ -201,43 +283,264 @@ public class ProvidedService implements Serializable {
         }
     }
 
+    private void validateMasterAvailability(Master master) {
+        if (service == null || time == null) {
+            return;
+        }
+        if (!master.isAvailable(time, getDuration())) {
+            throw new IllegalStateException(
+                    "Master " + master.getName() + " " + master.getSurname()
+                            + " is already booked at " + time
+            );
+        }
+    }
+
     public Service getService() {
+        materialize();
         return service;
     }
 
     public Appointment getAppointment() {
+        materialize();
         return appointment;
     }
 
     public Set<Master> getCompletedByMasters() {
+        materialize();
         return new HashSet<>(completedByMasters);
     }
 
+    public Set<Master> getCompletedByMastersView() {
+        materialize();
+        return Collections.unmodifiableSet(completedByMasters);
+    }
+
+    public boolean isCompletedBy(Master master) {
+        materialize();
+        return master != null && completedByMasters.contains(master);
+    }
+
+    public int getCompletedByMasterCount() {
+        materialize();
+        return completedByMasters.size();
+    }
+
     public void setRating(Integer rating) {
-        this.rating = rating;
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(this::ratedParties)) {
+            Integer oldRating = this.rating;
+            this.rating = rating;
+            if (Objects.equals(oldRating, rating)) {
+                return;
+            }
+            ChangeLog.fieldSet(this, "rating");
+            if (service != null) {
+                service.updateProvidedServiceRating(this, oldRating);
+            }
+            for (Master master : completedByMasters) {
+                master.updateCompletedServiceRating(this, oldRating);
+            }
+        }
+    }
+
+    // a rating moves the aggregates of the service and of every master who completed it
+    private List<Object> ratedParties() {
+        List<Object> parties = new ArrayList<>(completedByMasters);
+        parties.add(this);
+        parties.add(service);
+        return parties;
     }
+
     public void setComment(String comment) {
-        if (comment == null) {
-            this.comment = null;
-        } else if (comment.trim().isEmpty()) {
-            this.comment = null;
-        } else {
-            this.comment = comment;
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (comment == null) {
+                this.comment = null;
+            } else if (comment.trim().isEmpty()) {
+                this.comment = null;
+            } else {
+                this.comment = comment;
+            }
+            ChangeLog.fieldSet(this, "comment");
         }
     }
 
+    // the price captured when the service was booked
     public double getPrice() {
+        materialize();
+        ensurePriced();
+        return price;
+    }
+
+    // what the service would cost with the promotions of the given date, without changing the booked price
+    public double getPrice(LocalDate date) {
+        materialize();
         if (service == null) {
             return 0.0;
         }
-        double basePrice = service.getTotalPrice();
+        double basePrice = service.getTotalPrice(date);
         boolean hasTopMaster = completedByMasters.stream().anyMatch(Master::isTopMaster);
         if (hasTopMaster) {
-            return basePrice * 1.2;
+            return basePrice * (1 + TOP_MASTER_SURCHARGE);
         }
         return basePrice;
     }
 
+    public double getBasePrice() {
+        materialize();
+        ensurePriced();
+        return basePrice;
+    }
+
+    // percentage taken off the base price by the best promotion on the booking date
+    public double getDiscount() {
+        materialize();
+        ensurePriced();
+        return discount;
+    }
+
+    public boolean hasTopMasterSurcharge() {
+        materialize();
+        ensurePriced();
+        return topMasterSurcharge;
+    }
+
+    // captures the price again from the current service, masters and today's promotions
+    public void reprice() {
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            capturePrice(LocalDate.now());
+            RevenueCube.providedServiceChanged(this);
+        }
+    }
+
+    // called by the appointment under the link locks of both when it is cancelled, or when its cancellation is
+    // undone: the materials go back to stock or are taken again
+    public void appointmentCancelled(boolean cancelled) {
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (cancelled) {
+                returnMaterials();
+            } else {
+                takeMaterials();
+            }
+        }
+    }
+
+    // unlinks the provided service from its masters, service and appointment, gives its materials back
+    // and drops it from the extent
+    public void removeFromExtent() {
+        materialize();
+        detach(true);
+    }
+
+    // like removeFromExtent, but the service took place, so the materials it took stay used
+    public void archive() {
+        materialize();
+        detach(false);
+    }
+
+    private void detach(boolean giveBackMaterials) {
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(this::linkedParties)) {
+            if (!giveBackMaterials) {
+                for (Material material : materialUsage.keySet()) {
+                    ChangeLog.entryRemoved(this, "materialUsage", material);
+                }
+                materialUsage.clear();
+            }
+            for (Master master : new ArrayList<>(completedByMasters)) {
+                completedByMasters.remove(master);
+                ChangeLog.elementRemoved(this, "completedByMasters", master);
+                master.removeCompletedService(this);
+            }
+            if (service != null) {
+                removeService(service);
+            } else if (appointment != null) {
+                removeAppointment(appointment);
+            }
+            returnMaterials();
+            providedServices.remove(this);
+        }
+    }
+
+    private List<Object> linkedParties() {
+        List<Object> parties = new ArrayList<>(completedByMasters);
+        parties.add(this);
+        parties.add(service);
+        parties.add(appointment);
+        return parties;
+    }
+
+    public Map<Material, Double> getMaterialUsage() {
+        materialize();
+        return new HashMap<>(materialUsage);
+    }
+
+    // takes the service's materials once the provided service is in the extent and has taken none yet, unless
+    // its appointment is cancelled
+    private void takeMaterials() {
+        if (service == null || !materialUsage.isEmpty() || !providedServices.contains(this)) {
+            return;
+        }
+        if (appointment != null && appointment.isCancelled()) {
+            return;
+        }
+        Map<Material, Double> usage = service.getMaterialQuantities();
+        if (usage.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Material, Double> entry : usage.entrySet()) {
+            materialUsage.put(entry.getKey(), entry.getValue());
+            ChangeLog.entryPut(this, "materialUsage", entry.getKey(), entry.getValue());
+            entry.getKey().adjustStock(-entry.getValue());
+        }
+        MaterialForecast.providedServiceChanged(this);
+    }
+
+    private void returnMaterials() {
+        if (materialUsage.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Material, Double> entry : materialUsage.entrySet()) {
+            entry.getKey().adjustStock(entry.getValue());
+            ChangeLog.entryRemoved(this, "materialUsage", entry.getKey());
+        }
+        materialUsage.clear();
+        MaterialForecast.providedServiceChanged(this);
+    }
+
+    private void ensurePriced() {
+        if (priced) {
+            return;
+        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (!priced) {
+                // the booking date is unknown, the service date is the closest one kept
+                capturePrice(time == null ? LocalDate.now() : time.toLocalDate());
+            }
+        }
+    }
+
+    private void capturePrice(LocalDate date) {
+        if (service == null) {
+            basePrice = 0;
+            discount = 0;
+        } else {
+            basePrice = service.getRegularPrice();
+            discount = Math.min(service.getBestDiscount(date), 100);
+        }
+        topMasterSurcharge = completedByMasters.stream().anyMatch(Master::isTopMaster);
+        double discounted = Math.max(basePrice * (1 - discount / 100.0), 0);
+        price = topMasterSurcharge ? discounted * (1 + TOP_MASTER_SURCHARGE) : discounted;
+        // written last, a reader seeing it set sees the other fields too
+        priced = true;
+        ChangeLog.fieldSet(this, "basePrice");
+        ChangeLog.fieldSet(this, "discount");
+        ChangeLog.fieldSet(this, "topMasterSurcharge");
+        ChangeLog.fieldSet(this, "price");
+        ChangeLog.fieldSet(this, "priced");
+    }
+
 
     public static class Builder {
         @Min(1)
@@ -255,6 +558,8 @@ public class ProvidedService implements Serializable {
         @NotNull
         private LocalDateTime time;
 
+        private boolean checkAvailability;
+
         public Builder(LocalDateTime time, Service service, Appointment appointment, Set<Master> masters) {
             if (masters == null || masters.isEmpty()) {
                 throw new IllegalArgumentException("At least one master is required");
@@ -281,25 +586,59 @@ public class ProvidedService implements Serializable {
             return this;
         }
 
+        // rejects the booking if a master already has a service overlapping it
+        public Builder checkAvailability() {
+            this.checkAvailability = true;
+            return this;
+        }
+
         public ProvidedService build() {
             return new ProvidedService(this);
         }
     }
 
     public Integer getRating() {
+        materialize();
         return rating;
     }
 
     public String getComment() {
+        materialize();
         return comment;
     }
 
     public LocalDateTime getTime() {
+        materialize();
         return time;
     }
 
+    public Duration getDuration() {
+        materialize();
+        return service == null ? Duration.ZERO : service.getBookingDuration();
+    }
+
+    public LocalDateTime getEndTime() {
+        materialize();
+        return time == null ? null : time.plus(getDuration());
+    }
+
+    private void materialize() {
+        MappedSource source = mappedSource;
+        if (source != null) {
+            source.materialize(this);
+        }
+    }
+
+    public static int getMaxMasters() {
+        return MAX_MASTERS;
+    }
+
     public static List<ProvidedService> getProvidedServiceList() {
-        return new ArrayList<>(providedServices);
+        return new ArrayList<>(providedServices.snapshot());
+    }
+
+    public static ExtentView<ProvidedService> getProvidedServiceExtent() {
+        return providedServices;
     }
 
     public static void clearExtent() {
@@ -0,0 +1,81 @@
+package com.example.byt.models;
+
+import java.io.Serializable;
+
+// running sum/count of ProvidedService ratings; null ratings are not counted, all methods are synchronized
+public class RatingAggregate implements Serializable {
+
+    private long sum;
+
+    private int count;
+
+    public synchronized void add(Integer rating) {
+        if (rating == null) {
+            return;
+        }
+        sum += rating;
+        count++;
+    }
+
+    public synchronized void remove(Integer rating) {
+        if (rating == null) {
+            return;
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Cannot remove a rating from an empty aggregate");
+        }
+        sum -= rating;
+        count--;
+    }
+
+    public synchronized void replace(Integer oldRating, Integer newRating) {
+        remove(oldRating);
+        add(newRating);
+    }
+
+    public void merge(RatingAggregate other) {
+        long otherSum;
+        int otherCount;
+        synchronized (other) {
+            otherSum = other.sum;
+            otherCount = other.count;
+        }
+        synchronized (this) {
+            sum += otherSum;
+            count += otherCount;
+        }
+    }
+
+    public void subtract(RatingAggregate other) {
+        long otherSum;
+        int otherCount;
+        synchronized (other) {
+            otherSum = other.sum;
+            otherCount = other.count;
+        }
+        synchronized (this) {
+            if (otherCount > count) {
+                throw new IllegalStateException("Cannot remove more ratings than the aggregate holds");
+            }
+            sum -= otherSum;
+            count -= otherCount;
+        }
+    }
+
+    public synchronized double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized void clear() {
+        sum = 0;
+        count = 0;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.byt.models;
+
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.IncrementalIndex;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.services.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Revenue of the provided services pre-aggregated by day, service, master and
+ * payment method. Each provided service of a completed or paid appointment
+ * adds its price on the day it takes place, split evenly between its masters,
+ * so every breakdown of a range adds up to the same total. A month-end report
+ * only reads the cells of the days in range instead of pricing every provided
+ * service again.
+ *
+ * The cube follows the provided service extent and is told about link,
+ * payment and status changes by the model. A provided service counts with the price
+ * captured when it was booked, so later promotions do not change past
+ * revenue. After a load the cube is rebuilt on first use.
+ */
+public final class RevenueCube {
+
+    private static final TreeMap<LocalDate, Map<CellKey, double[]>> days = new TreeMap<>();
+
+    // the cells are guarded by the monitor of this index
+    private static final IncrementalIndex<ProvidedService, Contribution> contributions = new IncrementalIndex<>() {
+        @Override
+        protected void changed(ProvidedService providedService, Contribution old, Contribution contribution) {
+            if (old != null) {
+                add(old, -1);
+            }
+            if (contribution != null) {
+                add(contribution, 1);
+            }
+        }
+
+        @Override
+        protected void cleared() {
+            days.clear();
+        }
+    };
+
+    static {
+        contributions.follow(ProvidedService.class, RevenueCube::providedServiceChanged);
+        // provided services loaded before the first model change reached this class are read on first use
+        if (!ProvidedService.getProvidedServiceExtent().isEmpty()) {
+            contributions.markStale();
+        }
+    }
+
+    private RevenueCube() {
+    }
+
+    // called by the model whenever a provided service, its links or its appointment's payment method or status
+    // change
+    public static void providedServiceChanged(ProvidedService providedService) {
+        if (providedService == null) {
+            return;
+        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(providedService)) {
+            contributions.put(providedService, contributionOf(providedService));
+        }
+    }
+
+    // reads every provided service again
+    public static void rebuild() {
+        contributions.markStale();
+        ensureBuilt();
+    }
+
+    public static double getTotal(LocalDate from, LocalDate to) {
+        double total = 0;
+        for (double revenue : getByDay(from, to).values()) {
+            total += revenue;
+        }
+        return total;
+    }
+
+    public static SortedMap<LocalDate, Double> getByDay(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        ensureBuilt();
+        SortedMap<LocalDate, Double> result = new TreeMap<>();
+        synchronized (contributions) {
+            for (Map.Entry<LocalDate, Map<CellKey, double[]>> day : days.subMap(from, true, to, true).entrySet()) {
+                double total = 0;
+                for (double[] cell : day.getValue().values()) {
+                    total += cell[0];
+                }
+                result.put(day.getKey(), total);
+            }
+        }
+        return result;
+    }
+
+    public static Map<Master, Double> getByMaster(LocalDate from, LocalDate to) {
+        return group(from, to, key -> key.master);
+    }
+
+    public static Map<Service, Double> getByService(LocalDate from, LocalDate to) {
+        return group(from, to, key -> key.service);
+    }
+
+    public static Map<Class<? extends Service>, Double> getByServiceType(LocalDate from, LocalDate to) {
+        return group(from, to, key -> key.service.getClass());
+    }
+
+    // services of appointments without a payment method are reported under a null key
+    public static Map<PaymentMethod, Double> getByPaymentMethod(LocalDate from, LocalDate to) {
+        return group(from, to, key -> key.paymentMethod);
+    }
+
+    private static <K> Map<K, Double> group(LocalDate from, LocalDate to, Function<CellKey, K> dimension) {
+        DateRange.validate(from, to);
+        ensureBuilt();
+        Map<K, Double> result = new LinkedHashMap<>();
+        synchronized (contributions) {
+            for (Map<CellKey, double[]> day : days.subMap(from, true, to, true).values()) {
+                for (Map.Entry<CellKey, double[]> cell : day.entrySet()) {
+                    result.merge(dimension.apply(cell.getKey()), cell.getValue()[0], Double::sum);
+                }
+            }
+        }
+        return result;
+    }
+
+    // reads the provided service, so it runs outside the cube's monitor and under the service's link lock
+    private static Contribution contributionOf(ProvidedService providedService) {
+        if (!ProvidedService.getProvidedServiceExtent().contains(providedService)) {
+            return null;
+        }
+        Service service = providedService.getService();
+        if (service == null || providedService.getTime() == null) {
+            return null;
+        }
+        List<Master> masters = new ArrayList<>(providedService.getCompletedByMastersView());
+        if (masters.isEmpty()) {
+            return null;
+        }
+        // only services that took place are revenue; scheduled and cancelled ones are left out
+        Appointment appointment = providedService.getAppointment();
+        if (appointment == null || !appointment.isCarriedOut()) {
+            return null;
+        }
+        LocalDate date = providedService.getTime().toLocalDate();
+        PaymentMethod paymentMethod = appointment.getPaymentMethod();
+        double share = providedService.getPrice() / masters.size();
+        List<CellKey> keys = new ArrayList<>(masters.size());
+        for (Master master : masters) {
+            keys.add(new CellKey(service, master, paymentMethod));
+        }
+        return new Contribution(date, keys, share);
+    }
+
+    private static void add(Contribution contribution, int sign) {
+        Map<CellKey, double[]> day = days.computeIfAbsent(contribution.date, d -> new HashMap<>());
+        for (CellKey key : contribution.keys) {
+            double[] cell = day.computeIfAbsent(key, k -> new double[2]);
+            cell[0] += sign * contribution.share;
+            // number of contributions, so an emptied cell can be dropped despite rounding
+            cell[1] += sign;
+            if (cell[1] == 0) {
+                day.remove(key);
+            }
+        }
+        if (day.isEmpty()) {
+            days.remove(contribution.date);
+        }
+    }
+
+    private static void ensureBuilt() {
+        contributions.ensureBuilt(ProvidedService.getProvidedServiceExtent().snapshot(), providedService -> {
+            try (LinkLocks.Guard guard = LinkLocks.lock(providedService)) {
+                return contributionOf(providedService);
+            }
+        });
+    }
+
+    private static final class Contribution {
+
+        private final LocalDate date;
+
+        private final List<CellKey> keys;
+
+        private final double share;
+
+        private Contribution(LocalDate date, List<CellKey> keys, double share) {
+            this.date = date;
+            this.keys = keys;
+            this.share = share;
+        }
+    }
+
+    // model objects compare by identity, so the key does too
+    private static final class CellKey {
+
+        private final Service service;
+
+        private final Master master;
+
+        private final PaymentMethod paymentMethod;
+
+        private CellKey(Service service, Master master, PaymentMethod paymentMethod) {
+            this.service = service;
+            this.master = master;
+            this.paymentMethod = paymentMethod;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CellKey)) return false;
+            CellKey key = (CellKey) o;
+            return service == key.service && master == key.master && paymentMethod == key.paymentMethod;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(service) * 31 + System.identityHashCode(master)) * 31
+                    + (paymentMethod == null ? 0 : paymentMethod.ordinal() + 1);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.example.byt.models.services.Service;
 import com.example.byt.models.services.TwoHandsService;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -35,6 +36,10 @@ public class ServiceInfo {
         return new HashSet<>(masters);
     }
 
+    public Set<Master> getMastersView() {
+        return Collections.unmodifiableSet(masters);
+    }
+
     public Object getService() {
         return service;
     }
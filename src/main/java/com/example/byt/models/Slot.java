@@ -0,0 +1,65 @@
+package com.example.byt.models;
+
+import com.example.byt.models.person.Master;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// a free time range of one master, as returned by Service.findFreeSlots
+public class Slot {
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    private final Master master;
+
+    public Slot(LocalDateTime start, LocalDateTime end, Master master) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Slot start and end cannot be null");
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Slot end must not be before its start");
+        }
+        if (master == null) {
+            throw new IllegalArgumentException("Master cannot be null");
+        }
+        this.start = start;
+        this.end = end;
+        this.master = master;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Master getMaster() {
+        return master;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Slot)) return false;
+        Slot slot = (Slot) o;
+        return start.equals(slot.start) && end.equals(slot.end) && master == slot.master;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end, System.identityHashCode(master));
+    }
+
+    @Override
+    public String toString() {
+        return "Slot{" +
+                "start=" + start +
+                ", end=" + end +
+                ", master=" + master.getName() + " " + master.getSurname() +
+                '}';
+    }
+}
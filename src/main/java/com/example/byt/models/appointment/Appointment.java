@@ -1,24 +1,37 @@
 package com.example.byt.models.appointment;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentListener;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.AppointmentStatus;
+import com.example.byt.models.DateRange;
 import com.example.byt.models.HistoryOfStatus;
 import com.example.byt.models.ProvidedService;
+import com.example.byt.models.RevenueCube;
 import com.example.byt.models.ServiceInfo;
 import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
 import com.example.byt.models.person.Receptionist;
 import com.example.byt.models.services.Service;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.persistence.MappedHeader;
+import com.example.byt.persistence.MappedSource;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotNull;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Appointment implements Serializable {
     @NotNull
+    @MappedHeader
     private LocalDate date;
 
     private List<String> notes;
@@ -27,11 +40,59 @@ public class Appointment implements Serializable {
 
     private Receptionist receptionist;
 
-    private Set<ProvidedService> providedServices = new HashSet<>();
+    private Set<ProvidedService> providedServices = ConcurrentHashMap.newKeySet();
 
-    private Set<HistoryOfStatus> historyOfStatuses = new HashSet<>();
+    private Set<HistoryOfStatus> historyOfStatuses = ConcurrentHashMap.newKeySet();
 
-    private static List<Appointment> appointments = new ArrayList<>();
+    // the same history ordered by date of change, changes of one day in the order they were added
+    private List<HistoryOfStatus> statusHistory = new ArrayList<>();
+
+    // the status of the last change, kept so the status index can be rebuilt without loading the appointment
+    @MappedHeader
+    private AppointmentStatus lastStatus;
+
+    private static final Extent<Appointment> appointments = ExtentRegistry.register(Appointment.class);
+
+    private static final StatusIndex statusIndex = new StatusIndex();
+
+    private static final DayPartitions dayPartitions = new DayPartitions();
+
+    static {
+        ExtentRegistry.addExtentListener(new ExtentListener() {
+            @Override
+            public void added(ExtentView<?> extent, Object element) {
+                if (extent == appointments) {
+                    Appointment appointment = (Appointment) element;
+                    statusIndex.put(appointment, appointment.getCurrentStatus());
+                    dayPartitions.put(appointment, appointment.getDate());
+                }
+            }
+
+            @Override
+            public void removed(ExtentView<?> extent, Object element) {
+                if (extent == appointments) {
+                    statusIndex.remove((Appointment) element);
+                    dayPartitions.remove((Appointment) element);
+                }
+            }
+
+            @Override
+            public void cleared(ExtentView<?> extent) {
+                if (extent == appointments) {
+                    statusIndex.clear();
+                    dayPartitions.clear();
+                }
+            }
+        });
+        ExtentRegistry.addRestoreListener(() -> {
+            statusIndex.markStale();
+            dayPartitions.markStale();
+            recordMissingStatuses();
+        });
+    }
+
+    // set while the fields are still in a mapped extent file, see MappedExtentStore
+    private transient MappedSource mappedSource;
 
     private Appointment() {
     }
@@ -41,57 +102,113 @@ public class Appointment implements Serializable {
         this.notes = builder.notes;
         this.paymentMethod = builder.paymentMethod;
 
-        builder.services.forEach(this::addService);
-        addCustomer(builder.customer);
-        addReceptionist(builder.receptionist);
+        if (builder.checkAvailability) {
+            checkAvailability(builder.services);
+        }
+        try {
+            for (ServiceInfo serviceInfo : builder.services) {
+                addService(serviceInfo, builder.checkAvailability);
+            }
+            addCustomer(builder.customer);
+            addReceptionist(builder.receptionist);
 
-        addAppointment(this);
+            addAppointment(this);
+        } catch (RuntimeException e) {
+            detach(true);
+            throw e;
+        }
+        // an appointment that failed validation keeps nothing linked either
+        if (!appointments.contains(this)) {
+            detach(true);
+        }
     }
 
     private static void addAppointment(Appointment appointment) {
         if (appointment == null) {
             throw new NullPointerException("Appointment cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Appointment>> violations = validator.validate(appointment);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the appointment cannot be added to the list");
+        if (!ModelValidator.isValid(appointment)) {
             return;
         }
         appointments.add(appointment);
     }
 
     public void addService(ServiceInfo serviceInfo) {
+        materialize();
+        addService(serviceInfo, false);
+    }
+
+    private void addService(ServiceInfo serviceInfo, boolean checkAvailability) {
         if (serviceInfo.getService() == null) {
             throw new NullPointerException("Service cannot be null");
         }
-        if (serviceInfo.getMasters() == null || serviceInfo.getMasters().isEmpty()) {
+        Set<Master> masters = serviceInfo.getMastersView();
+        if (masters.isEmpty()) {
             throw new IllegalArgumentException("ServiceInfo must include at least one master");
         }
 
-        ProvidedService providedService = new ProvidedService.Builder(
+        ProvidedService.Builder builder = new ProvidedService.Builder(
                 serviceInfo.getTime(),
                 (Service) serviceInfo.getService(),
                 this,
-                serviceInfo.getMasters()
-        ).build();
+                masters
+        );
+        if (checkAvailability) {
+            builder.checkAvailability();
+        }
+        builder.build();
+    }
+
+    // checked up front so a conflict is usually found before anything is linked;
+    // ProvidedService checks again while it holds the master's lock
+    private static void checkAvailability(Set<ServiceInfo> services) {
+        Map<Master, List<ServiceInfo>> requested = new HashMap<>();
+        for (ServiceInfo serviceInfo : services) {
+            if (!(serviceInfo.getService() instanceof Service service) || serviceInfo.getTime() == null) {
+                continue;
+            }
+            Duration duration = service.getBookingDuration();
+            for (Master master : serviceInfo.getMastersView()) {
+                if (!master.isAvailable(serviceInfo.getTime(), duration)) {
+                    throw new IllegalStateException("Master " + master.getName() + " " + master.getSurname()
+                            + " is already booked at " + serviceInfo.getTime());
+                }
+                for (ServiceInfo other : requested.getOrDefault(master, List.of())) {
+                    if (overlaps(serviceInfo, other)) {
+                        throw new IllegalStateException("Master " + master.getName() + " " + master.getSurname()
+                                + " is booked twice at " + serviceInfo.getTime());
+                    }
+                }
+                requested.computeIfAbsent(master, m -> new ArrayList<>()).add(serviceInfo);
+            }
+        }
+    }
+
+    private static boolean overlaps(ServiceInfo first, ServiceInfo second) {
+        LocalDateTime firstEnd = first.getTime().plus(((Service) first.getService()).getBookingDuration());
+        LocalDateTime secondEnd = second.getTime().plus(((Service) second.getService()).getBookingDuration());
+        return first.getTime().isBefore(secondEnd) && second.getTime().isBefore(firstEnd);
     }
 
     public void addProvidedService(ProvidedService providedService) {
+        materialize();
         if (providedService == null) {
             throw new NullPointerException("ProvidedService cannot be null");
         }
 
-        if (providedServices.contains(providedService)) {
-            return;
-        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, providedService)) {
+            if (providedServices.contains(providedService)) {
+                return;
+            }
 
-        providedServices.add(providedService);
-        providedService.addAppointment(this);
+            providedServices.add(providedService);
+            ChangeLog.elementAdded(this, "providedServices", providedService);
+            providedService.addAppointment(this);
+        }
     }
 
     public void addCustomer(Customer customer) {
+        materialize();
         if (customer == null) {
             throw new NullPointerException("Customer cannot be null");
         }
@@ -100,83 +217,359 @@ public class Appointment implements Serializable {
     }
 
     public void addHistory(HistoryOfStatus historyOfStatus) {
+        materialize();
         if (historyOfStatus == null) {
             throw new NullPointerException("HistoryOfStatus cannot be null");
         }
 
-        if (this.historyOfStatuses.contains(historyOfStatus)) {
+        // a status change moves the revenue of the provided services, so their stripes are taken up front
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> selfAndProvidedServices(historyOfStatus))) {
+            if (this.historyOfStatuses.contains(historyOfStatus)) {
+                return;
+            }
+
+            this.historyOfStatuses.add(historyOfStatus);
+            ChangeLog.elementAdded(this, "historyOfStatuses", historyOfStatus);
+            addOrdered(historyOfStatus);
+            statusChanged();
+            historyOfStatus.addAppointment(this);
+        }
+    }
+
+    // a status change belongs to its appointment, so unlinking it removes it
+    public void removeHistory(HistoryOfStatus historyOfStatus) {
+        materialize();
+        if (historyOfStatus == null) {
+            throw new NullPointerException("HistoryOfStatus cannot be null");
+        }
+
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> selfAndProvidedServices(historyOfStatus))) {
+            if (!this.historyOfStatuses.contains(historyOfStatus)) {
+                return;
+            }
+
+            this.historyOfStatuses.remove(historyOfStatus);
+            ChangeLog.elementRemoved(this, "historyOfStatuses", historyOfStatus);
+            if (statusHistory.remove(historyOfStatus)) {
+                ChangeLog.fieldSet(this, "statusHistory");
+            }
+            statusChanged();
+            if (historyOfStatus.getAppointment() == this) {
+                historyOfStatus.removeFromExtent();
+            }
+        }
+    }
+
+    // takes the appointment, its status changes and its provided services out of the model; provided services
+    // give their materials back unless they took place
+    private void detach(boolean giveBackMaterials) {
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(this::linkedParties)) {
+            for (ProvidedService providedService : new ArrayList<>(providedServices)) {
+                if (giveBackMaterials) {
+                    providedService.removeFromExtent();
+                } else {
+                    providedService.archive();
+                }
+            }
+            for (HistoryOfStatus historyOfStatus : new ArrayList<>(historyOfStatuses)) {
+                historyOfStatus.removeFromExtent();
+            }
+            if (receptionist != null) {
+                removeReceptionist(receptionist);
+            }
+            appointments.remove(this);
+        }
+    }
+
+    // everything detach unlinks, down to the masters and services of the provided services
+    private List<Object> linkedParties() {
+        List<Object> parties = new ArrayList<>();
+        parties.add(this);
+        parties.add(receptionist);
+        for (HistoryOfStatus historyOfStatus : historyOfStatuses) {
+            parties.add(historyOfStatus);
+            parties.add(historyOfStatus.getCustomer());
+        }
+        for (ProvidedService providedService : providedServices) {
+            parties.add(providedService);
+            parties.add(providedService.getService());
+            parties.addAll(providedService.getCompletedByMastersView());
+        }
+        return parties;
+    }
+
+    private void addOrdered(HistoryOfStatus historyOfStatus) {
+        LocalDate changed = historyOfStatus.getDateOfChangingStatus();
+        int position = statusHistory.size();
+        while (position > 0 && isBefore(changed, statusHistory.get(position - 1).getDateOfChangingStatus())) {
+            position--;
+        }
+        if (position == statusHistory.size()) {
+            statusHistory.add(historyOfStatus);
+            ChangeLog.elementAdded(this, "statusHistory", historyOfStatus);
+        } else {
+            statusHistory.add(position, historyOfStatus);
+            ChangeLog.fieldSet(this, "statusHistory");
+        }
+    }
+
+    private static boolean isBefore(LocalDate date, LocalDate other) {
+        return date != null && other != null && date.isBefore(other);
+    }
+
+    // caller holds the appointment's link lock
+    private List<HistoryOfStatus> orderedHistory() {
+        if (statusHistory.size() != historyOfStatuses.size()) {
+            // saved before the history was kept in order: keep the known order and place the rest by date
+            List<HistoryOfStatus> ordered = new ArrayList<>(statusHistory);
+            ordered.retainAll(historyOfStatuses);
+            for (HistoryOfStatus historyOfStatus : historyOfStatuses) {
+                if (!ordered.contains(historyOfStatus)) {
+                    ordered.add(historyOfStatus);
+                }
+            }
+            ordered.sort(Comparator.comparing(HistoryOfStatus::getDateOfChangingStatus,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            statusHistory = ordered;
+            ChangeLog.fieldSet(this, "statusHistory");
+        }
+        return statusHistory;
+    }
+
+    private AppointmentStatus currentStatus() {
+        List<HistoryOfStatus> ordered = orderedHistory();
+        return ordered.isEmpty() ? null : ordered.get(ordered.size() - 1).getStatus();
+    }
+
+    // keeps lastStatus, the status index, the revenue and the booked materials in step with the history; caller
+    // holds the link locks of the appointment and its provided services
+    private void statusChanged() {
+        AppointmentStatus current = currentStatus();
+        AppointmentStatus previous = lastStatus;
+        if (current == previous) {
             return;
         }
+        lastStatus = current;
+        ChangeLog.fieldSet(this, "lastStatus");
+        if (appointments.contains(this)) {
+            statusIndex.put(this, current);
+        }
+        boolean cancelled = current == AppointmentStatus.CANCELLED;
+        for (ProvidedService providedService : providedServices) {
+            if (cancelled != (previous == AppointmentStatus.CANCELLED)) {
+                providedService.appointmentCancelled(cancelled);
+            }
+            RevenueCube.providedServiceChanged(providedService);
+        }
+    }
+
+    // reads the status kept with the history instead of taking the appointment's link lock, so the revenue
+    // cube can ask from inside link operations
+    public boolean isCarriedOut() {
+        materialize();
+        AppointmentStatus status = lastStatus;
+        return status != null && status.isCarriedOut();
+    }
+
+    // read without the link lock like isCarriedOut, so a provided service can ask before it takes materials
+    public boolean isCancelled() {
+        materialize();
+        return lastStatus == AppointmentStatus.CANCELLED;
+    }
+
+    public AppointmentStatus getCurrentStatus() {
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return currentStatus();
+        }
+    }
+
+    // oldest change first
+    public List<HistoryOfStatus> getStatusHistory() {
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return new ArrayList<>(orderedHistory());
+        }
+    }
 
-        this.historyOfStatuses.add(historyOfStatus);
-        historyOfStatus.addAppointment(this);
+    public HistoryOfStatus changeStatus(AppointmentStatus status) {
+        materialize();
+        return changeStatus(status, LocalDate.now());
+    }
+
+    public HistoryOfStatus changeStatus(AppointmentStatus status, LocalDate date) {
+        materialize();
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (date.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Status cannot be changed in the future");
+        }
+        Customer customer = historyOfStatuses.stream()
+                .map(HistoryOfStatus::getCustomer)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        if (customer == null) {
+            throw new IllegalStateException("Appointment has no customer to record the status for");
+        }
+        return HistoryOfStatus.record(status, date, customer, this, () -> {
+            List<HistoryOfStatus> ordered = orderedHistory();
+            if (ordered.isEmpty()) {
+                throw new IllegalStateException("Appointment has no customer to record the status for");
+            }
+            HistoryOfStatus current = ordered.get(ordered.size() - 1);
+            if (!current.getStatus().canChangeTo(status)) {
+                throw new IllegalStateException("Cannot change status from " + current.getStatus() + " to " + status);
+            }
+            if (isBefore(date, current.getDateOfChangingStatus())) {
+                throw new IllegalArgumentException("Status cannot be changed before its last change on "
+                        + current.getDateOfChangingStatus());
+            }
+        });
     }
 
     public void removeProvidedService(ProvidedService providedService) {
+        materialize();
         if (providedService == null) {
             throw new NullPointerException("Provided service cannot be null");
         }
 
-        if (!providedServices.contains(providedService)) {
-            return;
-        }
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(
+                () -> Arrays.asList(this, providedService, providedService.getService()))) {
+            if (!providedServices.contains(providedService)) {
+                return;
+            }
 
-        providedServices.remove(providedService);
-        providedService.removeAppointment(this);
+            providedServices.remove(providedService);
+            ChangeLog.elementRemoved(this, "providedServices", providedService);
+            providedService.removeAppointment(this);
+        }
     }
 
     public Receptionist getReceptionist() {
+        materialize();
         return receptionist;
     }
 
     public void addReceptionist(Receptionist receptionist) {
-        if (this.receptionist == receptionist) {
-            return;
-        }
-        if (this.receptionist != null) {
-            throw new IllegalArgumentException("The appointment is already done by another receptionist");
-        }
-
-        this.receptionist = receptionist;
-        receptionist.addAppointment(this);
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, receptionist)) {
+            if (this.receptionist == receptionist) {
+                return;
+            }
+            if (this.receptionist != null) {
+                throw new IllegalArgumentException("The appointment is already done by another receptionist");
+            }
 
+            this.receptionist = receptionist;
+            ChangeLog.fieldSet(this, "receptionist");
+            receptionist.addAppointment(this);
+        }
     }
 
     public List<String> getNotes() {
+        materialize();
         return notes == null ? null : new ArrayList<>(notes);
     }
 
     public void setNotes(List<String> notes) {
-        if (notes == null) {
-            this.notes = null;
-            return;
-        }
-        if (notes.stream().anyMatch(n -> n == null || n.trim().isBlank())) {
-            throw new IllegalArgumentException("notes can't contain null or empty elements");
+        materialize();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (notes == null) {
+                this.notes = null;
+                ChangeLog.fieldSet(this, "notes");
+                return;
+            }
+            if (notes.stream().anyMatch(n -> n == null || n.trim().isBlank())) {
+                throw new IllegalArgumentException("notes can't contain null or empty elements");
+            }
+            this.notes = new ArrayList<>(notes);
+            ChangeLog.fieldSet(this, "notes");
         }
-        this.notes = new ArrayList<>(notes);
     }
     public void setPaymentMethod(PaymentMethod paymentMethod) {
-        this.paymentMethod = paymentMethod;
+        materialize();
+        // the revenue of every provided service moves with the payment method
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(this::selfAndProvidedServices)) {
+            this.paymentMethod = paymentMethod;
+            ChangeLog.fieldSet(this, "paymentMethod");
+            for (ProvidedService providedService : providedServices) {
+                RevenueCube.providedServiceChanged(providedService);
+            }
+        }
+    }
+
+    private List<Object> selfAndProvidedServices() {
+        List<Object> parties = new ArrayList<>(providedServices);
+        parties.add(this);
+        return parties;
+    }
+
+    // removing a status change also reaches its customer
+    private List<Object> selfAndProvidedServices(HistoryOfStatus historyOfStatus) {
+        List<Object> parties = selfAndProvidedServices();
+        parties.addAll(historyOfStatus.linkedParties());
+        return parties;
     }
 
     public Set<ProvidedService> getProvidedServices() {
+        materialize();
         return new HashSet<>(providedServices);
     }
 
+    public Set<ProvidedService> getProvidedServicesView() {
+        materialize();
+        return Collections.unmodifiableSet(providedServices);
+    }
+
+    public boolean hasProvidedService(ProvidedService providedService) {
+        materialize();
+        return providedService != null && providedServices.contains(providedService);
+    }
+
+    public int getProvidedServiceCount() {
+        materialize();
+        return providedServices.size();
+    }
+
     public Set<HistoryOfStatus> getHistoryOfStatuses() {
+        materialize();
         return new HashSet<>(historyOfStatuses);
     }
 
+    public Set<HistoryOfStatus> getHistoryOfStatusesView() {
+        materialize();
+        return Collections.unmodifiableSet(historyOfStatuses);
+    }
+
+    public boolean hasHistory(HistoryOfStatus historyOfStatus) {
+        materialize();
+        return historyOfStatus != null && historyOfStatuses.contains(historyOfStatus);
+    }
+
+    public int getHistoryCount() {
+        materialize();
+        return historyOfStatuses.size();
+    }
+
     public void removeReceptionist(Receptionist receptionist) {
+        materialize();
         if (receptionist == null) {
             throw new NullPointerException("Receptionist cannot be null");
         }
-        if (this.receptionist != receptionist) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, receptionist)) {
+            if (this.receptionist != receptionist) {
+                return;
+            }
+            this.receptionist = null;
+            ChangeLog.fieldSet(this, "receptionist");
+            receptionist.removeAppointment(this);
         }
-        this.receptionist = null;
-        receptionist.removeAppointment(this);
     }
 
 
@@ -194,6 +587,8 @@ public class Appointment implements Serializable {
 
         private Receptionist receptionist;
 
+        private boolean checkAvailability;
+
         public Builder(LocalDate date, Customer customer, Set<ServiceInfo> services) {
             this.date = date;
             this.customer = customer;
@@ -225,27 +620,187 @@ public class Appointment implements Serializable {
             return this;
         }
 
+        // rejects the appointment if one of its masters is already booked for an overlapping time
+        public Builder checkAvailability() {
+            this.checkAvailability = true;
+            return this;
+        }
+
         public Appointment build(){
             return new Appointment(this);
         }
     }
 
     public PaymentMethod getPaymentMethod() {
+        materialize();
         return paymentMethod;
     }
 
+    // sum of the prices captured when the services were booked
     public double getTotalPrice() {
+        materialize();
+        double total = 0;
+        for (ProvidedService providedService : providedServices) {
+            total += providedService.getPrice();
+        }
+        return total;
+    }
+
+    // what the appointment would cost with the promotions of the given date
+    public double getTotalPrice(LocalDate date) {
+        materialize();
         return providedServices.stream()
-                .mapToDouble(ProvidedService::getPrice)
+                .mapToDouble(providedService -> providedService.getPrice(date))
                 .sum();
     }
 
     public LocalDate getDate() {
+        materialize();
         return date;
     }
 
+    private void materialize() {
+        MappedSource source = mappedSource;
+        if (source != null) {
+            source.materialize(this);
+        }
+    }
+
+    // the header fields of an appointment still in a mapped extent file are set during the load; files
+    // written before they were kept leave them null, and the appointment is then read after all
+    private LocalDate indexedDate() {
+        LocalDate header = date;
+        return mappedSource != null && header != null ? header : getDate();
+    }
+
+    private AppointmentStatus indexedStatus() {
+        AppointmentStatus header = lastStatus;
+        return mappedSource != null && header != null ? header : getCurrentStatus();
+    }
+
     public static List<Appointment> getAppointmentList() {
-        return new ArrayList<>(appointments);
+        return new ArrayList<>(appointments.snapshot());
+    }
+
+    public static ExtentView<Appointment> getAppointmentExtent() {
+        return appointments;
+    }
+
+    public static Set<Appointment> getAppointmentsByStatus(AppointmentStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        ensureStatusIndex();
+        return statusIndex.withStatus(status);
+    }
+
+    // e.g. everything still SCHEDULED for today
+    public static List<Appointment> getAppointmentsByStatus(AppointmentStatus status, LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        List<Appointment> result = new ArrayList<>();
+        for (Appointment appointment : getAppointmentsOn(date)) {
+            if (appointment.getCurrentStatus() == status) {
+                result.add(appointment);
+            }
+        }
+        return result;
+    }
+
+    public static int getAppointmentCountByStatus(AppointmentStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status cannot be null");
+        }
+        ensureStatusIndex();
+        return statusIndex.count(status);
+    }
+
+    // files saved before lastStatus was kept leave it null; appointments decoded during the load take it from
+    // their history
+    private static void recordMissingStatuses() {
+        for (Appointment appointment : appointments.snapshot()) {
+            if (appointment.mappedSource == null && appointment.lastStatus == null
+                    && !appointment.historyOfStatuses.isEmpty()) {
+                try (LinkLocks.Guard guard = LinkLocks.lock(appointment)) {
+                    appointment.lastStatus = appointment.currentStatus();
+                }
+            }
+        }
+    }
+
+    // after a load the statuses are read on first use, from the record headers of lazily loaded appointments
+    private static void ensureStatusIndex() {
+        statusIndex.ensureBuilt(appointments.snapshot(), Appointment::indexedStatus);
+    }
+
+    public static List<Appointment> getAppointmentsOn(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        return getAppointmentsBetween(date, date);
+    }
+
+    // both dates inclusive, ordered by day
+    public static List<Appointment> getAppointmentsBetween(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        ensureDayPartitions();
+        return dayPartitions.between(from, to);
+    }
+
+    public static int getAppointmentCountOn(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        ensureDayPartitions();
+        return dayPartitions.count(date);
+    }
+
+    // days without appointments are left out
+    public static SortedMap<LocalDate, Integer> getAppointmentCountsByDay(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        ensureDayPartitions();
+        return dayPartitions.counts(from, to);
+    }
+
+    /**
+     * Hands every day partition older than the cutoff to the archiver and then
+     * takes its appointments out of the model, oldest day first. An evicted
+     * appointment leaves its customer's history, its receptionist and the
+     * extent; its provided services leave their service, their masters and
+     * their extent, so revenue, material forecasts and timelines stop counting
+     * them. The materials they used stay used. If the archiver fails the
+     * failing day and everything after it is kept.
+     *
+     * @return the number of appointments evicted
+     */
+    public static int evictBefore(LocalDate cutoff, AppointmentArchiver archiver) throws IOException {
+        if (cutoff == null) {
+            throw new IllegalArgumentException("Cutoff cannot be null");
+        }
+        if (archiver == null) {
+            throw new IllegalArgumentException("Archiver cannot be null");
+        }
+        ensureDayPartitions();
+        int evicted = 0;
+        for (Map.Entry<LocalDate, List<Appointment>> day : dayPartitions.before(cutoff).entrySet()) {
+            archiver.archive(day.getKey(), Collections.unmodifiableList(day.getValue()));
+            for (Appointment appointment : day.getValue()) {
+                if (appointments.contains(appointment)) {
+                    appointment.detach(false);
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    // after a load the days are read on first use, from the record headers of lazily loaded appointments
+    private static void ensureDayPartitions() {
+        dayPartitions.ensureBuilt(appointments.snapshot(), Appointment::indexedDate);
     }
 
     public static void clearExtent() {
@@ -0,0 +1,12 @@
+package com.example.byt.models.appointment;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+// receives the day partitions evicted by Appointment.evictBefore, e.g. to write them to cold storage
+@FunctionalInterface
+public interface AppointmentArchiver {
+
+    void archive(LocalDate date, List<Appointment> appointments) throws IOException;
+}
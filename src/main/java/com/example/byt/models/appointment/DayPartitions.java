@@ -0,0 +1,74 @@
+package com.example.byt.models.appointment;
+
+import com.example.byt.extent.IncrementalIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Appointments of the extent bucketed by their date, one partition per day.
+ * Range queries cost O(log d) for d days plus the appointments returned, so
+ * daily work does not slow down as years of history pile up. An appointment's
+ * date never changes, so it is read once when the appointment joins the
+ * extent, or from its record header when the index is rebuilt after a load.
+ */
+final class DayPartitions extends IncrementalIndex<Appointment, LocalDate> {
+
+    private final TreeMap<LocalDate, Set<Appointment>> days = new TreeMap<>();
+
+    @Override
+    protected void changed(Appointment appointment, LocalDate old, LocalDate date) {
+        if (old != null) {
+            Set<Appointment> day = days.get(old);
+            day.remove(appointment);
+            if (day.isEmpty()) {
+                days.remove(old);
+            }
+        }
+        if (date != null) {
+            days.computeIfAbsent(date, d -> new LinkedHashSet<>()).add(appointment);
+        }
+    }
+
+    @Override
+    protected void cleared() {
+        days.clear();
+    }
+
+    synchronized List<Appointment> between(LocalDate from, LocalDate to) {
+        List<Appointment> result = new ArrayList<>();
+        for (Set<Appointment> day : days.subMap(from, true, to, true).values()) {
+            result.addAll(day);
+        }
+        return result;
+    }
+
+    synchronized int count(LocalDate date) {
+        Set<Appointment> day = days.get(date);
+        return day == null ? 0 : day.size();
+    }
+
+    synchronized SortedMap<LocalDate, Integer> counts(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Integer> counts = new TreeMap<>();
+        for (Map.Entry<LocalDate, Set<Appointment>> day : days.subMap(from, true, to, true).entrySet()) {
+            counts.put(day.getKey(), day.getValue().size());
+        }
+        return counts;
+    }
+
+    // partitions older than the cutoff, oldest first; they stay indexed until their appointments are removed
+    synchronized NavigableMap<LocalDate, List<Appointment>> before(LocalDate cutoff) {
+        NavigableMap<LocalDate, List<Appointment>> old = new TreeMap<>();
+        for (Map.Entry<LocalDate, Set<Appointment>> day : days.headMap(cutoff, false).entrySet()) {
+            old.put(day.getKey(), new ArrayList<>(day.getValue()));
+        }
+        return old;
+    }
+}
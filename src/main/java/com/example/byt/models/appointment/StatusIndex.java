@@ -0,0 +1,49 @@
+package com.example.byt.models.appointment;
+
+import com.example.byt.extent.IncrementalIndex;
+import com.example.byt.models.AppointmentStatus;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Appointments of the extent grouped by their current status. Callers read
+ * the status under the appointment's link lock and pass it in; the index only
+ * takes its own monitor and never calls out, so it can be updated from inside
+ * any link operation.
+ */
+final class StatusIndex extends IncrementalIndex<Appointment, AppointmentStatus> {
+
+    private final Map<AppointmentStatus, Set<Appointment>> byStatus = new EnumMap<>(AppointmentStatus.class);
+
+    StatusIndex() {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            byStatus.put(status, new LinkedHashSet<>());
+        }
+    }
+
+    @Override
+    protected void changed(Appointment appointment, AppointmentStatus old, AppointmentStatus status) {
+        if (old != null) {
+            byStatus.get(old).remove(appointment);
+        }
+        if (status != null) {
+            byStatus.get(status).add(appointment);
+        }
+    }
+
+    @Override
+    protected void cleared() {
+        byStatus.values().forEach(Set::clear);
+    }
+
+    synchronized Set<Appointment> withStatus(AppointmentStatus status) {
+        return new LinkedHashSet<>(byStatus.get(status));
+    }
+
+    synchronized int count(AppointmentStatus status) {
+        return byStatus.get(status).size();
+    }
+}
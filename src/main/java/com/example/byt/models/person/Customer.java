@@ -1,19 +1,26 @@
 package com.example.byt.models.person;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
+import com.example.byt.models.DateRange;
 import com.example.byt.models.HistoryOfStatus;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.*;
 
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Customer implements Serializable {
 
@@ -23,11 +30,17 @@ public class Customer implements Serializable {
     @NotNull
     private CustomerStatus customerStatus;
 
-    private Set<HistoryOfStatus> historyOfStatuses = new HashSet<>();
+    private Set<HistoryOfStatus> historyOfStatuses = ConcurrentHashMap.newKeySet();
 
-    private static List<Customer> customers = new ArrayList<>();
+    // the same history in the order it was added, so the timeline keeps that order after a load
+    private List<HistoryOfStatus> historyOrder = new ArrayList<>();
+
+    private static final Extent<Customer> customers = ExtentRegistry.register(Customer.class);
     private Person person;
 
+    // built on first use from the history, guarded by the customer's link lock
+    private transient CustomerTimeline timeline;
+
     protected Customer() {
     }
 
@@ -54,11 +67,7 @@ public class Customer implements Serializable {
         if (customer == null) {
             throw new NullPointerException("customer cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Customer>> violations = validator.validate(customer);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the customer cannot be added to the list");
+        if (!ModelValidator.isValid(customer)) {
             return;
         }
         customers.add(customer);
@@ -75,20 +84,138 @@ public class Customer implements Serializable {
             throw new NullPointerException("historyOfStatus cannot be null");
         }
 
-        if (this.historyOfStatuses.contains(historyOfStatus)) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, historyOfStatus)) {
+            if (this.historyOfStatuses.contains(historyOfStatus)) {
+                return;
+            }
+
+            this.historyOfStatuses.add(historyOfStatus);
+            this.historyOrder.add(historyOfStatus);
+            if (timeline != null) {
+                timeline.add(historyOfStatus);
+            }
+            ChangeLog.elementAdded(this, "historyOfStatuses", historyOfStatus);
+            ChangeLog.elementAdded(this, "historyOrder", historyOfStatus);
+            historyOfStatus.addCustomer(this);
+        }
+    }
+
+    // removing a status change reaches its appointment and the appointment's provided services
+    private List<Object> partiesOfRemoval(HistoryOfStatus historyOfStatus) {
+        List<Object> parties = historyOfStatus.linkedParties();
+        parties.add(this);
+        return parties;
+    }
+
+    // a status change belongs to its customer, so unlinking it removes it
+    public void removeHistory(HistoryOfStatus historyOfStatus) {
+        if (historyOfStatus == null) {
+            throw new NullPointerException("historyOfStatus cannot be null");
         }
 
-        this.historyOfStatuses.add(historyOfStatus);
-        historyOfStatus.addCustomer(this);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> partiesOfRemoval(historyOfStatus))) {
+            if (!this.historyOfStatuses.remove(historyOfStatus)) {
+                return;
+            }
+            if (timeline != null) {
+                timeline.remove(historyOfStatus);
+            }
+            ChangeLog.elementRemoved(this, "historyOfStatuses", historyOfStatus);
+            if (historyOrder.remove(historyOfStatus)) {
+                ChangeLog.fieldSet(this, "historyOrder");
+            }
+            if (historyOfStatus.getCustomer() == this) {
+                historyOfStatus.removeFromExtent();
+            }
+        }
     }
 
     public Set<HistoryOfStatus> getHistoryOfStatuses() {
         return new HashSet<>(this.historyOfStatuses);
     }
 
+    public Set<HistoryOfStatus> getHistoryOfStatusesView() {
+        return Collections.unmodifiableSet(historyOfStatuses);
+    }
+
+    public boolean hasHistory(HistoryOfStatus historyOfStatus) {
+        return historyOfStatus != null && historyOfStatuses.contains(historyOfStatus);
+    }
+
+    public int getHistoryCount() {
+        return historyOfStatuses.size();
+    }
+
+    // the customer's appointments, most recent first
+    public List<Appointment> getLastVisits(int count) {
+        validateCount(count);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getTimeline().getLastVisits(count);
+        }
+    }
+
+    // appointments dated between from and to, both inclusive, oldest first
+    public List<Appointment> getVisits(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getTimeline().getVisits(from, to);
+        }
+    }
+
+    public int getVisitCount() {
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getTimeline().getVisitCount();
+        }
+    }
+
+    // status changes of all the customer's appointments, most recent first
+    public List<HistoryOfStatus> getLastStatusChanges(int count) {
+        validateCount(count);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getTimeline().getLastStatusChanges(count);
+        }
+    }
+
+    public List<HistoryOfStatus> getStatusChanges(LocalDate from, LocalDate to) {
+        DateRange.validate(from, to);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getTimeline().getStatusChanges(from, to);
+        }
+    }
+
+    private static void validateCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
+        }
+    }
+
+    private CustomerTimeline getTimeline() {
+        if (timeline == null) {
+            timeline = new CustomerTimeline(orderedHistory());
+        }
+        return timeline;
+    }
+
+    // caller holds the customer's link lock
+    private List<HistoryOfStatus> orderedHistory() {
+        if (historyOrder.size() != historyOfStatuses.size()) {
+            // saved before the order was kept: keep the known order and place the rest by date of change
+            List<HistoryOfStatus> ordered = new ArrayList<>(historyOrder);
+            ordered.retainAll(historyOfStatuses);
+            List<HistoryOfStatus> rest = new ArrayList<>(historyOfStatuses);
+            rest.removeAll(ordered);
+            rest.sort(Comparator.comparing(HistoryOfStatus::getDateOfChangingStatus,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            ordered.addAll(rest);
+            historyOrder = ordered;
+            ChangeLog.fieldSet(this, "historyOrder");
+        }
+        return historyOrder;
+    }
+
     public void setEmailAddress(String email){
         this.emailAddress = email;
+        ChangeLog.fieldSet(this, "emailAddress");
     }
 
     public int getAge() {
@@ -103,7 +230,11 @@ public class Customer implements Serializable {
     }
 
     public static List<Customer> getCustomerList() {
-        return new ArrayList<>(customers);
+        return new ArrayList<>(customers.snapshot());
+    }
+
+    public static ExtentView<Customer> getCustomerExtent() {
+        return customers;
     }
 
     public String getName() {
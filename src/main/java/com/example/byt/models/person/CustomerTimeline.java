@@ -0,0 +1,135 @@
+package com.example.byt.models.person;
+
+import com.example.byt.models.HistoryOfStatus;
+import com.example.byt.models.appointment.Appointment;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A customer's status changes ordered by the date of the change, and the
+ * appointments they refer to ordered by appointment date. An appointment
+ * usually has several status changes, so each visit is kept once no matter
+ * how many changes point at it. Paged queries cost O(log n) plus the entries
+ * returned; entries of the same day keep the order they were added in,
+ * which the customer keeps alongside its history for that reason.
+ */
+final class CustomerTimeline {
+
+    private final TreeMap<LocalDate, List<HistoryOfStatus>> statuses = new TreeMap<>();
+
+    private final TreeMap<LocalDate, List<Appointment>> visits = new TreeMap<>();
+
+    // status changes per indexed appointment
+    private final Map<Appointment, Integer> references = new IdentityHashMap<>();
+
+    private int statusCount;
+
+    CustomerTimeline(Iterable<HistoryOfStatus> historyOfStatuses) {
+        for (HistoryOfStatus historyOfStatus : historyOfStatuses) {
+            add(historyOfStatus);
+        }
+    }
+
+    void add(HistoryOfStatus historyOfStatus) {
+        LocalDate changed = historyOfStatus.getDateOfChangingStatus();
+        if (changed != null) {
+            statuses.computeIfAbsent(changed, d -> new ArrayList<>(1)).add(historyOfStatus);
+            statusCount++;
+        }
+        Appointment appointment = historyOfStatus.getAppointment();
+        if (appointment == null || appointment.getDate() == null) {
+            return;
+        }
+        if (references.merge(appointment, 1, Integer::sum) == 1) {
+            visits.computeIfAbsent(appointment.getDate(), d -> new ArrayList<>(1)).add(appointment);
+        }
+    }
+
+    void remove(HistoryOfStatus historyOfStatus) {
+        LocalDate changed = historyOfStatus.getDateOfChangingStatus();
+        if (changed != null && removeFrom(statuses, changed, historyOfStatus)) {
+            statusCount--;
+        }
+        Appointment appointment = historyOfStatus.getAppointment();
+        if (appointment == null || appointment.getDate() == null) {
+            return;
+        }
+        Integer left = references.computeIfPresent(appointment, (a, count) -> count == 1 ? null : count - 1);
+        if (left == null) {
+            removeFrom(visits, appointment.getDate(), appointment);
+        }
+    }
+
+    private static <T> boolean removeFrom(TreeMap<LocalDate, List<T>> index, LocalDate date, T element) {
+        List<T> sameDay = index.get(date);
+        if (sameDay == null) {
+            return false;
+        }
+        for (int i = 0; i < sameDay.size(); i++) {
+            if (sameDay.get(i) == element) {
+                sameDay.remove(i);
+                if (sameDay.isEmpty()) {
+                    index.remove(date);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<Appointment> getLastVisits(int count) {
+        return latest(visits, count);
+    }
+
+    List<Appointment> getVisits(LocalDate from, LocalDate to) {
+        return between(visits, from, to);
+    }
+
+    List<HistoryOfStatus> getLastStatusChanges(int count) {
+        return latest(statuses, count);
+    }
+
+    List<HistoryOfStatus> getStatusChanges(LocalDate from, LocalDate to) {
+        return between(statuses, from, to);
+    }
+
+    int getVisitCount() {
+        return references.size();
+    }
+
+    int getStatusChangeCount() {
+        return statusCount;
+    }
+
+    // newest first
+    private static <T> List<T> latest(TreeMap<LocalDate, List<T>> index, int count) {
+        List<T> result = new ArrayList<>(Math.min(count, 64));
+        for (List<T> sameDay : index.descendingMap().values()) {
+            ListIterator<T> it = sameDay.listIterator(sameDay.size());
+            while (it.hasPrevious()) {
+                if (result.size() == count) {
+                    return result;
+                }
+                result.add(it.previous());
+            }
+        }
+        return result;
+    }
+
+    // oldest first, both dates inclusive
+    private static <T> List<T> between(TreeMap<LocalDate, List<T>> index, LocalDate from, LocalDate to) {
+        List<T> result = new ArrayList<>();
+        NavigableMap<LocalDate, List<T>> range = index.subMap(from, true, to, true);
+        for (List<T> sameDay : range.values()) {
+            result.addAll(sameDay);
+        }
+        return result;
+    }
+}
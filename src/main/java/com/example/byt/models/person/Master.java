@@ -1,17 +1,25 @@
 package com.example.byt.models.person;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentListener;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.Certification;
+import com.example.byt.models.CertificationNumberIndex;
 import com.example.byt.models.ProvidedService;
+import com.example.byt.models.RatingAggregate;
 import com.example.byt.models.services.Service;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.Min;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Master  implements Serializable {
 
@@ -20,21 +28,65 @@ public class Master  implements Serializable {
 
     private final static int minExperienceForTop = 3;
 
-    private Set<Service> servicesSpecialisesIn = new HashSet<>();
+    private Set<Service> servicesSpecialisesIn = ConcurrentHashMap.newKeySet();
 
-    private static List<Master> masters = new ArrayList<>();
+    private static final Extent<Master> masters = ExtentRegistry.register(Master.class);
+
+    private static final QualificationIndex qualificationIndex = new QualificationIndex();
+
+    private static final MasterHierarchy hierarchy = new MasterHierarchy();
+
+    static {
+        ExtentRegistry.addExtentListener(new ExtentListener() {
+            @Override
+            public void added(ExtentView<?> extent, Object element) {
+                if (extent == masters) {
+                    Master master = (Master) element;
+                    qualificationIndex.put(master, master.readQualifications());
+                    hierarchy.link(master, master.manager);
+                }
+            }
+
+            @Override
+            public void removed(ExtentView<?> extent, Object element) {
+                if (extent == masters) {
+                    qualificationIndex.remove((Master) element);
+                    hierarchy.remove((Master) element);
+                }
+            }
+
+            @Override
+            public void cleared(ExtentView<?> extent) {
+                if (extent == masters) {
+                    qualificationIndex.clear();
+                    hierarchy.clear();
+                }
+            }
+        });
+        ExtentRegistry.addRestoreListener(() -> {
+            qualificationIndex.markStale();
+            hierarchy.markStale();
+        });
+    }
 
     private Master manager;
-    private Set<Master> trainees = new HashSet<>();
+    private Set<Master> trainees = ConcurrentHashMap.newKeySet();
 
+    // the number of an invalid certification may be null, so this stays a plain map guarded by its own monitor
     private Map<String, Certification> certificationsByNumber = new LinkedHashMap<>();
 
-    private Set<ProvidedService> completedServices = new HashSet<>();
+    private Set<ProvidedService> completedServices = ConcurrentHashMap.newKeySet();
+
+    private RatingAggregate ratings = new RatingAggregate();
+
+    // built on first use from the completed services, guarded by the master's link lock
+    private transient MasterSchedule schedule;
 
     private Worker worker;
     private Master() {
     }
 
+    // the master is pending specialisation until the first service is assigned
     protected Master(Worker worker, int experience) {
         if (worker == null) {
             throw new NullPointerException("Worker cannot be null");
@@ -42,16 +94,6 @@ public class Master  implements Serializable {
         this.worker = worker;
         this.experience = experience;
         addMaster(this);
-
-        Service dummyService = new Service(
-                0, "Dummy Service", 0,
-                "This is a dummy service", 0, Set.of(this)
-        );
-
-        Certification dummyCertification = new Certification(
-                this, "Dummy", "0",
-                "This is a dummy certification", "Dummy", LocalDate.now()
-        );
     }
 
     protected Master(Worker worker, int experience, Set<Service> servicesSpecialisesIn) {
@@ -73,52 +115,176 @@ public class Master  implements Serializable {
         if (master == null){
             throw new NullPointerException("Master cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Master>> violations = validator.validate(master);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the master cannot be added to the list");
+        if (!ModelValidator.isValid(master)) {
             return;
         }
         masters.add(master);
     }
 
     public void removeMaster(){
-        if (this.manager != null) {
+        removeMasters(List.of(this));
+    }
+
+    // removes the masters with their certifications and unlinks their services, managers and trainees;
+    // every service must keep a master that is not removed, otherwise nothing is changed
+    public static void removeMasters(Collection<Master> leaving) {
+        if (leaving == null) {
+            throw new IllegalArgumentException("Masters cannot be null");
+        }
+        Set<Master> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Master master : leaving) {
+            if (master == null) {
+                throw new IllegalArgumentException("Masters cannot contain null");
+            }
+            removed.add(master);
+        }
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> removalParties(removed))) {
+            Map<Service, Set<Master>> leavingByService = new IdentityHashMap<>();
+            for (Master master : removed) {
+                for (Service service : master.servicesSpecialisesIn) {
+                    leavingByService.computeIfAbsent(service, s -> new HashSet<>()).add(master);
+                }
+            }
+            for (Map.Entry<Service, Set<Master>> entry : leavingByService.entrySet()) {
+                if (entry.getKey().getMasterSpecializedInCount() <= entry.getValue().size()) {
+                    throw new IllegalStateException("Service " + entry.getKey().getName()
+                            + " must have at least one master specialized in it");
+                }
+            }
+            for (Map.Entry<Service, Set<Master>> entry : leavingByService.entrySet()) {
+                entry.getKey().removeMastersSpecializedInForRemoval(entry.getValue());
+            }
+            for (Master master : removed) {
+                // leaves the indexes first, so the unlinking below does not update them
+                masters.remove(master);
+                master.unlinkForRemoval();
+            }
+        }
+    }
+
+    // the masters with everything their removal unlinks; read from their links, so locked through lockStable
+    private static List<Object> removalParties(Set<Master> removed) {
+        List<Object> parties = new ArrayList<>(removed);
+        for (Master master : removed) {
+            parties.add(master.manager);
+            parties.addAll(master.trainees);
+            parties.addAll(master.servicesSpecialisesIn);
+            parties.addAll(master.getCertificationSnapshot());
+        }
+        return parties;
+    }
+
+    private void unlinkForRemoval() {
+        if (manager != null) {
             setManager(null);
         }
-        for (Master trainee : new HashSet<>(this.trainees)) {
+        for (Master trainee : trainees) {
             removeTrainee(trainee);
         }
-        for (Service service : new HashSet<>(servicesSpecialisesIn)) {
-            servicesSpecialisesIn.remove(service);
-            service.removeMasterSpecializedInForRemoval(this);
+        for (Service service : servicesSpecialisesIn) {
+            ChangeLog.elementRemoved(this, "servicesSpecialisesIn", service);
         }
-        for (Certification certification : new ArrayList<>(certificationsByNumber.values())) {
+        servicesSpecialisesIn.clear();
+        for (Certification certification : getCertificationSnapshot()) {
             removeCertification(certification.getCertificationNumber());
         }
-        masters.remove(this);
     }
+
     public void addCompletedService(ProvidedService providedService) {
         if (providedService == null) {
             throw new NullPointerException("ProvidedService cannot be null");
         }
-        if (completedServices.contains(providedService)) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, providedService)) {
+            if (completedServices.contains(providedService)) {
+                return;
+            }
+            completedServices.add(providedService);
+            if (schedule != null) {
+                schedule.add(providedService);
+            }
+            ratings.add(providedService.getRating());
+            ChangeLog.elementAdded(this, "completedServices", providedService);
+            ChangeLog.fieldSet(this, "ratings");
+            providedService.addMaster(this);
         }
-        completedServices.add(providedService);
-        providedService.addMaster(this);
     }
 
     public void removeCompletedService(ProvidedService providedService) {
         if (providedService == null) {
             throw new NullPointerException("ProvidedService cannot be null");
         }
-        if (!completedServices.contains(providedService)) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, providedService)) {
+            if (!completedServices.contains(providedService)) {
+                return;
+            }
+            completedServices.remove(providedService);
+            if (schedule != null) {
+                schedule.remove(providedService);
+            }
+            ratings.remove(providedService.getRating());
+            ChangeLog.elementRemoved(this, "completedServices", providedService);
+            ChangeLog.fieldSet(this, "ratings");
+            providedService.removeMaster(this);
+        }
+    }
+
+    public void updateCompletedServiceRating(ProvidedService providedService, Integer oldRating) {
+        if (providedService == null) {
+            throw new NullPointerException("ProvidedService cannot be null");
+        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, providedService)) {
+            if (!completedServices.contains(providedService)) {
+                return;
+            }
+            ratings.replace(oldRating, providedService.getRating());
+            ChangeLog.fieldSet(this, "ratings");
         }
-        completedServices.remove(providedService);
-        providedService.removeMaster(this);
+    }
+
+    public boolean isAvailable(LocalDateTime start, Duration duration) {
+        validateTimeRange(start, duration);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getSchedule().getLatestConflictEnd(start, start.plus(duration)) == null;
+        }
+    }
+
+    public List<ProvidedService> getConflictingServices(LocalDateTime start, Duration duration) {
+        validateTimeRange(start, duration);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getSchedule().getConflicts(start, start.plus(duration));
+        }
+    }
+
+    // earliest time at or after from at which the master is free for the whole duration
+    public LocalDateTime getNextAvailableTime(LocalDateTime from, Duration duration) {
+        validateTimeRange(from, duration);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            return getSchedule().getNextFreeTime(from, duration);
+        }
+    }
+
+    private static void validateTimeRange(LocalDateTime start, Duration duration) {
+        if (start == null) {
+            throw new IllegalArgumentException("start cannot be null");
+        }
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("duration cannot be null or negative");
+        }
+    }
+
+    private MasterSchedule getSchedule() {
+        if (schedule == null) {
+            schedule = new MasterSchedule(completedServices);
+        }
+        return schedule;
+    }
+
+    public double getRating() {
+        return ratings.getAverage();
+    }
+
+    public int getRatingCount() {
+        return ratings.getCount();
     }
 
     public void setManager(Master newManager) {
@@ -130,20 +296,30 @@ public class Master  implements Serializable {
                     "Only top masters (experience >= " + minExperienceForTop + ") can manage trainees."
             );
         }
-        if (this.manager == newManager) {
-            return;
-        }
-        if (this.manager != null) {
-            Master oldManager = this.manager;
-            this.manager = null;
-            oldManager.removeTrainee(this);
-        }
-        if (newManager == null) {
-            this.manager = null;
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, manager, newManager))) {
+            if (this.manager == newManager) {
+                return;
+            }
+            if (newManager != null && newManager.reportsTo(this)) {
+                throw new IllegalStateException("A master cannot be managed by their own trainee");
+            }
+            if (this.manager != null) {
+                Master oldManager = this.manager;
+                this.manager = null;
+                ChangeLog.fieldSet(this, "manager");
+                hierarchyChanged();
+                oldManager.removeTrainee(this);
+            }
+            if (newManager == null) {
+                this.manager = null;
+                ChangeLog.fieldSet(this, "manager");
+                return;
+            }
+            this.manager = newManager;
+            ChangeLog.fieldSet(this, "manager");
+            hierarchyChanged();
+            newManager.addTrainee(this);
         }
-        this.manager = newManager;
-        newManager.addTrainee(this);
     }
 
     public void addTrainee(Master trainee) {
@@ -156,111 +332,283 @@ public class Master  implements Serializable {
         if (!this.isTopMaster()) {
             throw new IllegalStateException("Only top masters (experience >= " + minExperienceForTop + ") can manage trainees.");
         }
-        if (this.trainees.contains(trainee)) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, trainee, trainee.manager))) {
+            if (this.trainees.contains(trainee)) {
+                return;
+            }
+            if (trainee.manager != null && trainee.manager != this) {
+                throw new IllegalStateException(
+                        "This master already has a different manager. Remove current manager first."
+                );
+            }
+            if (reportsTo(trainee)) {
+                throw new IllegalStateException("A master cannot be managed by their own trainee");
+            }
+            this.trainees.add(trainee);
+            ChangeLog.elementAdded(this, "trainees", trainee);
+            if (trainee.getManager() != this) {
+                trainee.setManager(this);
+            }
         }
-        if (trainee.manager != null && trainee.manager != this) {
-            throw new IllegalStateException(
-                    "This master already has a different manager. Remove current manager first."
-            );
+    }
+
+    public void removeTrainee(Master trainee) {
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, trainee)) {
+            if (trainee == null || !this.trainees.contains(trainee)) {
+                return;
+            }
+            this.trainees.remove(trainee);
+            ChangeLog.elementRemoved(this, "trainees", trainee);
+            if (trainee.getManager() == this) {
+                trainee.setManager(null);
+            }
+        }
+    }
+
+    // walks the managers above this master, so a cycle check costs the depth of the tree
+    private boolean reportsTo(Master ancestor) {
+        Set<Master> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Master above = manager; above != null && seen.add(above); above = above.manager) {
+            if (above == ancestor) {
+                return true;
+            }
         }
-        this.trainees.add(trainee);
-        if (trainee.getManager() != this) {
-            trainee.setManager(this);
+        return false;
+    }
+
+    private void hierarchyChanged() {
+        if (masters.contains(this)) {
+            hierarchy.link(this, manager);
         }
     }
 
-    public void removeTrainee(Master trainee) {
-        if (trainee == null || !this.trainees.contains(trainee)) {
-            return;
+    // true when the master is managed by the ancestor directly or through other managers
+    public boolean isManagedBy(Master ancestor) {
+        if (ancestor == null) {
+            return false;
         }
-        this.trainees.remove(trainee);
-        if (trainee.getManager() == this) {
-            trainee.setManager(null);
+        ensureHierarchy();
+        return hierarchy.isAncestor(ancestor, this);
+    }
+
+    // every trainee below this master, each one followed by their own trainees
+    public List<Master> getAllTrainees() {
+        ensureHierarchy();
+        return hierarchy.descendants(this);
+    }
+
+    public int getAllTraineeCount() {
+        ensureHierarchy();
+        return hierarchy.descendantCount(this);
+    }
+
+    // 0 for a master without a manager
+    public int getHierarchyDepth() {
+        ensureHierarchy();
+        return hierarchy.depth(this);
+    }
+
+    // managers with the most trainees below them, directly or indirectly
+    public static List<Master> getManagersWithMostTrainees(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
         }
+        ensureHierarchy();
+        return hierarchy.largestSubtrees(count);
+    }
+
+    // after a load the managers are read on first use
+    private static void ensureHierarchy() {
+        hierarchy.ensureBuilt(masters.snapshot(), master -> new MasterHierarchy.Link(master.manager));
     }
 
     public void addServiceSpecialisesIn(Service service){
         if(service == null)
             throw new IllegalArgumentException("Service cannot be null");
-        if(existsDummyService()){
-            Service dummy = getDummyService();
-            if(dummy != null) {
-                servicesSpecialisesIn.remove(dummy);
-                dummy.removeFromExtent();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if(servicesSpecialisesIn.add(service)) {
+                ChangeLog.elementAdded(this, "servicesSpecialisesIn", service);
+                qualificationsChanged();
+                service.addMasterSpecializedIn(this);
             }
         }
-        if(servicesSpecialisesIn.add(service))
-            service.addMasterSpecializedIn(this);
     }
 
     public void removeServiceSpecialisesIn(Service service){
         if(service == null) return;
-        if(servicesSpecialisesIn.remove(service))
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, service)) {
+            if(!servicesSpecialisesIn.remove(service)) {
+                return;
+            }
+            ChangeLog.elementRemoved(this, "servicesSpecialisesIn", service);
+            qualificationsChanged();
             service.removeMasterSpecializedIn(this);
-        if(servicesSpecialisesIn.isEmpty()) {
-            addServiceSpecialisesIn(service);
-            throw new IllegalStateException("Master should specialise in at least one service");
+            if(servicesSpecialisesIn.isEmpty()) {
+                addServiceSpecialisesIn(service);
+                throw new IllegalStateException("Master should specialise in at least one service");
+            }
         }
     }
 
+    // true for a master created without services who has not been assigned one yet
+    public boolean isPendingSpecialisation() {
+        return servicesSpecialisesIn.isEmpty();
+    }
+
     public Set<Service> getServiceSpecialisesIn(){
         return new HashSet<>(servicesSpecialisesIn);
     }
 
+    public Set<Service> getServiceSpecialisesInView() {
+        return Collections.unmodifiableSet(servicesSpecialisesIn);
+    }
+
+    public boolean hasServiceSpecialisesIn(Service service) {
+        return service != null && servicesSpecialisesIn.contains(service);
+    }
+
+    public int getServiceSpecialisesInCount() {
+        return servicesSpecialisesIn.size();
+    }
+
     public void addCertification(Certification certification) {
         if (certification == null) {
             throw new IllegalArgumentException("Certification cannot be null.");
         }
         String number = certification.getCertificationNumber();
 
-        if (certificationsByNumber.containsValue(certification)) {
-            return;
-        }
-        Certification existing = certificationsByNumber.get(number);
-        if (existing != null && existing != certification) {
-            throw new IllegalStateException("Certification number already used for this Master.");
-        }
-        if (certification.getMaster() != null && certification.getMaster() != this) {
-            throw new IllegalStateException("Certification belongs to another Master.");
-        }
-
-        if(existsDummyCertification()) {
-            Certification dummy = getDummyCertification();
-            if(dummy != null) {
-                removeCertification(dummy.getCertificationNumber());
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(
+                () -> Arrays.asList(this, certification, certification.getMaster()))) {
+            if (getCertificationSnapshot().contains(certification)) {
+                return;
+            }
+            Certification existing = findCertification(number);
+            if (existing != null && existing != certification) {
+                throw new IllegalStateException("Certification number already used for this Master.");
+            }
+            if (certification.getMaster() != null && certification.getMaster() != this) {
+                throw new IllegalStateException("Certification belongs to another Master.");
+            }
+            CertificationNumberIndex.claim(certification);
+            synchronized (certificationsByNumber) {
+                certificationsByNumber.put(number, certification);
+            }
+            ChangeLog.entryPut(this, "certificationsByNumber", number, certification);
+            qualificationsChanged();
+            if (certification.getMaster() != this) {
+                certification.setMaster(this);
             }
-        }
-        certificationsByNumber.put(number, certification);
-        if (certification.getMaster() != this) {
-            certification.setMaster(this);
-        }
 
+        }
     }
 
     public void removeCertification(String certNumber) {
         if (certNumber == null) {
             return;
         }
-        Certification certification = certificationsByNumber.get(certNumber);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, findCertification(certNumber)))) {
+            Certification certification = findCertification(certNumber);
+            if (certification == null) {
+                return;
+            }
+            synchronized (certificationsByNumber) {
+                certificationsByNumber.remove(certNumber);
+            }
+            ChangeLog.entryRemoved(this, "certificationsByNumber", certNumber);
+            CertificationNumberIndex.release(certification);
+            qualificationsChanged();
+            certification.removeFromExtent();
+        }
+    }
+
+    // unlinks a certification that moves to another master; unlike removeCertification it stays in the extent
+    // and keeps its number
+    public void handOverCertification(Certification certification) {
         if (certification == null) {
             return;
         }
-        certificationsByNumber.remove(certNumber);
-        certification.removeFromExtent();
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, certification)) {
+            String number = certification.getCertificationNumber();
+            if (findCertification(number) != certification) {
+                return;
+            }
+            synchronized (certificationsByNumber) {
+                certificationsByNumber.remove(number);
+            }
+            ChangeLog.entryRemoved(this, "certificationsByNumber", number);
+            qualificationsChanged();
+        }
     }
 
     public Certification getCertificationByNumber(String certificationNumber) {
         if (certificationNumber == null) {
             throw new IllegalArgumentException("certificationNumber cannot be null");
         }
-        return certificationsByNumber.get(certificationNumber);
+        return findCertification(certificationNumber);
+    }
+
+    private Certification findCertification(String certificationNumber) {
+        synchronized (certificationsByNumber) {
+            return certificationsByNumber.get(certificationNumber);
+        }
+    }
+
+    private List<Certification> getCertificationSnapshot() {
+        synchronized (certificationsByNumber) {
+            return new ArrayList<>(certificationsByNumber.values());
+        }
     }
 
     public boolean isTopMaster() {
         return this.experience >= minExperienceForTop;
     }
 
+    public void setExperience(int experience) {
+        if (experience < 0) {
+            throw new IllegalArgumentException("Experience cannot be negative");
+        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this)) {
+            if (experience < minExperienceForTop && !trainees.isEmpty()) {
+                throw new IllegalStateException("A master managing trainees must stay a top master");
+            }
+            this.experience = experience;
+            ChangeLog.fieldSet(this, "experience");
+            qualificationsChanged();
+        }
+    }
+
+    // masters who specialise in the service, hold a certification from the organization and have at least
+    // minExperience years; a null service or organization matches any
+    public static List<Master> findQualifiedMasters(Service service, String organization, int minExperience) {
+        if (minExperience < 0) {
+            throw new IllegalArgumentException("minExperience cannot be negative");
+        }
+        ensureQualificationIndex();
+        return qualificationIndex.find(service, organization, minExperience);
+    }
+
+    // after a load the masters are read on first use
+    private static void ensureQualificationIndex() {
+        qualificationIndex.ensureBuilt(masters.snapshot(), Master::readQualifications);
+    }
+
+    // called under the master's link lock after its services, certifications or experience change
+    private void qualificationsChanged() {
+        if (masters.contains(this)) {
+            qualificationIndex.put(this, readQualifications());
+        }
+    }
+
+    private QualificationIndex.Qualifications readQualifications() {
+        Set<String> organizations = new HashSet<>();
+        for (Certification certification : getCertificationSnapshot()) {
+            if (certification.getOrganization() != null) {
+                organizations.add(certification.getOrganization());
+            }
+        }
+        return new QualificationIndex.Qualifications(new HashSet<>(servicesSpecialisesIn), organizations, experience);
+    }
+
     public static int getMinExperienceForTop(){
         return minExperienceForTop;
     }
@@ -273,6 +621,10 @@ public class Master  implements Serializable {
         return new HashSet<>(trainees);
     }
 
+    public Set<Master> getTraineesView() {
+        return Collections.unmodifiableSet(trainees);
+    }
+
     public boolean hasManager() {
         return this.manager != null;
     }
@@ -286,17 +638,33 @@ public class Master  implements Serializable {
     }
 
     public boolean isTrainee(Master master) {
-        return this.trainees.contains(master);
+        return master != null && this.trainees.contains(master);
     }
 
     public static List<Master> getMasterList() {
-        return new ArrayList<>(masters);
+        return new ArrayList<>(masters.snapshot());
+    }
+
+    public static ExtentView<Master> getMasterExtent() {
+        return masters;
     }
 
     public Set<ProvidedService> getCompletedServices() {
         return new HashSet<>(completedServices);
     }
 
+    public Set<ProvidedService> getCompletedServicesView() {
+        return Collections.unmodifiableSet(completedServices);
+    }
+
+    public boolean hasCompletedService(ProvidedService providedService) {
+        return providedService != null && completedServices.contains(providedService);
+    }
+
+    public int getCompletedServiceCount() {
+        return completedServices.size();
+    }
+
     public int getExperience() {
         return experience;
     }
@@ -304,34 +672,27 @@ public class Master  implements Serializable {
     public static void clearExtent() {
         masters.clear();
     }
-    public Service getDummyService(){
-        return servicesSpecialisesIn.stream()
-                .filter(s -> s.getId() == 0 && "Dummy Service".equals(s.getName()))
-                .findFirst()
-                .orElse(null);
-    }
-    public boolean existsDummyService() {
-        return servicesSpecialisesIn.stream().anyMatch(s ->
-                s.getId() == 0 && s.getName().equals("Dummy Service")
-        );
+    public Map<String, Certification> getCertificationList() {
+        synchronized (certificationsByNumber) {
+            return new LinkedHashMap<>(certificationsByNumber);
+        }
     }
 
-    public boolean existsDummyCertification() {
-        return certificationsByNumber.values().stream()
-                .anyMatch(cert -> "0".equals(cert.getCertificationNumber())
-                        && "Dummy".equals(cert.getName()));
+    // a snapshot, the map is only safe to read under its monitor
+    public Map<String, Certification> getCertificationsView() {
+        return Collections.unmodifiableMap(getCertificationList());
     }
 
-    public Certification getDummyCertification() {
-        return certificationsByNumber.values().stream()
-                .filter(cert -> "0".equals(cert.getCertificationNumber())
-                        && "Dummy".equals(cert.getName()))
-                .findFirst()
-                .orElse(null);
+    public boolean hasCertification(String certificationNumber) {
+        synchronized (certificationsByNumber) {
+            return certificationsByNumber.containsKey(certificationNumber);
+        }
     }
 
-    public Map<String, Certification> getCertificationList() {
-        return new LinkedHashMap<>(certificationsByNumber);
+    public int getCertificationCount() {
+        synchronized (certificationsByNumber) {
+            return certificationsByNumber.size();
+        }
     }
 
     public static boolean compareMasters(Master m1, Master m2) {
@@ -0,0 +1,375 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.IncrementalIndex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The manager/trainee tree of the masters of the extent, numbered as nested
+ * intervals: every master owns a range of labels that holds the ranges of
+ * its trainees, followed by a gap for trainees linked later. An ancestor
+ * check compares two intervals, and depths and subtree sizes are kept with
+ * the labels.
+ *
+ * A manager change gives the moved subtree a fresh run of labels in the gap
+ * of its new manager and adjusts the subtree sizes of the old and new
+ * managers above it, so it costs the size of the subtree plus the depth of
+ * the tree. Only when a gap is used up is the whole tree numbered again in
+ * one depth-first pass, which spreads the labels out evenly.
+ *
+ * Callers read a master's manager under its link lock and pass it in; the
+ * index only takes its own monitor and never calls out.
+ */
+final class MasterHierarchy extends IncrementalIndex<Master, MasterHierarchy.Link> {
+
+    // a full numbering spreads the masters over the first half of the labels; the rest is left for new roots
+    private static final long RANGE = 1L << 62;
+
+    // most labels a moved master takes, so that one gap holds many later moves
+    private static final long SPREAD = 1L << 24;
+
+    private final Set<Master> nodes = new LinkedHashSet<>();
+
+    private final Map<Master, Master> parents = new HashMap<>();
+
+    private final Map<Master, Set<Master>> children = new HashMap<>();
+
+    // intervals, valid while numbered is set
+    private final Map<Master, Label> labels = new HashMap<>();
+
+    // start of the gap after the last root
+    private long rootsEnd;
+
+    private boolean numbered;
+
+    // a master without a manager is a root
+    void link(Master master, Master manager) {
+        put(master, new Link(manager));
+    }
+
+    @Override
+    protected void changed(Master master, Link old, Link link) {
+        if (link == null) {
+            detach(master);
+        } else {
+            attach(master, link.manager);
+        }
+    }
+
+    private void attach(Master master, Master manager) {
+        boolean added = nodes.add(master);
+        Master old = manager == null ? parents.remove(master) : parents.put(master, manager);
+        if (old == manager && !added) {
+            return;
+        }
+        if (old != manager) {
+            if (old != null) {
+                removeChild(old, master);
+            }
+            if (manager != null) {
+                children.computeIfAbsent(manager, m -> new LinkedHashSet<>()).add(master);
+            }
+        }
+        if (!numbered) {
+            return;
+        }
+        if (added && children.containsKey(master)) {
+            // trainees that were linked before the master joined the tree
+            numbered = false;
+            return;
+        }
+        Label label = labels.get(master);
+        if (label != null) {
+            resizeAbove(old, label, -label.size);
+        }
+        place(master);
+    }
+
+    // trainees of a removed master count as roots until they are unlinked
+    private void detach(Master master) {
+        if (!nodes.remove(master)) {
+            return;
+        }
+        Master manager = parents.remove(master);
+        if (manager != null) {
+            removeChild(manager, master);
+        }
+        if (!numbered) {
+            return;
+        }
+        Label label = labels.remove(master);
+        if (label == null) {
+            return;
+        }
+        resizeAbove(manager, label, -label.size);
+        for (Master trainee : new ArrayList<>(children.getOrDefault(master, Set.of()))) {
+            Label below = labels.get(trainee);
+            if (below != null && encloses(label, below) && numbered) {
+                place(trainee);
+            }
+        }
+    }
+
+    private void removeChild(Master manager, Master trainee) {
+        Set<Master> trainees = children.get(manager);
+        if (trainees != null && trainees.remove(trainee) && trainees.isEmpty()) {
+            children.remove(manager);
+        }
+    }
+
+    @Override
+    protected void cleared() {
+        nodes.clear();
+        parents.clear();
+        children.clear();
+        labels.clear();
+        numbered = false;
+    }
+
+    synchronized boolean isAncestor(Master ancestor, Master master) {
+        number();
+        Label above = labels.get(ancestor);
+        Label below = labels.get(master);
+        return above != null && below != null && encloses(above, below);
+    }
+
+    // in depth-first order, the master itself excluded
+    synchronized List<Master> descendants(Master master) {
+        number();
+        Label label = labels.get(master);
+        if (label == null) {
+            return new ArrayList<>();
+        }
+        List<Master> result = new ArrayList<>(label.size - 1);
+        Deque<Iterator<Master>> pending = new ArrayDeque<>();
+        pending.push(trainees(master).iterator());
+        while (!pending.isEmpty()) {
+            Iterator<Master> trainees = pending.peek();
+            if (!trainees.hasNext()) {
+                pending.pop();
+                continue;
+            }
+            Master trainee = trainees.next();
+            Label below = labels.get(trainee);
+            // a trainee outside the interval is on a manager cycle saved before cycles were rejected
+            if (below != null && encloses(label, below)) {
+                result.add(trainee);
+                pending.push(trainees(trainee).iterator());
+            }
+        }
+        return result;
+    }
+
+    synchronized int descendantCount(Master master) {
+        number();
+        Label label = labels.get(master);
+        return label == null ? 0 : label.size - 1;
+    }
+
+    synchronized int depth(Master master) {
+        number();
+        Label label = labels.get(master);
+        return label == null ? 0 : label.depth;
+    }
+
+    // managers ordered by the size of their subtree, largest first; ties keep the numbering order
+    synchronized List<Master> largestSubtrees(int count) {
+        number();
+        Comparator<Label> bySize = Comparator.<Label>comparingInt(label -> label.size)
+                .thenComparing(Comparator.<Label>comparingLong(label -> label.start).reversed());
+        PriorityQueue<Label> largest = new PriorityQueue<>(bySize);
+        if (count > 0) {
+            for (Label label : labels.values()) {
+                if (label.size == 1) {
+                    continue;
+                }
+                largest.add(label);
+                if (largest.size() > count) {
+                    largest.poll();
+                }
+            }
+        }
+        List<Master> result = new ArrayList<>(largest.size());
+        while (!largest.isEmpty()) {
+            result.add(largest.poll().master);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private Set<Master> trainees(Master master) {
+        return children.getOrDefault(master, Set.of());
+    }
+
+    private static boolean encloses(Label above, Label below) {
+        return above.start < below.start && below.end <= above.end;
+    }
+
+    // adds delta to the subtree sizes of the manager and the managers above it that enclose the label
+    private void resizeAbove(Master manager, Label below, int delta) {
+        for (Master above = manager; above != null; above = parents.get(above)) {
+            Label label = labels.get(above);
+            if (label == null || !encloses(label, below)) {
+                return;
+            }
+            label.size += delta;
+        }
+    }
+
+    // labels the master's subtree again at the end of its manager's gap, or drops the numbering if it is full
+    private void place(Master master) {
+        Master manager = parents.get(master);
+        Label above = manager == null || !nodes.contains(manager) ? null : labels.get(manager);
+        List<Master> subtree = new ArrayList<>();
+        int[] parentIndexes = collect(master, subtree, false);
+        Label old = labels.get(master);
+        if (above != null && old != null && (old == above || encloses(old, above))) {
+            // the new manager is inside the subtree, i.e. on a cycle
+            numbered = false;
+            return;
+        }
+        long from = above == null ? rootsEnd : above.next;
+        long to = above == null ? RANGE : above.end;
+        long unit = Math.min((to - from) / (2L * subtree.size()), SPREAD);
+        if (unit < 1) {
+            numbered = false;
+            return;
+        }
+        Label label = assign(subtree, parentIndexes, from, unit, above == null ? 0 : above.depth + 1);
+        if (above == null) {
+            rootsEnd = label.end;
+            // roots keep the order of their labels across a full numbering
+            nodes.remove(master);
+            nodes.add(master);
+        } else {
+            above.next = label.end;
+            resizeAbove(manager, label, label.size);
+        }
+    }
+
+    private void number() {
+        if (numbered) {
+            return;
+        }
+        labels.clear();
+        long unit = Math.max(RANGE / 2 / Math.max(nodes.size(), 1), 1);
+        long next = 0;
+        List<Master> subtree = new ArrayList<>();
+        for (Master root : nodes) {
+            Master parent = parents.get(root);
+            if (parent == null || !nodes.contains(parent)) {
+                next = assign(subtree, collect(root, subtree, true), next, unit, 0).end;
+            }
+        }
+        // masters on a manager cycle saved before cycles were rejected are not below any root
+        for (Master master : nodes) {
+            if (!labels.containsKey(master)) {
+                next = assign(subtree, collect(master, subtree, true), next, unit, 0).end;
+            }
+        }
+        rootsEnd = next;
+        numbered = true;
+    }
+
+    // the subtree in depth-first order, iteratively so deep chains do not exhaust the stack; returns the
+    // position of each master's manager in it
+    private int[] collect(Master root, List<Master> subtree, boolean skipLabelled) {
+        subtree.clear();
+        List<Integer> parentIndexes = new ArrayList<>();
+        Set<Master> seen = new HashSet<>();
+        Deque<Iterator<Master>> pending = new ArrayDeque<>();
+        Deque<Integer> open = new ArrayDeque<>();
+        seen.add(root);
+        subtree.add(root);
+        parentIndexes.add(-1);
+        pending.push(trainees(root).iterator());
+        open.push(0);
+        while (!pending.isEmpty()) {
+            Iterator<Master> trainees = pending.peek();
+            if (!trainees.hasNext()) {
+                pending.pop();
+                open.pop();
+                continue;
+            }
+            Master trainee = trainees.next();
+            if (nodes.contains(trainee) && !(skipLabelled && labels.containsKey(trainee)) && seen.add(trainee)) {
+                parentIndexes.add(open.peek());
+                open.push(subtree.size());
+                subtree.add(trainee);
+                pending.push(trainees(trainee).iterator());
+            }
+        }
+        return parentIndexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // every master takes unit labels per master in its subtree: its own start, its trainees, and a gap of
+    // unit - 1 labels at the end; returns the label of the root
+    private Label assign(List<Master> subtree, int[] parentIndexes, long from, long unit, int depth) {
+        int[] sizes = new int[subtree.size()];
+        for (int i = subtree.size() - 1; i >= 0; i--) {
+            sizes[i]++;
+            if (parentIndexes[i] >= 0) {
+                sizes[parentIndexes[i]] += sizes[i];
+            }
+        }
+        Label[] assigned = new Label[subtree.size()];
+        for (int i = 0; i < subtree.size(); i++) {
+            Label parent = parentIndexes[i] < 0 ? null : assigned[parentIndexes[i]];
+            long start = parent == null ? from : parent.next;
+            Label label = new Label(subtree.get(i), start, start + unit * sizes[i],
+                    parent == null ? depth : parent.depth + 1, sizes[i]);
+            if (parent != null) {
+                parent.next = start + unit * sizes[i];
+            }
+            assigned[i] = label;
+            labels.put(label.master, label);
+        }
+        return assigned[0];
+    }
+
+    static final class Link {
+
+        private final Master manager;
+
+        Link(Master manager) {
+            this.manager = manager;
+        }
+    }
+
+    private static final class Label {
+
+        private final Master master;
+
+        private final long start;
+
+        private final long end;
+
+        private final int depth;
+
+        private int size;
+
+        // start of the gap after the trainees
+        private long next;
+
+        private Label(Master master, long start, long end, int depth, int size) {
+            this.master = master;
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+            this.size = size;
+            this.next = start + 1;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.byt.models.person;
+
+import com.example.byt.models.ProvidedService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time ranges a master is booked for, kept in an interval tree: a treap
+ * ordered by start time whose nodes also track the latest end in their
+ * subtree. Bookings may overlap (availability is only enforced when a
+ * booking asks for it). The latest end among the bookings starting before a
+ * time is found on one root-to-leaf path, so an availability check costs
+ * O(log n); listing the conflicts costs O(log n) per conflict. Updates cost
+ * O(log n).
+ */
+final class MasterSchedule {
+
+    private final Map<ProvidedService, Booking> bookings = new IdentityHashMap<>();
+
+    private Booking root;
+
+    // orders bookings with the same start
+    private long nextSequence;
+
+    MasterSchedule(Iterable<ProvidedService> providedServices) {
+        for (ProvidedService providedService : providedServices) {
+            add(providedService);
+        }
+    }
+
+    void add(ProvidedService providedService) {
+        LocalDateTime start = providedService.getTime();
+        if (start == null || bookings.containsKey(providedService)) {
+            return;
+        }
+        Booking booking = new Booking(providedService, start, start.plus(providedService.getDuration()),
+                nextSequence++);
+        bookings.put(providedService, booking);
+        root = insert(root, booking);
+    }
+
+    void remove(ProvidedService providedService) {
+        Booking booking = bookings.remove(providedService);
+        if (booking != null) {
+            root = delete(root, booking);
+        }
+    }
+
+    // bookings overlapping [start, end), by start time
+    List<ProvidedService> getConflicts(LocalDateTime start, LocalDateTime end) {
+        List<ProvidedService> conflicts = new ArrayList<>();
+        if (end.isAfter(start)) {
+            collectConflicts(root, start, end, conflicts);
+        }
+        return conflicts;
+    }
+
+    // end of the latest booking overlapping [start, end), or null if the range is free
+    LocalDateTime getLatestConflictEnd(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            return null;
+        }
+        // a booking starting before the end overlaps the range exactly when it ends after the start
+        LocalDateTime latest = null;
+        Booking node = root;
+        while (node != null) {
+            if (node.start.isBefore(end)) {
+                latest = later(latest, later(node.end, maxEnd(node.left)));
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return latest != null && latest.isAfter(start) ? latest : null;
+    }
+
+    LocalDateTime getNextFreeTime(LocalDateTime from, Duration duration) {
+        LocalDateTime start = from;
+        LocalDateTime conflictEnd;
+        while ((conflictEnd = getLatestConflictEnd(start, start.plus(duration))) != null) {
+            start = conflictEnd;
+        }
+        return start;
+    }
+
+    int size() {
+        return bookings.size();
+    }
+
+    private static void collectConflicts(Booking node, LocalDateTime start, LocalDateTime end,
+                                         List<ProvidedService> conflicts) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return;
+        }
+        collectConflicts(node.left, start, end, conflicts);
+        // the node and everything to its right start at or after the end
+        if (!node.start.isBefore(end)) {
+            return;
+        }
+        if (node.end.isAfter(start)) {
+            conflicts.add(node.providedService);
+        }
+        collectConflicts(node.right, start, end, conflicts);
+    }
+
+    private static Booking insert(Booking node, Booking booking) {
+        if (node == null) {
+            return booking;
+        }
+        if (booking.isBefore(node)) {
+            node.left = insert(node.left, booking);
+            if (node.left.priority > node.priority) {
+                return rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, booking);
+            if (node.right.priority > node.priority) {
+                return rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Booking delete(Booking node, Booking booking) {
+        if (node == booking) {
+            return merge(node.left, node.right);
+        }
+        if (booking.isBefore(node)) {
+            node.left = delete(node.left, booking);
+        } else {
+            node.right = delete(node.right, booking);
+        }
+        node.update();
+        return node;
+    }
+
+    // joins two treaps whose bookings all start in order
+    private static Booking merge(Booking left, Booking right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Booking rotateRight(Booking node) {
+        Booking left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Booking rotateLeft(Booking node) {
+        Booking right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static LocalDateTime maxEnd(Booking node) {
+        return node == null ? null : node.maxEnd;
+    }
+
+    private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || !second.isAfter(first) ? first : second;
+    }
+
+    private static final class Booking {
+
+        private final ProvidedService providedService;
+
+        private final LocalDateTime start;
+
+        private final LocalDateTime end;
+
+        private final long sequence;
+
+        private final int priority = ThreadLocalRandom.current().nextInt();
+
+        private Booking left;
+
+        private Booking right;
+
+        // latest end in the subtree rooted here
+        private LocalDateTime maxEnd;
+
+        private Booking(ProvidedService providedService, LocalDateTime start, LocalDateTime end, long sequence) {
+            this.providedService = providedService;
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.maxEnd = end;
+        }
+
+        private boolean isBefore(Booking other) {
+            int byStart = start.compareTo(other.start);
+            return byStart < 0 || byStart == 0 && sequence < other.sequence;
+        }
+
+        private void update() {
+            maxEnd = later(end, later(maxEnd(left), maxEnd(right)));
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.example.byt.models.person;
 
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Past;
@@ -11,6 +12,7 @@ import jakarta.validation.constraints.Past;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -33,7 +35,7 @@ public class Person implements Serializable {
     private Customer customer;
     private Worker worker;
 
-    private static List<Person> people = new ArrayList<>();
+    private static final Extent<Person> people = ExtentRegistry.register(Person.class);
 
     protected Person() {
     }
@@ -51,20 +53,35 @@ public class Person implements Serializable {
         if (person == null) {
             throw new NullPointerException("customer cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Person>> violations = validator.validate(person);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the customer cannot be added to the list");
+        if (!ModelValidator.isValid(person)) {
             return;
         }
         people.add(person);
     }
 
     public static void removeFromExtent(Person person) {
-        Customer.removeFromExtent(person.customer);
-        Worker.removeFromExtent(person.worker);
-        people.remove(person);
+        removeAllFromExtent(List.of(person));
+    }
+
+    // e.g. the staff of a closed location; fails without removing anyone if a service would lose its last master
+    public static void removeAllFromExtent(Collection<Person> leaving) {
+        if (leaving == null) {
+            throw new IllegalArgumentException("People cannot be null");
+        }
+        List<Worker> leavingWorkers = new ArrayList<>();
+        for (Person person : leaving) {
+            if (person == null) {
+                throw new IllegalArgumentException("People cannot contain null");
+            }
+            if (person.worker != null) {
+                leavingWorkers.add(person.worker);
+            }
+        }
+        Worker.removeAllFromExtent(leavingWorkers);
+        for (Person person : leaving) {
+            Customer.removeFromExtent(person.customer);
+            people.remove(person);
+        }
     }
 
     private boolean isBirthDateValid(LocalDate birthDate) {
@@ -79,6 +96,7 @@ public class Person implements Serializable {
             throw new IllegalArgumentException("User should be at least 18 years old");
         }
         this.birthDate = birthDate;
+        ChangeLog.fieldSet(this, "birthDate");
     }
 
     public static Customer createCustomer(
@@ -91,6 +109,7 @@ public class Person implements Serializable {
         Person person = new Person(name, surname, phoneNumber, birthDate);
         Customer customer = new Customer(person, email);
         person.customer = customer;
+        ChangeLog.fieldSet(person, "customer");
         return customer;
     }
 
@@ -103,6 +122,7 @@ public class Person implements Serializable {
         Person person = new Person(name, surname, phoneNumber, birthDate);
         Customer customer = new Customer(person);
         person.customer = customer;
+        ChangeLog.fieldSet(person, "customer");
         return customer;
     }
 
@@ -115,6 +135,7 @@ public class Person implements Serializable {
         Person person = new Person(name, surname, phoneNumber, birthDate);
         Worker worker = new Worker(person);
         person.worker = worker;
+        ChangeLog.fieldSet(person, "worker");
         return worker;
     }
 
@@ -127,7 +148,9 @@ public class Person implements Serializable {
         Customer customer = new Customer(person, email);
         Worker worker = new Worker(person);
         person.customer = customer;
+        ChangeLog.fieldSet(person, "customer");
         person.worker = worker;
+        ChangeLog.fieldSet(person, "worker");
         return person;
 
     }
@@ -140,7 +163,9 @@ public class Person implements Serializable {
         Customer customer = new Customer(person);
         Worker worker = new Worker(person);
         person.customer = customer;
+        ChangeLog.fieldSet(person, "customer");
         person.worker = worker;
+        ChangeLog.fieldSet(person, "worker");
         return person;
     }
 
@@ -151,6 +176,7 @@ public class Person implements Serializable {
         }
         Worker worker = new Worker(person);
         person.worker = worker;
+        ChangeLog.fieldSet(person, "worker");
         return worker;
     }
 
@@ -160,6 +186,7 @@ public class Person implements Serializable {
             throw new IllegalStateException("Customer is already added");
         Customer customer = new Customer(person);
         person.customer = customer;
+        ChangeLog.fieldSet(person, "customer");
         return customer;
     }
 
@@ -169,6 +196,7 @@ public class Person implements Serializable {
             throw new IllegalStateException("Customer is already added");
         Customer customer = new Customer(person, email);
         person.customer = customer;
+        ChangeLog.fieldSet(person, "customer");
         return customer;
     }
 
@@ -209,6 +237,10 @@ public class Person implements Serializable {
     }
 
     public static List<Person> getPersonList() {
-        return new ArrayList<>(people);
+        return new ArrayList<>(people.snapshot());
+    }
+
+    public static ExtentView<Person> getPersonExtent() {
+        return people;
     }
 }
@@ -0,0 +1,112 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.IncrementalIndex;
+import com.example.byt.models.services.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Masters of the extent indexed by the services they specialise in, the
+ * organizations of their certifications and their experience. Callers read a
+ * master's qualifications under its link lock and pass them in; the index
+ * only takes its own monitor and never calls out.
+ *
+ * A compound query starts from the smallest of the sets it names and checks
+ * the remaining conditions against the stored qualifications, so it costs
+ * the number of masters in that set rather than the size of the extent.
+ */
+final class QualificationIndex extends IncrementalIndex<Master, QualificationIndex.Qualifications> {
+
+    private final Map<Service, Set<Master>> byService = new HashMap<>();
+
+    private final Map<String, Set<Master>> byOrganization = new HashMap<>();
+
+    private final TreeMap<Integer, Set<Master>> byExperience = new TreeMap<>();
+
+    @Override
+    protected void changed(Master master, Qualifications old, Qualifications current) {
+        if (old != null) {
+            for (Service service : old.services) {
+                removeFrom(byService, service, master);
+            }
+            for (String organization : old.organizations) {
+                removeFrom(byOrganization, organization, master);
+            }
+            removeFrom(byExperience, old.experience, master);
+        }
+        if (current != null) {
+            for (Service service : current.services) {
+                byService.computeIfAbsent(service, s -> new LinkedHashSet<>()).add(master);
+            }
+            for (String organization : current.organizations) {
+                byOrganization.computeIfAbsent(organization, o -> new LinkedHashSet<>()).add(master);
+            }
+            byExperience.computeIfAbsent(current.experience, e -> new LinkedHashSet<>()).add(master);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Master>> index, K key, Master master) {
+        Set<Master> masters = index.get(key);
+        if (masters != null && masters.remove(master) && masters.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    @Override
+    protected void cleared() {
+        byService.clear();
+        byOrganization.clear();
+        byExperience.clear();
+    }
+
+    // null service or organization matches any
+    synchronized List<Master> find(Service service, String organization, int minExperience) {
+        List<Master> result = new ArrayList<>();
+        Set<Master> candidates = null;
+        if (service != null) {
+            candidates = byService.getOrDefault(service, Set.of());
+        }
+        if (organization != null) {
+            Set<Master> certified = byOrganization.getOrDefault(organization, Set.of());
+            if (candidates == null || certified.size() < candidates.size()) {
+                candidates = certified;
+            }
+        }
+        if (candidates == null) {
+            for (Set<Master> masters : byExperience.tailMap(minExperience, true).values()) {
+                result.addAll(masters);
+            }
+            return result;
+        }
+        for (Master master : candidates) {
+            Qualifications q = get(master);
+            if (q.experience >= minExperience
+                    && (service == null || q.services.contains(service))
+                    && (organization == null || q.organizations.contains(organization))) {
+                result.add(master);
+            }
+        }
+        return result;
+    }
+
+    static final class Qualifications {
+
+        private final Set<Service> services;
+
+        private final Set<String> organizations;
+
+        private final int experience;
+
+        Qualifications(Set<Service> services, Set<String> organizations, int experience) {
+            this.services = services;
+            this.organizations = organizations;
+            this.experience = experience;
+        }
+    }
+}
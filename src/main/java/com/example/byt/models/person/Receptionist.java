@@ -1,26 +1,30 @@
 package com.example.byt.models.person;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.appointment.Appointment;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotNull;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Receptionist implements Serializable {
 
     @NotNull
     private WorkType workType;
 
-    private HashSet<Appointment> appointments = new HashSet<>();
+    private Set<Appointment> appointments = ConcurrentHashMap.newKeySet();
 
-    private static List<Receptionist> receptionists = new ArrayList<>();
+    private static final Extent<Receptionist> receptionists = ExtentRegistry.register(Receptionist.class);
     private Worker worker;
     private Receptionist() {
     }
@@ -38,15 +42,30 @@ public class Receptionist implements Serializable {
         return new HashSet<>(appointments);
     }
 
+    public Set<Appointment> getAppointmentsView() {
+        return Collections.unmodifiableSet(appointments);
+    }
+
+    public boolean hasAppointment(Appointment appointment) {
+        return appointment != null && appointments.contains(appointment);
+    }
+
+    public int getAppointmentCount() {
+        return appointments.size();
+    }
+
     public void addAppointment(Appointment appointment) {
-        if (this.appointments.contains(appointment)) {
-            return;
-        }
         if (appointment == null) {
             throw new NullPointerException("Null appointment cannot be added to receptionist");
         }
-        appointments.add(appointment);
-        appointment.addReceptionist(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, appointment)) {
+            if (this.appointments.contains(appointment)) {
+                return;
+            }
+            appointments.add(appointment);
+            ChangeLog.elementAdded(this, "appointments", appointment);
+            appointment.addReceptionist(this);
+        }
     }
 
 
@@ -54,11 +73,7 @@ public class Receptionist implements Serializable {
         if (receptionist == null){
             throw new NullPointerException("Receptionist cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Receptionist>> violations = validator.validate(receptionist);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the receptionist cannot be added to the list");
+        if (!ModelValidator.isValid(receptionist)) {
             return;
         }
         receptionists.add(receptionist);
@@ -69,7 +84,11 @@ public class Receptionist implements Serializable {
     }
 
     public static List<Receptionist> getReceptionistList() {
-        return new ArrayList<>(receptionists);
+        return new ArrayList<>(receptionists.snapshot());
+    }
+
+    public static ExtentView<Receptionist> getReceptionistExtent() {
+        return receptionists;
     }
 
     public static void clearExtent() {
@@ -83,18 +102,29 @@ public class Receptionist implements Serializable {
         if (appointment == null) {
             throw new NullPointerException("Appointment cannot be null");
         }
-        if (!appointments.contains(appointment)) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, appointment)) {
+            if (!appointments.contains(appointment)) {
+                return;
+            }
+            appointments.remove(appointment);
+            ChangeLog.elementRemoved(this, "appointments", appointment);
+            appointment.removeReceptionist(this);
         }
-        appointments.remove(appointment);
-        appointment.removeReceptionist(this);
     }
 
     public void removeReceptionist() {
-        for (Appointment appointment : new HashSet<>(appointments)) {
-            removeAppointment(appointment);
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(this::selfAndAppointments)) {
+            for (Appointment appointment : new HashSet<>(appointments)) {
+                removeAppointment(appointment);
+            }
+            receptionists.remove(this);
         }
-        receptionists.remove(this);
+    }
+
+    private List<Object> selfAndAppointments() {
+        List<Object> parties = new ArrayList<>(appointments);
+        parties.add(this);
+        return parties;
     }
 
 
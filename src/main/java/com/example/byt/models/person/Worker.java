@@ -1,10 +1,15 @@
 package com.example.byt.models.person;
 
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.services.Service;
+import com.example.byt.persistence.ChangeLog;
 
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -15,7 +20,7 @@ public class Worker implements Serializable {
     private Master master;
     private Receptionist receptionist;
 
-    private static List<Worker> workers = new ArrayList<>();
+    private static final Extent<Worker> workers = ExtentRegistry.register(Worker.class);
 
     protected Worker() {
     }
@@ -89,6 +94,7 @@ public class Worker implements Serializable {
             throw new IllegalStateException("Worker already has a role");
         }
         worker.master = new Master(worker, experience);
+        ChangeLog.fieldSet(worker, "master");
         return worker.master;
     }
     public static Master assignMaster(
@@ -104,6 +110,7 @@ public class Worker implements Serializable {
         }
 
         worker.master = new Master(worker, experience, services);
+        ChangeLog.fieldSet(worker, "master");
         return worker.master;
     }
 
@@ -115,6 +122,7 @@ public class Worker implements Serializable {
             throw new IllegalStateException("Worker already has a role");
         }
         worker.receptionist = new Receptionist(worker, workType);
+        ChangeLog.fieldSet(worker, "receptionist");
         return worker.receptionist;
     }
 
@@ -150,6 +158,8 @@ public class Worker implements Serializable {
         this.master.removeMaster();
         this.master = null;
         this.receptionist = new Receptionist(this, workType);
+        ChangeLog.fieldSet(this, "master");
+        ChangeLog.fieldSet(this, "receptionist");
     }
 
     public String getName() {
@@ -176,22 +186,41 @@ public class Worker implements Serializable {
         if (worker == null) {
             return;
         }
-        if (worker.master != null) {
-            worker.master.removeMaster();
-            worker.master = null;
+        removeAllFromExtent(List.of(worker));
+    }
+
+    // the masters are removed first and together, they are the only part that can fail
+    protected static void removeAllFromExtent(Collection<Worker> leaving) {
+        List<Master> leavingMasters = new ArrayList<>();
+        for (Worker worker : leaving) {
+            if (worker.master != null) {
+                leavingMasters.add(worker.master);
+            }
         }
-        if (worker.receptionist != null) {
-            worker.receptionist.removeReceptionist();
-            worker.receptionist = null;
+        Master.removeMasters(leavingMasters);
+        for (Worker worker : leaving) {
+            if (worker.master != null) {
+                worker.master = null;
+                ChangeLog.fieldSet(worker, "master");
+            }
+            if (worker.receptionist != null) {
+                worker.receptionist.removeReceptionist();
+                worker.receptionist = null;
+                ChangeLog.fieldSet(worker, "receptionist");
+            }
+            workers.remove(worker);
         }
-        workers.remove(worker);
     }
     public static void clearExtent(){
         workers.clear();
     }
 
     public static List<Worker> getWorkerList() {
-        return new ArrayList<>(workers);
+        return new ArrayList<>(workers.snapshot());
+    }
+
+    public static ExtentView<Worker> getWorkerExtent() {
+        return workers;
     }
 
 }
@@ -1,13 +1,18 @@
 package com.example.byt.models.services;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
+import com.example.byt.models.MasterPair;
 import com.example.byt.models.Material;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -17,7 +22,12 @@ public class FourHandsService {
     private boolean isExpressService;
     private final static int numOfSpecialistsRequired = 2;
     private Service service;
-    private static List<FourHandsService> fourHandsServices = new ArrayList<>();
+    private static final Extent<FourHandsService> fourHandsServices = ExtentRegistry.register(FourHandsService.class);
+
+    // added default constructor for proper deserialization
+    // made it private on purpose
+    private FourHandsService() {
+    }
 
     protected FourHandsService(Service service, boolean isExpressService) {
         this.service = service;
@@ -30,11 +40,7 @@ public class FourHandsService {
         if (fourHandsService == null){
             throw new NullPointerException("FourHandsService cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<FourHandsService>> violations = validator.validate(fourHandsService);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the service cannot be added to the list");
+        if (!ModelValidator.isValid(fourHandsService)) {
             return;
         }
         fourHandsServices.add(fourHandsService);
@@ -44,19 +50,50 @@ public class FourHandsService {
         return numOfSpecialistsRequired;
     }
     public static List<FourHandsService> getFourHandsServiceList(){
-        return new ArrayList<>(fourHandsServices);
+        return new ArrayList<>(fourHandsServices.snapshot());
+    }
+
+    public static ExtentView<FourHandsService> getFourHandsServiceExtent() {
+        return fourHandsServices;
     }
 
     public boolean isExpressService() {
         return isExpressService;
     }
 
-    public void removeFromExtent(){
+    public List<MasterPair> findMasterPairs(LocalDateTime from, LocalDateTime to, int count) {
+        return findMasterPairs(from, to, count, false);
+    }
+
+    // pairs of specialised masters free together within [from, to], earliest first;
+    // with preferTopMaster, pairs including a top master come before all others
+    public List<MasterPair> findMasterPairs(LocalDateTime from, LocalDateTime to, int count, boolean preferTopMaster) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Time window cannot be null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Time window end must not be before its start");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
+        }
         Service service = this.service;
-        this.service = null;
+        if (service == null) {
+            throw new IllegalStateException("FourHandsService has no service");
+        }
+        return new MasterPairFinder(service.getMasterSpecializedInView(), service.getBookingDuration(), preferTopMaster)
+                .find(from, to, count);
+    }
 
-        if (service != null) service.removeRelatedService();
-        fourHandsServices.remove(this);
+    public void removeFromExtent(){
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, this.service))) {
+            Service service = this.service;
+            this.service = null;
+            ChangeLog.fieldSet(this, "service");
+
+            if (service != null) service.removeRelatedService();
+            fourHandsServices.remove(this);
+        }
     }
 
     public static void clearExtent() {
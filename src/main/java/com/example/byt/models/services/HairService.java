@@ -1,11 +1,13 @@
 package com.example.byt.models.services;
 
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.Material;
+import com.example.byt.models.RatingAggregate;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
@@ -20,7 +22,18 @@ public class HairService extends Service {
     @NotEmpty
     private List<String> hairTypes;
 
-    private static List<HairService> hairServices = new ArrayList<>();
+    private static final Extent<HairService> hairServices = ExtentRegistry.register(HairService.class);
+
+    private static final RatingAggregate hairServiceRatings = new RatingAggregate();
+
+    static {
+        trackSubtypeRatings(hairServices, hairServiceRatings);
+    }
+
+    // added default constructor for proper deserialization
+    // made it private on purpose
+    private HairService() {
+    }
 
     public HairService(int id, String name, double regularPrice, String description, double duration, Set<Master> masters, HairServiceType type, List<String> hairTypes) {
         super(id, name, regularPrice, description, duration, masters);
@@ -39,11 +52,7 @@ public class HairService extends Service {
         if (hairService == null){
             throw new NullPointerException("HairService cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<HairService>> violations = validator.validate(hairService);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the service cannot be added to the list");
+        if (!ModelValidator.isValid(hairService)) {
             return;
         }
         hairServices.add(hairService);
@@ -60,6 +69,7 @@ public class HairService extends Service {
             throw new IllegalArgumentException("hairTypes can't contain null or empty elements");
         }
         this.hairTypes = new ArrayList<>(hairTypes);
+        ChangeLog.fieldSet(this, "hairTypes");
     }
 
     public HairServiceType getType() {
@@ -67,7 +77,29 @@ public class HairService extends Service {
     }
 
     public static List<HairService> getHairServiceList() {
-        return new ArrayList<>(hairServices);
+        return new ArrayList<>(hairServices.snapshot());
+    }
+
+    public static ExtentView<HairService> getHairServiceExtent() {
+        return hairServices;
+    }
+
+    @Override
+    protected RatingAggregate getSubtypeRatings() {
+        return hairServices.contains(this) ? hairServiceRatings : null;
+    }
+
+    @Override
+    protected void removeFromSubtypeExtent() {
+        hairServices.remove(this);
+    }
+
+    public static double getAverageRating() {
+        return hairServiceRatings.getAverage();
+    }
+
+    public static int getTotalRatingCount() {
+        return hairServiceRatings.getCount();
     }
 
     public static void clearExtent() {
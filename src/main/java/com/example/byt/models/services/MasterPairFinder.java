@@ -0,0 +1,101 @@
+package com.example.byt.models.services;
+
+import com.example.byt.models.MasterPair;
+import com.example.byt.models.person.Master;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sweeps the candidate start times of a window in order. Two masters can only
+ * become free together at the window start or when one of them finishes a
+ * booking, so every master that is busy at a candidate time adds its next free
+ * time as a new candidate. Each pair is reported once, at its earliest common
+ * start; a candidate costs one schedule lookup per qualified master.
+ */
+final class MasterPairFinder {
+
+    private final List<Master> masters;
+
+    private final Duration duration;
+
+    private final boolean preferTopMaster;
+
+    MasterPairFinder(Collection<Master> qualified, Duration duration, boolean preferTopMaster) {
+        this.masters = new ArrayList<>(qualified);
+        this.duration = duration;
+        this.preferTopMaster = preferTopMaster;
+        if (preferTopMaster) {
+            // pairs are generated in list order, so top masters are paired first
+            List<Master> ordered = new ArrayList<>(masters.size());
+            masters.stream().filter(Master::isTopMaster).forEach(ordered::add);
+            masters.stream().filter(master -> !master.isTopMaster()).forEach(ordered::add);
+            masters.clear();
+            masters.addAll(ordered);
+        }
+    }
+
+    List<MasterPair> find(LocalDateTime from, LocalDateTime to, int count) {
+        List<MasterPair> pairs = new ArrayList<>();
+        // pairs without a top master, used only when there are not enough preferred ones
+        List<MasterPair> fallback = new ArrayList<>();
+        Set<Set<Master>> seen = new HashSet<>();
+        TreeSet<LocalDateTime> candidates = new TreeSet<>();
+        candidates.add(from);
+        LocalDateTime latestStart = to.minus(duration);
+
+        while (pairs.size() < count && !candidates.isEmpty()) {
+            LocalDateTime start = candidates.pollFirst();
+            if (start.isAfter(latestStart)) {
+                break;
+            }
+            List<Master> free = new ArrayList<>();
+            for (Master master : masters) {
+                LocalDateTime next = master.getNextAvailableTime(start, duration);
+                if (next.equals(start)) {
+                    free.add(master);
+                } else {
+                    candidates.add(next);
+                }
+            }
+            addPairs(free, start, count, pairs, fallback, seen);
+        }
+        for (int i = 0; pairs.size() < count && i < fallback.size(); i++) {
+            pairs.add(fallback.get(i));
+        }
+        return pairs;
+    }
+
+    private void addPairs(List<Master> free, LocalDateTime start, int count,
+                          List<MasterPair> pairs, List<MasterPair> fallback, Set<Set<Master>> seen) {
+        LocalDateTime end = start.plus(duration);
+        for (int i = 0; i < free.size() && pairs.size() < count; i++) {
+            Master first = free.get(i);
+            boolean preferred = !preferTopMaster || first.isTopMaster();
+            // the rest of the list has no top masters either
+            if (!preferred && fallback.size() >= count) {
+                return;
+            }
+            for (int j = i + 1; j < free.size() && pairs.size() < count; j++) {
+                Master second = free.get(j);
+                if (!seen.add(Set.of(first, second))) {
+                    continue;
+                }
+                MasterPair pair = new MasterPair(start, end, first, second);
+                if (preferred) {
+                    pairs.add(pair);
+                } else if (fallback.size() < count) {
+                    fallback.add(pair);
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.byt.models.services;
 
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.Material;
+import com.example.byt.models.RatingAggregate;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotNull;
 
 import java.util.ArrayList;
@@ -18,7 +19,18 @@ public class NailService extends Service {
 
     private boolean isCareIncluded;
 
-    private static List<NailService> nailServices = new ArrayList<>();
+    private static final Extent<NailService> nailServices = ExtentRegistry.register(NailService.class);
+
+    private static final RatingAggregate nailServiceRatings = new RatingAggregate();
+
+    static {
+        trackSubtypeRatings(nailServices, nailServiceRatings);
+    }
+
+    // added default constructor for proper deserialization
+    // made it private on purpose
+    private NailService() {
+    }
 
     public NailService(int id, String name, double regularPrice, String description,
                        double duration, Set<Master> masters, NailServiceType type, boolean isCareIncluded) {
@@ -40,18 +52,18 @@ public class NailService extends Service {
         if (nailService == null){
             throw new NullPointerException("NailService cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<NailService>> violations = validator.validate(nailService);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the service cannot be added to the list");
+        if (!ModelValidator.isValid(nailService)) {
             return;
         }
         nailServices.add(nailService);
     }
 
     public static List<NailService> getNailServiceList(){
-        return new ArrayList<>(nailServices);
+        return new ArrayList<>(nailServices.snapshot());
+    }
+
+    public static ExtentView<NailService> getNailServiceExtent() {
+        return nailServices;
     }
 
     public NailServiceType getType() {
@@ -62,6 +74,24 @@ public class NailService extends Service {
         return isCareIncluded;
     }
 
+    @Override
+    protected RatingAggregate getSubtypeRatings() {
+        return nailServices.contains(this) ? nailServiceRatings : null;
+    }
+
+    @Override
+    protected void removeFromSubtypeExtent() {
+        nailServices.remove(this);
+    }
+
+    public static double getAverageRating() {
+        return nailServiceRatings.getAverage();
+    }
+
+    public static int getTotalRatingCount() {
+        return nailServiceRatings.getCount();
+    }
+
     public static void clearExtent() {
         nailServices.clear();
     }
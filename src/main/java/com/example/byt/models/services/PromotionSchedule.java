@@ -0,0 +1,60 @@
+package com.example.byt.models.services;
+
+import com.example.byt.models.Promotion;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Best applicable discount of a service as a step function over dates.
+ * Each key is the first day on which the mapped discount applies; it stays
+ * in effect until the next key. Built in O(n log n), queried in O(log n).
+ */
+final class PromotionSchedule {
+
+    private final TreeMap<LocalDate, Double> bestDiscountFrom = new TreeMap<>();
+
+    PromotionSchedule(Collection<Promotion> promotions) {
+        // promotions that become active / stop being active on each date
+        TreeMap<LocalDate, List<Promotion>> starts = new TreeMap<>();
+        TreeMap<LocalDate, List<Promotion>> ends = new TreeMap<>();
+        for (Promotion promotion : promotions) {
+            if (promotion.getStartDate() == null || promotion.getEndDate() == null) {
+                continue;
+            }
+            starts.computeIfAbsent(promotion.getStartDate(), d -> new ArrayList<>()).add(promotion);
+            if (!promotion.getEndDate().equals(LocalDate.MAX)) {
+                ends.computeIfAbsent(promotion.getEndDate().plusDays(1), d -> new ArrayList<>()).add(promotion);
+            }
+        }
+
+        TreeSet<LocalDate> boundaries = new TreeSet<>(starts.keySet());
+        boundaries.addAll(ends.keySet());
+
+        TreeMap<Double, Integer> active = new TreeMap<>();
+        double current = 0;
+        for (LocalDate date : boundaries) {
+            for (Promotion promotion : ends.getOrDefault(date, List.of())) {
+                active.computeIfPresent(promotion.getPercentage(), (p, count) -> count == 1 ? null : count - 1);
+            }
+            for (Promotion promotion : starts.getOrDefault(date, List.of())) {
+                active.merge(promotion.getPercentage(), 1, Integer::sum);
+            }
+            double best = active.isEmpty() ? 0 : Math.max(active.lastKey(), 0);
+            if (best != current || bestDiscountFrom.isEmpty()) {
+                bestDiscountFrom.put(date, best);
+                current = best;
+            }
+        }
+    }
+
+    double getBestDiscount(LocalDate date) {
+        Map.Entry<LocalDate, Double> entry = bestDiscountFrom.floorEntry(date);
+        return entry == null ? 0 : entry.getValue();
+    }
+}
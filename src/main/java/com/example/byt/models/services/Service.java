@@ -1,23 +1,39 @@
 package com.example.byt.models.services;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentListener;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.Material;
 import com.example.byt.models.Promotion;
 import com.example.byt.models.ProvidedService;
+import com.example.byt.models.RatingAggregate;
+import com.example.byt.models.Slot;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class Service implements Serializable {
 
@@ -40,22 +56,35 @@ public class Service implements Serializable {
     @Max(5)
     private double rating;
 
+    private RatingAggregate ratings = new RatingAggregate();
+
     private Object relatedService;
 
-    private Set<ProvidedService> providedServices = new HashSet<>();
+    private Set<ProvidedService> providedServices = ConcurrentHashMap.newKeySet();
+
+    private Set<Material> materialsUsed = ConcurrentHashMap.newKeySet();
+
+    // amount of each used material consumed by one provided service; unset means none
+    private Map<Material, Double> materialQuantities = new ConcurrentHashMap<>();
+
+    private Set<Promotion> promotionsApplied = ConcurrentHashMap.newKeySet();
 
-    private Set<Material> materialsUsed = new HashSet<>();
+    // the schedule built from the promotions, or a fresh token left by the last change to them; a schedule is
+    // only kept if the token it replaces is still there, so one built from promotions that changed meanwhile
+    // is never published
+    private transient volatile Object promotionSchedule;
 
-    private Set<Promotion> promotionsApplied = new HashSet<>();
+    private static final AtomicReferenceFieldUpdater<Service, Object> promotionScheduleUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(Service.class, Object.class, "promotionSchedule");
 
-    private Set<Master> mastersSpecializedIn = new HashSet<>();
+    private Set<Master> mastersSpecializedIn = ConcurrentHashMap.newKeySet();
 
     // added default constructor for proper deserialization
     // made it protected on purpose, so that it is used only by the inheritors
     protected Service() {
     }
 
-    private static List<Service> services = new ArrayList<>();
+    private static final Extent<Service> services = ExtentRegistry.register(Service.class);
 
     public Service(int id, String name, double regularPrice, String description,
                    double duration, Set<Master> masters) {
@@ -88,11 +117,7 @@ public class Service implements Serializable {
         if (service == null){
             throw new NullPointerException("Service cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<Service>> violations = validator.validate(service);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the service cannot be added to the list");
+        if (!ModelValidator.isValid(service)) {
             return;
         }
         services.add(service);
@@ -103,95 +128,328 @@ public class Service implements Serializable {
             throw new NullPointerException("ProvidedService cannot be null");
         }
 
-        if (this.providedServices.contains(providedService)) {
-            return;
-        }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, providedService)) {
+            if (this.providedServices.contains(providedService)) {
+                return;
+            }
 
-        this.providedServices.add(providedService);
-        providedService.addService(this);
+            this.providedServices.add(providedService);
+            ChangeLog.elementAdded(this, "providedServices", providedService);
+            addRating(providedService.getRating());
+            providedService.addService(this);
+        }
     }
 
     public void removeProvidedService(ProvidedService providedService) {
         if (providedService == null){
             throw new NullPointerException("ProvidedService cannot be null");
         }
-        if (!this.providedServices.contains(providedService)) {
-            return;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(
+                () -> Arrays.asList(this, providedService, providedService.getAppointment()))) {
+            if (!this.providedServices.contains(providedService)) {
+                return;
+            }
+
+            this.providedServices.remove(providedService);
+            ChangeLog.elementRemoved(this, "providedServices", providedService);
+            removeRating(providedService.getRating());
+            providedService.removeService(this);
+        }
+    }
+
+    public void updateProvidedServiceRating(ProvidedService providedService, Integer oldRating) {
+        if (providedService == null) {
+            throw new NullPointerException("ProvidedService cannot be null");
         }
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, providedService)) {
+            if (!this.providedServices.contains(providedService)) {
+                return;
+            }
+            removeRating(oldRating);
+            addRating(providedService.getRating());
+        }
+    }
+
+    private void addRating(Integer rating) {
+        ratings.add(rating);
+        RatingAggregate subtypeRatings = getSubtypeRatings();
+        if (subtypeRatings != null) {
+            subtypeRatings.add(rating);
+        }
+        this.rating = ratings.getAverage();
+        ratingsChanged();
+    }
+
+    private void removeRating(Integer rating) {
+        ratings.remove(rating);
+        RatingAggregate subtypeRatings = getSubtypeRatings();
+        if (subtypeRatings != null) {
+            subtypeRatings.remove(rating);
+        }
+        this.rating = ratings.getAverage();
+        ratingsChanged();
+    }
+
+    private void ratingsChanged() {
+        ChangeLog.fieldSet(this, "ratings");
+        ChangeLog.fieldSet(this, "rating");
+    }
+
+    // overridden by the subclasses that keep a rating across all their instances; null while not in their extent
+    protected RatingAggregate getSubtypeRatings() {
+        return null;
+    }
+
+    // keeps the subtype aggregate equal to the ratings of the services in the subtype extent
+    protected static void trackSubtypeRatings(ExtentView<? extends Service> extent, RatingAggregate subtypeRatings) {
+        ExtentRegistry.addExtentListener(new ExtentListener() {
+            @Override
+            public void added(ExtentView<?> changed, Object element) {
+                if (changed == extent) {
+                    subtypeRatings.merge(((Service) element).ratings);
+                }
+            }
+
+            @Override
+            public void removed(ExtentView<?> changed, Object element) {
+                if (changed == extent) {
+                    subtypeRatings.subtract(((Service) element).ratings);
+                }
+            }
 
-        this.providedServices.remove(providedService);
-        providedService.removeService(this);
+            @Override
+            public void cleared(ExtentView<?> changed) {
+                if (changed == extent) {
+                    subtypeRatings.clear();
+                }
+            }
+        });
+        ExtentRegistry.addRestoreListener(() -> {
+            subtypeRatings.clear();
+            for (Service service : extent) {
+                subtypeRatings.merge(service.ratings);
+            }
+        });
     }
 
     public Set<ProvidedService> getProvidedServices() {
         return new HashSet<>(providedServices);
     }
 
+    public Set<ProvidedService> getProvidedServicesView() {
+        return Collections.unmodifiableSet(providedServices);
+    }
+
+    public boolean hasProvidedService(ProvidedService providedService) {
+        return providedService != null && providedServices.contains(providedService);
+    }
+
+    public int getProvidedServiceCount() {
+        return providedServices.size();
+    }
+
     public void addMaterialUsed(Material material){
         if(material == null)
             throw new IllegalArgumentException("Material cannot be null");
-        if(materialsUsed.add(material))
-            material.addServiceUsedIn(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, material)) {
+            if(materialsUsed.add(material)) {
+                ChangeLog.elementAdded(this, "materialsUsed", material);
+                material.addServiceUsedIn(this);
+            }
+        }
+    }
+
+    public void addMaterialUsed(Material material, double quantity) {
+        if (material == null)
+            throw new IllegalArgumentException("Material cannot be null");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, material)) {
+            addMaterialUsed(material);
+            setMaterialQuantity(material, quantity);
+        }
+    }
+
+    // applies to services booked from now on, booked ones keep the usage they were booked with
+    public void setMaterialQuantity(Material material, double quantity) {
+        if (material == null)
+            throw new IllegalArgumentException("Material cannot be null");
+        if (quantity < 0 || Double.isNaN(quantity) || Double.isInfinite(quantity))
+            throw new IllegalArgumentException("Quantity must be a non-negative number");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, material)) {
+            if (!materialsUsed.contains(material))
+                throw new IllegalArgumentException("Material " + material.getName() + " is not used in service " + name);
+            if (quantity == 0) {
+                if (materialQuantities.remove(material) != null) {
+                    ChangeLog.entryRemoved(this, "materialQuantities", material);
+                }
+            } else {
+                materialQuantities.put(material, quantity);
+                ChangeLog.entryPut(this, "materialQuantities", material, quantity);
+            }
+        }
+    }
+
+    public double getMaterialQuantity(Material material) {
+        Double quantity = material == null ? null : materialQuantities.get(material);
+        return quantity == null ? 0.0 : quantity;
+    }
+
+    public Map<Material, Double> getMaterialQuantities() {
+        return new HashMap<>(materialQuantities);
     }
 
     public void removeMaterialUsed(Material material){
-        if(material != null && materialsUsed.remove(material))
-            material.removeServiceUsedIn(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, material)) {
+            if(material != null && materialsUsed.remove(material)) {
+                ChangeLog.elementRemoved(this, "materialsUsed", material);
+                if (materialQuantities.remove(material) != null) {
+                    ChangeLog.entryRemoved(this, "materialQuantities", material);
+                }
+                material.removeServiceUsedIn(this);
+            }
+        }
     }
 
     public Set<Material> getMaterialsUsed() {
         return new HashSet<>(materialsUsed);
     }
 
+    public Set<Material> getMaterialsUsedView() {
+        return Collections.unmodifiableSet(materialsUsed);
+    }
+
+    public boolean hasMaterialUsed(Material material) {
+        return material != null && materialsUsed.contains(material);
+    }
+
+    public int getMaterialUsedCount() {
+        return materialsUsed.size();
+    }
+
     public void addPromotionApplied(Promotion promotion){
         if(promotion == null)
             throw new IllegalArgumentException("Promotion cannot be null");
-        if(promotionsApplied.add(promotion))
-            promotion.addServiceApplicableTo(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, promotion)) {
+            if(promotionsApplied.add(promotion)) {
+                promotionsChanged();
+                ChangeLog.elementAdded(this, "promotionsApplied", promotion);
+                promotion.addServiceApplicableTo(this);
+            }
+        }
     }
 
     public void removePromotionApplied(Promotion promotion){
-        if(promotion != null && promotionsApplied.remove(promotion))
-            promotion.removeServiceApplicableTo(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, promotion)) {
+            if(promotion != null && promotionsApplied.remove(promotion)) {
+                promotionsChanged();
+                ChangeLog.elementRemoved(this, "promotionsApplied", promotion);
+                promotion.removeServiceApplicableTo(this);
+            }
+        }
+    }
+
+    public void promotionDatesChanged(Promotion promotion){
+        if(promotion != null && promotionsApplied.contains(promotion))
+            promotionsChanged();
+    }
+
+    private void promotionsChanged() {
+        promotionSchedule = new Object();
     }
 
     public Set<Promotion> getPromotionsApplied() {
         return new HashSet<>(promotionsApplied);
     }
 
+    public Set<Promotion> getPromotionsAppliedView() {
+        return Collections.unmodifiableSet(promotionsApplied);
+    }
+
+    public boolean hasPromotionApplied(Promotion promotion) {
+        return promotion != null && promotionsApplied.contains(promotion);
+    }
+
+    public int getPromotionAppliedCount() {
+        return promotionsApplied.size();
+    }
+
     public void addMasterSpecializedIn(Master master){
         if(master == null)
             throw new IllegalArgumentException("Master cannot be null");
-        if(mastersSpecializedIn.add(master))
-            master.addServiceSpecialisesIn(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, master)) {
+            if(mastersSpecializedIn.add(master)) {
+                ChangeLog.elementAdded(this, "mastersSpecializedIn", master);
+                master.addServiceSpecialisesIn(this);
+            }
+        }
     }
 
     public void removeMasterSpecializedIn(Master master){
         if(master == null) return;
-        if(mastersSpecializedIn.remove(master))
-            master.removeServiceSpecialisesIn(this);
-        if(mastersSpecializedIn.isEmpty()) {
-            addMasterSpecializedIn(master);
-            throw new IllegalStateException("Service must have at least one master specialized in it");
+        try (LinkLocks.Guard guard = LinkLocks.lock(this, master)) {
+            if(mastersSpecializedIn.remove(master)) {
+                ChangeLog.elementRemoved(this, "mastersSpecializedIn", master);
+                master.removeServiceSpecialisesIn(this);
+            }
+            if(mastersSpecializedIn.isEmpty()) {
+                addMasterSpecializedIn(master);
+                throw new IllegalStateException("Service must have at least one master specialized in it");
+            }
         }
     }
 
     public void removeMasterSpecializedInForRemoval(Master master){
         if(master == null) return;
-        mastersSpecializedIn.remove(master);
-        if(mastersSpecializedIn.isEmpty()) {
-            addMasterSpecializedIn(master);
-            throw new IllegalStateException("Service must have at least one master specialized in it");
+        removeMastersSpecializedInForRemoval(List.of(master));
+    }
+
+    // unlinks masters that are being removed, only their side of the link is left to the caller;
+    // fails without changing anything if no master would be left
+    public void removeMastersSpecializedInForRemoval(Collection<Master> leaving){
+        if(leaving == null)
+            throw new IllegalArgumentException("Masters cannot be null");
+        Set<Master> distinct = new HashSet<>(leaving);
+        List<Object> parties = new ArrayList<>(distinct);
+        parties.add(this);
+        try (LinkLocks.Guard guard = LinkLocks.lock(parties.toArray())) {
+            int linked = 0;
+            for (Master master : distinct) {
+                if (master != null && mastersSpecializedIn.contains(master)) {
+                    linked++;
+                }
+            }
+            if (linked > 0 && linked >= mastersSpecializedIn.size()) {
+                throw new IllegalStateException("Service must have at least one master specialized in it");
+            }
+            for (Master master : distinct) {
+                if (master != null && mastersSpecializedIn.remove(master)) {
+                    ChangeLog.elementRemoved(this, "mastersSpecializedIn", master);
+                }
+            }
         }
-
     }
 
     public Set<Master> getMasterSpecializedIn() {
         return new HashSet<>(mastersSpecializedIn);
     }
 
+    public Set<Master> getMasterSpecializedInView() {
+        return Collections.unmodifiableSet(mastersSpecializedIn);
+    }
+
+    public boolean hasMasterSpecializedIn(Master master) {
+        return master != null && mastersSpecializedIn.contains(master);
+    }
+
+    public int getMasterSpecializedInCount() {
+        return mastersSpecializedIn.size();
+    }
+
     public static List<Service> getServiceList() {
-        return new ArrayList<>(services);
+        return new ArrayList<>(services.snapshot());
+    }
+
+    public static ExtentView<Service> getServiceExtent() {
+        return services;
     }
 
     public int getId() {
@@ -214,41 +472,87 @@ public class Service implements Serializable {
         return duration;
     }
 
-    public double getRating() {
-        int totalRating = 0;
-        int size = 0;
-        for (ProvidedService providedService : providedServices) {
-            if (providedService.getRating() == null) {
-                continue;
+    // duration is kept in minutes
+    public Duration getBookingDuration() {
+        return Duration.ofSeconds(Math.round(duration * 60));
+    }
+
+    // the earliest free slots of the masters specialised in this service, in order of their start;
+    // a master reappears with the slot right after the previous one
+    public List<Slot> findFreeSlots(LocalDateTime from, int count) {
+        if (from == null) {
+            throw new IllegalArgumentException("from cannot be null");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
+        }
+        Duration length = getBookingDuration();
+        PriorityQueue<Slot> candidates = new PriorityQueue<>(Comparator.comparing(Slot::getStart));
+        for (Master master : mastersSpecializedIn) {
+            LocalDateTime start = master.getNextAvailableTime(from, length);
+            candidates.add(new Slot(start, start.plus(length), master));
+        }
+        List<Slot> slots = new ArrayList<>();
+        while (slots.size() < count && !candidates.isEmpty()) {
+            Slot slot = candidates.poll();
+            slots.add(slot);
+            // a zero-length service would offer the same slot forever
+            if (!length.isZero()) {
+                LocalDateTime next = slot.getMaster().getNextAvailableTime(slot.getEnd(), length);
+                candidates.add(new Slot(next, next.plus(length), slot.getMaster()));
             }
-            totalRating += providedService.getRating();
-            size++;
         }
-        return size == 0 ? 0.0 : (double) totalRating / size;
+        return slots;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public int getRatingCount() {
+        return ratings.getCount();
     }
 
     public double getTotalPrice(){
-        double maxDiscount = 0;
-        LocalDate today = LocalDate.now();
+        return getTotalPrice(LocalDate.now());
+    }
 
-        for (Promotion promo : promotionsApplied) {
-            if (!today.isBefore(promo.getStartDate()) && !today.isAfter(promo.getEndDate())) {
-                maxDiscount = Math.max(maxDiscount, promo.getPercentage());
-            }
-        }
+    public double getTotalPrice(LocalDate date){
+        return Math.max(regularPrice * (1 - getBestDiscount(date) / 100.0), 0);
+    }
 
-        return Math.max(regularPrice * (1 - maxDiscount / 100.0), 0);
+    public double getBestDiscount(LocalDate date){
+        if (date == null) {
+            throw new IllegalArgumentException("date cannot be null");
+        }
+        Object current = promotionSchedule;
+        if (current instanceof PromotionSchedule schedule) {
+            return schedule.getBestDiscount(date);
+        }
+        // built without the service's lock, since callers such as ProvidedService.capturePrice hold other locks
+        PromotionSchedule schedule = new PromotionSchedule(promotionsApplied);
+        // a promotion that changed while the schedule was built left a new token; the schedule then only
+        // serves this call
+        promotionScheduleUpdater.compareAndSet(this, current, schedule);
+        return schedule.getBestDiscount(date);
     }
 
     public void removeFromExtent(){
-        if (relatedService != null) {
-            if (relatedService instanceof FourHandsService) {
-                ((FourHandsService) relatedService).removeFromExtent();
-            } else if (relatedService instanceof TwoHandsService) {
-                ((TwoHandsService) relatedService).removeFromExtent();
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, relatedService))) {
+            if (relatedService != null) {
+                if (relatedService instanceof FourHandsService) {
+                    ((FourHandsService) relatedService).removeFromExtent();
+                } else if (relatedService instanceof TwoHandsService) {
+                    ((TwoHandsService) relatedService).removeFromExtent();
+                }
             }
+            services.remove(this);
+            removeFromSubtypeExtent();
         }
-        services.remove(this);
+    }
+
+    // overridden by the subclasses with an extent of their own; runs under the service's link lock
+    protected void removeFromSubtypeExtent() {
     }
 
     private void setRelatedService(Object relatedService) {
@@ -257,19 +561,23 @@ public class Service implements Serializable {
             throw new IllegalArgumentException("relatedService has incompatible type");
         }
         this.relatedService = relatedService;
+        ChangeLog.fieldSet(this, "relatedService");
     }
 
     protected void removeRelatedService() {
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, this.relatedService))) {
 
-        Object relatedService = this.relatedService;
-        this.relatedService = null;
+            Object relatedService = this.relatedService;
+            this.relatedService = null;
+            ChangeLog.fieldSet(this, "relatedService");
 
-        if (relatedService == null) return;
+            if (relatedService == null) return;
 
-        if (relatedService instanceof FourHandsService) {
-            ((FourHandsService) relatedService).removeFromExtent();
-        } else if (relatedService instanceof TwoHandsService) {
-            ((TwoHandsService) relatedService).removeFromExtent();
+            if (relatedService instanceof FourHandsService) {
+                ((FourHandsService) relatedService).removeFromExtent();
+            } else if (relatedService instanceof TwoHandsService) {
+                ((TwoHandsService) relatedService).removeFromExtent();
+            }
         }
     }
 
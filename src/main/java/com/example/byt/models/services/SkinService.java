@@ -1,14 +1,18 @@
 package com.example.byt.models.services;
 
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.Material;
+import com.example.byt.models.RatingAggregate;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ExtentPersistence;
+import com.example.byt.validation.ModelValidator;
 import jakarta.validation.constraints.NotBlank;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -19,7 +23,13 @@ public class SkinService extends Service implements Serializable {
     @NotBlank
     private String purpose;
 
-    private static List<SkinService> skinServices = new ArrayList<>();
+    private static final Extent<SkinService> skinServices = ExtentRegistry.register(SkinService.class);
+
+    private static final RatingAggregate skinServiceRatings = new RatingAggregate();
+
+    static {
+        trackSubtypeRatings(skinServices, skinServiceRatings);
+    }
     private static final String EXTENT_FILE = "skinservice.ser";
 
     public SkinService(int id, String name, double regularPrice, String description,
@@ -40,20 +50,16 @@ public class SkinService extends Service implements Serializable {
         if (skinService == null){
             throw new NullPointerException("SkinService cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<SkinService>> violations = validator.validate(skinService);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the service cannot be added to the list");
+        if (!ModelValidator.isValid(skinService)) {
             return;
         }
         skinServices.add(skinService);
     }
 
+    // writes every extent in the BinaryExtentStore format, which Java-serialized files from older versions are not
     public static void save(){
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(EXTENT_FILE))) {
-            oos.writeObject(skinServices);
+        try {
+            ExtentPersistence.save(Path.of(EXTENT_FILE));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -64,35 +70,35 @@ public class SkinService extends Service implements Serializable {
     private SkinService() {
     }
 
+    // restores every extent from the file, not only the skin services
     public static void loadExtent() throws IOException, ClassNotFoundException {
-        File file = new File(EXTENT_FILE);
-
-        if (!file.exists()) {
-            throw new FileNotFoundException("Extent file not found: " + EXTENT_FILE);
-        }
+        ExtentPersistence.load(Path.of(EXTENT_FILE));
+    }
 
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(file))) {
-            Object loadedObject = ois.readObject();
+    public static List<SkinService> getSkinServiceList() {
+        return new ArrayList<>(skinServices.snapshot());
+    }
 
-            if (!(loadedObject instanceof ArrayList<?>)) {
-                throw new ClassCastException("Loaded object is not an ArrayList");
-            }
+    public static ExtentView<SkinService> getSkinServiceExtent() {
+        return skinServices;
+    }
 
-            ArrayList<SkinService> loadedList = (ArrayList<SkinService>) loadedObject;
+    @Override
+    protected RatingAggregate getSubtypeRatings() {
+        return skinServices.contains(this) ? skinServiceRatings : null;
+    }
 
-            for (Object obj : loadedList) {
-                if (!(obj instanceof SkinService)) {
-                    throw new ClassCastException("Loaded list contains non-SkinService objects");
-                }
-            }
+    @Override
+    protected void removeFromSubtypeExtent() {
+        skinServices.remove(this);
+    }
 
-            skinServices = new ArrayList<>(loadedList);
-        }
+    public static double getAverageRating() {
+        return skinServiceRatings.getAverage();
     }
 
-    public static List<SkinService> getSkinServiceList() {
-        return new ArrayList<>(skinServices);
+    public static int getTotalRatingCount() {
+        return skinServiceRatings.getCount();
     }
 
     public static void clearExtent() {
@@ -1,13 +1,16 @@
 package com.example.byt.models.services;
 
+import com.example.byt.concurrency.LinkLocks;
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
 import com.example.byt.models.Material;
 import com.example.byt.models.person.Master;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validation;
-import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
+import com.example.byt.persistence.ChangeLog;
+import com.example.byt.validation.ModelValidator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -16,7 +19,12 @@ public class TwoHandsService {
     private Service service;
     private final static int numOfSpecialistsRequired = 1;
 
-    private static List<TwoHandsService> twoHandsServices = new ArrayList<>();
+    private static final Extent<TwoHandsService> twoHandsServices = ExtentRegistry.register(TwoHandsService.class);
+
+    // added default constructor for proper deserialization
+    // made it private on purpose
+    private TwoHandsService() {
+    }
 
     protected TwoHandsService(Service service) {
         this.service = service;
@@ -27,11 +35,7 @@ public class TwoHandsService {
         if (twoHandsService == null){
             throw new NullPointerException("TwoHandsService cannot be null");
         }
-        ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-        Validator validator = factory.getValidator();
-        Set<ConstraintViolation<TwoHandsService>> violations = validator.validate(twoHandsService);
-        if (!violations.isEmpty()) {
-            System.out.println("Validation failed, the service cannot be added to the list");
+        if (!ModelValidator.isValid(twoHandsService)) {
             return;
         }
 
@@ -42,15 +46,22 @@ public class TwoHandsService {
         return numOfSpecialistsRequired;
     }
     public static List<TwoHandsService> getTwoHandsServiceList(){
-        return new ArrayList<>(twoHandsServices);
+        return new ArrayList<>(twoHandsServices.snapshot());
+    }
+
+    public static ExtentView<TwoHandsService> getTwoHandsServiceExtent() {
+        return twoHandsServices;
     }
 
     public void removeFromExtent(){
-        Service service = this.service;
-        this.service = null;
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> Arrays.asList(this, this.service))) {
+            Service service = this.service;
+            this.service = null;
+            ChangeLog.fieldSet(this, "service");
 
-        if (service != null) service.removeRelatedService();
-        twoHandsServices.remove(this);
+            if (service != null) service.removeRelatedService();
+            twoHandsServices.remove(this);
+        }
     }
 
     public static void clearExtent() {
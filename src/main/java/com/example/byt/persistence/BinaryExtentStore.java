@@ -0,0 +1,45 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary snapshot of every registered extent and the objects reachable
+ * from them. Model objects are written once and referenced by id afterwards,
+ * so the association graph is stored without duplication or recursion, and a
+ * load is a single pass over the file.
+ */
+public class BinaryExtentStore implements ExtentStore {
+
+    @Override
+    public void save(OutputStream out) throws IOException {
+        writeSnapshot(out);
+    }
+
+    // returns the ids given to the written objects, which a change log appended later refers to
+    static Map<Object, Integer> writeSnapshot(OutputStream out) throws IOException {
+        GraphWriter writer = new GraphWriter(out);
+        writer.writeHeader();
+        for (ExtentView<?> extent : ExtentRegistry.getExtents()) {
+            writer.writeExtent(extent.getType(), extent.snapshot());
+        }
+        writer.writePendingObjects();
+        writer.writeEnd();
+        writer.flush();
+        return writer.getObjectIds();
+    }
+
+    @Override
+    public void load(InputStream in) throws IOException {
+        GraphReader reader = new GraphReader(in);
+        reader.readHeader();
+        Map<Class<?>, Set<Object>> extents = reader.readAll();
+        ExtentRegistry.restore(extents);
+    }
+}
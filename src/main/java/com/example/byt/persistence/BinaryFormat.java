@@ -0,0 +1,58 @@
+package com.example.byt.persistence;
+
+final class BinaryFormat {
+
+    static final int MAGIC = 0x42595445;
+    static final int VERSION = 1;
+
+    static final int LOG_MAGIC = 0x4259544C;
+
+    static final int MAPPED_MAGIC = 0x4259544D;
+
+    // mapped files of VERSION have no header fields in front of the records of lazily loaded objects
+    static final int MAPPED_VERSION = 2;
+
+    static final byte RECORD_EXTENT = 1;
+    static final byte RECORD_OBJECT = 2;
+    static final byte RECORD_END = 3;
+    static final byte RECORD_EXTENT_ADD = 4;
+    static final byte RECORD_EXTENT_REMOVE = 5;
+    static final byte RECORD_EXTENT_CLEAR = 6;
+    static final byte RECORD_ELEMENT_ADD = 7;
+    static final byte RECORD_ELEMENT_REMOVE = 8;
+    static final byte RECORD_ENTRY_PUT = 9;
+    static final byte RECORD_ENTRY_REMOVE = 10;
+    static final byte RECORD_FIELD_SET = 11;
+
+    // classes below this package are written field by field; other classes are JDK collections, maps and enums
+    static final String MODEL_PACKAGE = "com.example.byt.models.";
+
+    static final byte KIND_ENTITY = 1;
+    static final byte KIND_VALUE = 2;
+    static final byte KIND_ENUM = 3;
+    static final byte KIND_COLLECTION = 4;
+    static final byte KIND_MAP = 5;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_FALSE = 1;
+    static final byte TAG_TRUE = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_DOUBLE = 5;
+    static final byte TAG_FLOAT = 6;
+    static final byte TAG_SHORT = 7;
+    static final byte TAG_BYTE = 8;
+    static final byte TAG_CHAR = 9;
+    static final byte TAG_STRING = 10;
+    static final byte TAG_DATE = 11;
+    static final byte TAG_DATE_TIME = 12;
+    static final byte TAG_ENUM = 13;
+    static final byte TAG_REF = 14;
+    static final byte TAG_NEW = 15;
+    static final byte TAG_VALUE = 16;
+    static final byte TAG_COLLECTION = 17;
+    static final byte TAG_MAP = 18;
+
+    private BinaryFormat() {
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.byt.persistence;
+
+/**
+ * Entry point through which model classes report changes to their own fields.
+ * Field names are the plain Java names; the calls are forwarded to the open
+ * write-ahead log and cost a single volatile read when none is open.
+ */
+public final class ChangeLog {
+
+    private static volatile WriteAheadLog log;
+
+    private ChangeLog() {
+    }
+
+    public static void elementAdded(Object owner, String field, Object element) {
+        WriteAheadLog current = log;
+        if (current != null) {
+            current.elementAdded(owner, field, element);
+        }
+    }
+
+    public static void elementRemoved(Object owner, String field, Object element) {
+        WriteAheadLog current = log;
+        if (current != null) {
+            current.elementRemoved(owner, field, element);
+        }
+    }
+
+    public static void entryPut(Object owner, String field, Object key, Object value) {
+        WriteAheadLog current = log;
+        if (current != null) {
+            current.entryPut(owner, field, key, value);
+        }
+    }
+
+    public static void entryRemoved(Object owner, String field, Object key) {
+        WriteAheadLog current = log;
+        if (current != null) {
+            current.entryRemoved(owner, field, key);
+        }
+    }
+
+    // the new value is read when the change is committed
+    public static void fieldSet(Object owner, String field) {
+        WriteAheadLog current = log;
+        if (current != null) {
+            current.fieldSet(owner, field);
+        }
+    }
+
+    public static boolean isRecording() {
+        return log != null;
+    }
+
+    static synchronized void attach(WriteAheadLog newLog) {
+        if (log != null) {
+            throw new IllegalStateException("Another write-ahead log is already open");
+        }
+        log = newLog;
+    }
+
+    static synchronized void detach(WriteAheadLog oldLog) {
+        if (log == oldLog) {
+            log = null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.byt.persistence;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// persistent (non-static, non-transient) fields of a class, superclass fields first
+final class ClassLayout {
+
+    private static final Map<Class<?>, ClassLayout> layouts = new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+
+    private final List<Field> fields;
+
+    private final List<String> fieldNames;
+
+    private final Map<String, Field> fieldsByName;
+
+    // transient MappedSource field of classes that load lazily from a mapped extent file
+    private final Field sourceField;
+
+    // positions in fields of the fields marked MappedHeader
+    private final int[] headerIndexes;
+
+    private Constructor<?> constructor;
+
+    private ClassLayout(Class<?> type) {
+        this.type = type;
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        List<Field> fields = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Map<String, Field> byName = new HashMap<>();
+        Field source = null;
+        List<Integer> header = new ArrayList<>();
+        for (Class<?> declaring : hierarchy) {
+            for (Field field : declaring.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isTransient(modifiers) && field.getType() == MappedSource.class) {
+                    field.setAccessible(true);
+                    source = field;
+                    continue;
+                }
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String name = declaring.getSimpleName() + "." + field.getName();
+                if (field.isAnnotationPresent(MappedHeader.class)) {
+                    header.add(fields.size());
+                }
+                fields.add(field);
+                names.add(name);
+                byName.put(name, field);
+            }
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.fieldNames = Collections.unmodifiableList(names);
+        this.fieldsByName = byName;
+        this.sourceField = source;
+        this.headerIndexes = header.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static ClassLayout of(Class<?> type) {
+        return layouts.computeIfAbsent(type, ClassLayout::new);
+    }
+
+    List<Field> getFields() {
+        return fields;
+    }
+
+    List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    Field getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    boolean isLazy() {
+        return sourceField != null;
+    }
+
+    Field getSourceField() {
+        return sourceField;
+    }
+
+    int[] getHeaderIndexes() {
+        return headerIndexes;
+    }
+
+    // reads the fields of a lazily loaded object in, so that they can be accessed reflectively
+    void materialize(Object object) throws IOException {
+        if (sourceField == null) {
+            return;
+        }
+        MappedSource source;
+        try {
+            source = (MappedSource) sourceField.get(object);
+        } catch (IllegalAccessException e) {
+            throw new IOException("Cannot read field " + sourceField, e);
+        }
+        if (source != null) {
+            source.load(object);
+        }
+    }
+
+    // resolves an unqualified field name, preferring the most derived declaration
+    String qualify(String fieldName) {
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            if (fields.get(i).getName().equals(fieldName)) {
+                return fieldNames.get(i);
+            }
+        }
+        throw new IllegalArgumentException("No persistent field " + fieldName + " in " + type.getName());
+    }
+
+    // model classes keep a no-arg constructor for deserialization; it does not register the instance anywhere
+    Object newInstance() throws ReflectiveOperationException {
+        Constructor<?> current = constructor;
+        if (current == null) {
+            current = type.getDeclaredConstructor();
+            current.setAccessible(true);
+            constructor = current;
+        }
+        return current.newInstance();
+    }
+}
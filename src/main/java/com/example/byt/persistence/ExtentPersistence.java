@@ -0,0 +1,49 @@
+package com.example.byt.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public final class ExtentPersistence {
+
+    private static volatile ExtentStore store = new BinaryExtentStore();
+
+    private ExtentPersistence() {
+    }
+
+    public static ExtentStore getStore() {
+        return store;
+    }
+
+    public static void setStore(ExtentStore newStore) {
+        if (newStore == null) {
+            throw new IllegalArgumentException("Store cannot be null");
+        }
+        store = newStore;
+    }
+
+    // writes to a temporary file first so a failed save never truncates the previous one
+    public static void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                store.save(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static void load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            throw new FileNotFoundException("Extent file not found: " + file);
+        }
+        store.load(file);
+    }
+}
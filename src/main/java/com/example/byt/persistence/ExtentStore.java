@@ -0,0 +1,24 @@
+package com.example.byt.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// a storage format for the whole set of registered extents
+public interface ExtentStore {
+
+    void save(OutputStream out) throws IOException;
+
+    // replaces the contents of every registered extent with the stored ones
+    void load(InputStream in) throws IOException;
+
+    // stores that can work on the file directly (e.g. by mapping it) override this
+    default void load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            load(in);
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.Extent;
+import com.example.byt.extent.ExtentRegistry;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.byt.persistence.BinaryFormat.*;
+
+final class GraphReader {
+
+    private final DataInputStream in;
+
+    private final List<ClassDef> classes;
+
+    private final List<String> names = new ArrayList<>();
+
+    // indexed by object id; may be shared by several readers, see GraphWriter
+    private final List<Object> objects;
+
+    // objects created by this reader whose fields have not been read yet
+    private final Map<Object, ClassDef> unfilled = new IdentityHashMap<>();
+
+    GraphReader(InputStream in) {
+        this(in, new ArrayList<>());
+    }
+
+    GraphReader(InputStream in, List<Object> objects) {
+        this(in, objects, new ArrayList<>());
+    }
+
+    // reads a stream whose classes were defined up front by a class table
+    GraphReader(InputStream in, List<Object> objects, List<ClassDef> classes) {
+        this.in = new DataInputStream(in);
+        this.objects = objects;
+        this.classes = classes;
+    }
+
+    List<ClassDef> readClassTable() throws IOException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            readClassDefinition();
+        }
+        return classes;
+    }
+
+    ClassDef classAt(int id) throws IOException {
+        if (id < 0 || id >= classes.size()) {
+            throw new StreamCorruptedException("Unknown class index " + id);
+        }
+        return classes.get(id);
+    }
+
+    void readObjectFields(Object object, ClassDef def) throws IOException {
+        readFields(object, def);
+    }
+
+    // reads what GraphWriter.writeHeaderFields wrote
+    void readHeaderFields(Object object, ClassDef def) throws IOException {
+        int count = readVarInt();
+        for (int i = 0; i < count; i++) {
+            int index = readVarInt();
+            if (index >= def.fields.length) {
+                throw new StreamCorruptedException("Unknown header field " + index + " of " + def.type.getName());
+            }
+            setField(object, def, def.fields[index], readValue());
+        }
+    }
+
+    List<Object> getObjects() {
+        return objects;
+    }
+
+    void readHeader() throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not an extent file");
+        }
+        int version = readVarInt();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported extent file version " + version);
+        }
+    }
+
+    Map<Class<?>, Set<Object>> readAll() throws IOException {
+        Map<Class<?>, Set<Object>> extents = new LinkedHashMap<>();
+        readRecords(extents);
+        return extents;
+    }
+
+    // applies records up to the end record to the given extents and to the objects read so far
+    void readRecords(Map<Class<?>, Set<Object>> extents) throws IOException {
+        while (true) {
+            byte record = in.readByte();
+            switch (record) {
+                case RECORD_EXTENT -> {
+                    ClassDef def = readClass();
+                    int size = readVarInt();
+                    Set<Object> elements = new LinkedHashSet<>();
+                    for (int i = 0; i < size; i++) {
+                        elements.add(readValue());
+                    }
+                    extents.put(def.type, elements);
+                }
+                case RECORD_OBJECT -> {
+                    int id = readVarInt();
+                    Object object = id < objects.size() ? objects.get(id) : null;
+                    ClassDef def = object == null ? null : unfilled.remove(object);
+                    if (def == null) {
+                        throw new StreamCorruptedException("Fields of unknown object " + id);
+                    }
+                    readFields(object, def);
+                }
+                case RECORD_EXTENT_ADD, RECORD_EXTENT_REMOVE, RECORD_EXTENT_CLEAR -> {
+                    Set<Object> extent = extents.computeIfAbsent(readClass().type, type -> new LinkedHashSet<>());
+                    if (record == RECORD_EXTENT_CLEAR) {
+                        extent.clear();
+                    } else if (record == RECORD_EXTENT_ADD) {
+                        extent.add(readValue());
+                    } else {
+                        extent.remove(readValue());
+                    }
+                }
+                case RECORD_ELEMENT_ADD, RECORD_ELEMENT_REMOVE, RECORD_ENTRY_PUT, RECORD_ENTRY_REMOVE, RECORD_FIELD_SET ->
+                        readFieldRecord(record);
+                case RECORD_END -> {
+                    if (!unfilled.isEmpty()) {
+                        throw new StreamCorruptedException("Missing fields for " + unfilled.size() + " objects");
+                    }
+                    return;
+                }
+                default -> throw new StreamCorruptedException("Unknown record type " + record);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readFieldRecord(byte record) throws IOException {
+        Object owner = readValue();
+        String name = readName();
+        Object first = readValue();
+        Object second = record == RECORD_ENTRY_PUT ? readValue() : null;
+        if (owner == null) {
+            throw new StreamCorruptedException("Change without an owner");
+        }
+        // the fields of an object created in the same batch follow in full, and fields that no longer exist are skipped
+        Field field = ClassLayout.of(owner.getClass()).getField(name);
+        if (unfilled.containsKey(owner) || field == null) {
+            return;
+        }
+        try {
+            switch (record) {
+                case RECORD_FIELD_SET -> field.set(owner, first);
+                case RECORD_ELEMENT_ADD -> ((Collection<Object>) field.get(owner)).add(first);
+                case RECORD_ELEMENT_REMOVE -> ((Collection<Object>) field.get(owner)).remove(first);
+                case RECORD_ENTRY_PUT -> ((Map<Object, Object>) field.get(owner)).put(first, second);
+                default -> ((Map<Object, Object>) field.get(owner)).remove(first);
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new InvalidClassException(owner.getClass().getName(), "Cannot apply change to field " + name);
+        }
+    }
+
+    private String readName() throws IOException {
+        int id = readVarInt();
+        if (id < names.size()) {
+            return names.get(id);
+        }
+        if (id != names.size()) {
+            throw new StreamCorruptedException("Unexpected name index " + id);
+        }
+        String name = readString();
+        names.add(name);
+        return name;
+    }
+
+    private void readFields(Object object, ClassDef def) throws IOException {
+        for (Field field : def.fields) {
+            setField(object, def, field, readValue());
+        }
+    }
+
+    private static void setField(Object object, ClassDef def, Field field, Object value) throws IOException {
+        // fields that no longer exist in the class are skipped
+        if (field == null) {
+            return;
+        }
+        try {
+            field.set(object, value);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new InvalidClassException(def.type.getName(), "Cannot restore field " + field.getName());
+        }
+    }
+
+    private Object readValue() throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case TAG_NULL -> null;
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_INT -> (int) unZigZag(readVarLong());
+            case TAG_LONG -> unZigZag(readVarLong());
+            case TAG_DOUBLE -> in.readDouble();
+            case TAG_FLOAT -> in.readFloat();
+            case TAG_SHORT -> in.readShort();
+            case TAG_BYTE -> in.readByte();
+            case TAG_CHAR -> in.readChar();
+            case TAG_STRING -> readString();
+            case TAG_DATE -> LocalDate.ofEpochDay(unZigZag(readVarLong()));
+            case TAG_DATE_TIME -> LocalDateTime.of(
+                    LocalDate.ofEpochDay(unZigZag(readVarLong())),
+                    LocalTime.ofNanoOfDay(readVarLong()));
+            case TAG_ENUM -> {
+                ClassDef def = readClass();
+                int index = readVarInt();
+                if (index >= def.enumConstants.length || def.enumConstants[index] == null) {
+                    throw new InvalidClassException(def.type.getName(), "Unknown enum constant");
+                }
+                yield def.enumConstants[index];
+            }
+            case TAG_REF -> {
+                int id = readVarInt();
+                if (id >= objects.size()) {
+                    throw new StreamCorruptedException("Reference to unknown object " + id);
+                }
+                yield objects.get(id);
+            }
+            case TAG_NEW -> {
+                ClassDef def = readClass();
+                Object object = def.newInstance();
+                objects.add(object);
+                unfilled.put(object, def);
+                yield object;
+            }
+            case TAG_VALUE -> {
+                ClassDef def = readClass();
+                Object object = def.newInstance();
+                readFields(object, def);
+                yield object;
+            }
+            case TAG_COLLECTION -> {
+                ClassDef def = readClass();
+                int size = readVarInt();
+                Collection<Object> collection = def.newCollection();
+                for (int i = 0; i < size; i++) {
+                    collection.add(readValue());
+                }
+                yield collection;
+            }
+            case TAG_MAP -> {
+                ClassDef def = readClass();
+                int size = readVarInt();
+                Map<Object, Object> map = def.newMap();
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue();
+                    map.put(key, readValue());
+                }
+                yield map;
+            }
+            default -> throw new StreamCorruptedException("Unknown value tag " + tag);
+        };
+    }
+
+    private ClassDef readClass() throws IOException {
+        int id = readVarInt();
+        if (id < classes.size()) {
+            return classes.get(id);
+        }
+        if (id != classes.size()) {
+            throw new StreamCorruptedException("Unexpected class index " + id);
+        }
+        return readClassDefinition();
+    }
+
+    private ClassDef readClassDefinition() throws IOException {
+        String name = readString();
+        byte kind = in.readByte();
+        Class<?> type = resolveClass(name, kind);
+        ClassDef def = new ClassDef(type);
+        if (kind == KIND_ENTITY || kind == KIND_VALUE) {
+            ClassLayout layout = ClassLayout.of(type);
+            def.fields = new Field[readVarInt()];
+            for (int i = 0; i < def.fields.length; i++) {
+                def.fields[i] = layout.getField(readString());
+            }
+            def.layout = layout;
+        } else if (kind == KIND_ENUM) {
+            def.enumConstants = new Object[readVarInt()];
+            for (int i = 0; i < def.enumConstants.length; i++) {
+                def.enumConstants[i] = enumConstant(type, readString());
+            }
+        }
+        classes.add(def);
+        return def;
+    }
+
+    // accepts only the kinds of classes GraphWriter writes: registered model types, model values, enums and JDK
+    // collections and maps. A class is loaded without running its static initialiser until it has passed
+    // that check, so a file cannot make the reader initialise arbitrary classes
+    private static Class<?> resolveClass(String name, byte kind) throws IOException {
+        ClassLoader loader = GraphReader.class.getClassLoader();
+        Class<?> type;
+        try {
+            type = Class.forName(name, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new InvalidClassException(name, "Class not found");
+        }
+        boolean model = name.startsWith(MODEL_PACKAGE);
+        boolean accepted = switch (kind) {
+            case KIND_ENTITY -> model && declaresExtent(type);
+            case KIND_VALUE -> model && !type.isInterface() && !type.isEnum();
+            case KIND_ENUM -> type.isEnum() && (model || name.startsWith("java."));
+            case KIND_COLLECTION -> Collection.class.isAssignableFrom(type) && name.startsWith("java.util.");
+            case KIND_MAP -> Map.class.isAssignableFrom(type) && name.startsWith("java.util.");
+            default -> false;
+        };
+        if (!accepted) {
+            throw new InvalidClassException(name, "Not a persistent class");
+        }
+        if (model) {
+            try {
+                // model classes register their extents while they are initialised
+                type = Class.forName(name, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new InvalidClassException(name, "Class cannot be initialised");
+            }
+        }
+        if (kind == KIND_ENTITY && !ExtentRegistry.isRegisteredType(type)) {
+            throw new InvalidClassException(name, "Not a registered model class");
+        }
+        return type;
+    }
+
+    // model classes keep their extent in a static Extent field, which is visible before the class is initialised
+    private static boolean declaresExtent(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == Extent.class) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Object enumConstant(Class<?> type, String name) {
+        for (Object constant : type.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length number");
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static final class ClassDef {
+
+        private final Class<?> type;
+
+        private Field[] fields;
+
+        private ClassLayout layout;
+
+        private Object[] enumConstants;
+
+        private Constructor<?> constructor;
+
+        private boolean constructorResolved;
+
+        private ClassDef(Class<?> type) {
+            this.type = type;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        Object newInstance() throws IOException {
+            try {
+                return layout.newInstance();
+            } catch (ReflectiveOperationException | NullPointerException e) {
+                throw new InvalidClassException(type.getName(), "No usable no-arg constructor");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Collection<Object> newCollection() {
+            Object collection = instantiate();
+            if (collection instanceof Collection<?>) {
+                return (Collection<Object>) collection;
+            }
+            if (ConcurrentHashMap.KeySetView.class.isAssignableFrom(type)) {
+                return ConcurrentHashMap.newKeySet();
+            }
+            // immutable and other constructor-less collections come back as their mutable counterparts
+            return Set.class.isAssignableFrom(type) ? new HashSet<>() : new ArrayList<>();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<Object, Object> newMap() {
+            Object map = instantiate();
+            return map instanceof Map<?, ?> ? (Map<Object, Object>) map : new LinkedHashMap<>();
+        }
+
+        private Object instantiate() {
+            if (!constructorResolved) {
+                try {
+                    constructor = type.getConstructor();
+                } catch (NoSuchMethodException | SecurityException e) {
+                    constructor = null;
+                }
+                constructorResolved = true;
+            }
+            if (constructor == null) {
+                return null;
+            }
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentRegistry;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.byt.persistence.BinaryFormat.*;
+
+final class GraphWriter {
+
+    private final DataOutputStream out;
+
+    private final Map<Class<?>, Integer> classIds;
+
+    private final List<Class<?>> classOrder;
+
+    private final List<Byte> classKinds;
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    // may be shared by several writers, so that ids stay stable across the snapshot and the change log
+    private final Map<Object, Integer> objectIds;
+
+    // the reader's count of objects; ids dropped from objectIds are not handed out again
+    private int nextId;
+
+    // objects that have an id but whose fields are not written yet
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+
+    private final List<Object> assigned = new ArrayList<>();
+
+    GraphWriter(OutputStream out) {
+        this(out, new IdentityHashMap<>(), 0);
+    }
+
+    GraphWriter(OutputStream out, Map<Object, Integer> objectIds, int nextId) {
+        this.out = new DataOutputStream(out);
+        this.objectIds = objectIds;
+        this.nextId = nextId;
+        this.classIds = new HashMap<>();
+        this.classOrder = new ArrayList<>();
+        this.classKinds = new ArrayList<>();
+    }
+
+    // continues with the objects and classes another writer has numbered; classes are then written by index only
+    GraphWriter(OutputStream out, GraphWriter numbered) {
+        this.out = new DataOutputStream(out);
+        this.objectIds = numbered.objectIds;
+        this.nextId = numbered.nextId;
+        this.classIds = new HashMap<>(numbered.classIds);
+        this.classOrder = new ArrayList<>(numbered.classOrder);
+        this.classKinds = new ArrayList<>(numbered.classKinds);
+    }
+
+    // objects in id order
+    List<Object> getObjects() {
+        Object[] objects = new Object[nextId];
+        for (Map.Entry<Object, Integer> entry : objectIds.entrySet()) {
+            objects[entry.getValue()] = entry.getKey();
+        }
+        return Arrays.asList(objects);
+    }
+
+    int getClassId(Class<?> type) {
+        return classIds.get(type);
+    }
+
+    int size() {
+        return out.size();
+    }
+
+    void writeClassTable() throws IOException {
+        writeVarInt(classOrder.size());
+        for (int i = 0; i < classOrder.size(); i++) {
+            writeClassDefinition(classOrder.get(i), classKinds.get(i));
+        }
+    }
+
+    void writeObjectFields(Object object) throws IOException {
+        writeFields(object);
+    }
+
+    // the MappedHeader fields of the object, each as its position in the class definition and its value
+    void writeHeaderFields(Object object) throws IOException {
+        ClassLayout layout = ClassLayout.of(object.getClass());
+        layout.materialize(object);
+        int[] header = layout.getHeaderIndexes();
+        writeVarInt(header.length);
+        for (int index : header) {
+            Field field = layout.getFields().get(index);
+            writeVarInt(index);
+            try {
+                writeValue(field.get(object));
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot read field " + field, e);
+            }
+        }
+    }
+
+    Map<Object, Integer> getObjectIds() {
+        return objectIds;
+    }
+
+    int getNextId() {
+        return nextId;
+    }
+
+    // drops the ids handed out by this writer, for output that never reached its destination
+    void forgetAssignedIds() {
+        for (Object object : assigned) {
+            objectIds.remove(object);
+        }
+        nextId -= assigned.size();
+        assigned.clear();
+        pending.clear();
+    }
+
+    void writeHeader() throws IOException {
+        out.writeInt(MAGIC);
+        writeVarInt(VERSION);
+    }
+
+    void writeInt(int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    void writeExtent(Class<?> type, List<?> elements) throws IOException {
+        out.writeByte(RECORD_EXTENT);
+        writeClass(type, KIND_ENTITY);
+        writeVarInt(elements.size());
+        for (Object element : elements) {
+            writeReference(element);
+        }
+    }
+
+    void writeExtentChange(byte record, Class<?> type, Object element) throws IOException {
+        out.writeByte(record);
+        writeClass(type, KIND_ENTITY);
+        if (record != RECORD_EXTENT_CLEAR) {
+            writeReference(element);
+        }
+    }
+
+    void writeElementChange(byte record, Object owner, String field, Object element) throws IOException {
+        writeFieldRecord(record, owner, field);
+        writeValue(element);
+    }
+
+    void writeEntryPut(Object owner, String field, Object key, Object value) throws IOException {
+        writeFieldRecord(RECORD_ENTRY_PUT, owner, field);
+        writeValue(key);
+        writeValue(value);
+    }
+
+    void writeEntryRemove(Object owner, String field, Object key) throws IOException {
+        writeFieldRecord(RECORD_ENTRY_REMOVE, owner, field);
+        writeValue(key);
+    }
+
+    void writeFieldSet(Object owner, String field) throws IOException {
+        writeFieldRecord(RECORD_FIELD_SET, owner, field);
+        ClassLayout layout = ClassLayout.of(owner.getClass());
+        layout.materialize(owner);
+        Field target = layout.getField(field);
+        try {
+            writeValue(target.get(owner));
+        } catch (IllegalAccessException e) {
+            throw new IOException("Cannot read field " + target, e);
+        }
+    }
+
+    private void writeFieldRecord(byte record, Object owner, String field) throws IOException {
+        out.writeByte(record);
+        writeReference(owner);
+        Integer id = nameIds.get(field);
+        if (id != null) {
+            writeVarInt(id);
+            return;
+        }
+        id = nameIds.size();
+        nameIds.put(field, id);
+        writeVarInt(id);
+        writeString(field);
+    }
+
+    void writePendingObjects() throws IOException {
+        while (!pending.isEmpty()) {
+            Object object = pending.poll();
+            out.writeByte(RECORD_OBJECT);
+            writeVarInt(objectIds.get(object));
+            writeFields(object);
+        }
+    }
+
+    void writeEnd() throws IOException {
+        out.writeByte(RECORD_END);
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeFields(Object object) throws IOException {
+        ClassLayout layout = ClassLayout.of(object.getClass());
+        layout.materialize(object);
+        for (Field field : layout.getFields()) {
+            try {
+                writeValue(field.get(object));
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot read field " + field, e);
+            }
+        }
+    }
+
+    private void writeReference(Object object) throws IOException {
+        Integer id = objectIds.get(object);
+        if (id != null) {
+            out.writeByte(TAG_REF);
+            writeVarInt(id);
+            return;
+        }
+        // the id of a new object is implicit: the reader numbers objects in the order it first sees them
+        objectIds.put(object, nextId++);
+        assigned.add(object);
+        pending.add(object);
+        out.writeByte(TAG_NEW);
+        writeClass(object.getClass(), KIND_ENTITY);
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer i) {
+            out.writeByte(TAG_INT);
+            writeVarLong(zigZag(i));
+        } else if (value instanceof Long l) {
+            out.writeByte(TAG_LONG);
+            writeVarLong(zigZag(l));
+        } else if (value instanceof Double d) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Float f) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat(f);
+        } else if (value instanceof Short s) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort(s);
+        } else if (value instanceof Byte b) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte(b);
+        } else if (value instanceof Character c) {
+            out.writeByte(TAG_CHAR);
+            out.writeChar(c);
+        } else if (value instanceof String s) {
+            out.writeByte(TAG_STRING);
+            writeString(s);
+        } else if (value instanceof LocalDate date) {
+            out.writeByte(TAG_DATE);
+            writeVarLong(zigZag(date.toEpochDay()));
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(TAG_DATE_TIME);
+            writeVarLong(zigZag(dateTime.toLocalDate().toEpochDay()));
+            writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (value instanceof Enum<?> constant) {
+            out.writeByte(TAG_ENUM);
+            writeClass(constant.getDeclaringClass(), KIND_ENUM);
+            writeVarInt(constant.ordinal());
+        } else if (ExtentRegistry.isRegisteredType(value.getClass())) {
+            writeReference(value);
+        } else if (value instanceof Collection<?> collection) {
+            out.writeByte(TAG_COLLECTION);
+            writeClass(collection.getClass(), KIND_COLLECTION);
+            writeVarInt(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(TAG_MAP);
+            writeClass(map.getClass(), KIND_MAP);
+            writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        } else if (value.getClass().getName().startsWith(MODEL_PACKAGE)) {
+            out.writeByte(TAG_VALUE);
+            writeClass(value.getClass(), KIND_VALUE);
+            writeFields(value);
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    // a class is described in full the first time it is used and referenced by index afterwards
+    private void writeClass(Class<?> type, byte kind) throws IOException {
+        Integer id = classIds.get(type);
+        if (id != null) {
+            writeVarInt(id);
+            return;
+        }
+        id = classIds.size();
+        classIds.put(type, id);
+        classOrder.add(type);
+        classKinds.add(kind);
+        writeVarInt(id);
+        writeClassDefinition(type, kind);
+    }
+
+    private void writeClassDefinition(Class<?> type, byte kind) throws IOException {
+        writeString(type.getName());
+        out.writeByte(kind);
+        if (kind == KIND_ENTITY || kind == KIND_VALUE) {
+            List<String> names = ClassLayout.of(type).getFieldNames();
+            writeVarInt(names.size());
+            for (String name : names) {
+                writeString(name);
+            }
+        } else if (kind == KIND_ENUM) {
+            Object[] constants = type.getEnumConstants();
+            writeVarInt(constants.length);
+            for (Object constant : constants) {
+                writeString(((Enum<?>) constant).name());
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
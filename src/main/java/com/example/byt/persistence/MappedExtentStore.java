@@ -0,0 +1,223 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.byt.persistence.BinaryFormat.*;
+
+/**
+ * Read-optimized variant of the binary format for fast startup. Every object
+ * is written as a record of its own, followed by the class table, the object
+ * table and the extents, so a file can be memory-mapped and each object
+ * decoded independently. Classes that declare a transient {@link MappedSource}
+ * field (the appointment history) come back as empty instances that read
+ * their fields on first use; everything else is decoded during the load.
+ * The {@link MappedHeader} fields of a lazily loaded object are written in
+ * front of its record and are set during the load as well.
+ */
+public class MappedExtentStore implements ExtentStore {
+
+    // offset of the tables, object count, magic and version
+    private static final int FOOTER_SIZE = 16;
+
+    private static final int HEADER_SIZE = 4;
+
+    @Override
+    public void save(OutputStream out) throws IOException {
+        List<ExtentView<?>> extents = ExtentRegistry.getExtents();
+        List<List<?>> contents = new ArrayList<>(extents.size());
+        // a first pass numbers every reachable object and class without keeping the output
+        GraphWriter numbering = new GraphWriter(OutputStream.nullOutputStream());
+        for (ExtentView<?> extent : extents) {
+            List<?> elements = extent.snapshot();
+            contents.add(elements);
+            numbering.writeExtent(extent.getType(), elements);
+        }
+        numbering.writePendingObjects();
+
+        GraphWriter writer = new GraphWriter(out, numbering);
+        writer.writeInt(MAPPED_MAGIC);
+        List<Object> objects = writer.getObjects();
+        int[] offsets = new int[objects.size()];
+        for (int id = 0; id < objects.size(); id++) {
+            offsets[id] = writer.size();
+            if (ClassLayout.of(objects.get(id).getClass()).isLazy()) {
+                writer.writeHeaderFields(objects.get(id));
+            }
+            writer.writeObjectFields(objects.get(id));
+        }
+        int tables = writer.size();
+        writer.writeClassTable();
+        int previous = 0;
+        for (int id = 0; id < objects.size(); id++) {
+            writer.writeVarInt(writer.getClassId(objects.get(id).getClass()));
+            writer.writeVarInt(offsets[id] - previous);
+            previous = offsets[id];
+        }
+        for (int i = 0; i < extents.size(); i++) {
+            writer.writeExtent(extents.get(i).getType(), contents.get(i));
+        }
+        writer.writeEnd();
+        writer.writeInt(tables);
+        writer.writeInt(objects.size());
+        writer.writeInt(MAPPED_MAGIC);
+        writer.writeInt(MAPPED_VERSION);
+        writer.flush();
+        // DataOutputStream stops counting at Integer.MAX_VALUE
+        if (writer.size() == Integer.MAX_VALUE) {
+            throw new IOException("Extents are too large for a mapped extent file");
+        }
+    }
+
+    @Override
+    public void load(InputStream in) throws IOException {
+        load(ByteBuffer.wrap(in.readAllBytes()));
+    }
+
+    // maps the file instead of reading it; lazily loaded objects keep the mapping alive
+    @Override
+    public void load(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Extent file too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        load(buffer);
+    }
+
+    private void load(ByteBuffer buffer) throws IOException {
+        int limit = buffer.limit();
+        if (limit < HEADER_SIZE + FOOTER_SIZE || buffer.getInt(0) != MAPPED_MAGIC
+                || buffer.getInt(limit - 8) != MAPPED_MAGIC) {
+            throw new StreamCorruptedException("Not a mapped extent file");
+        }
+        int version = buffer.getInt(limit - 4);
+        if (version != VERSION && version != MAPPED_VERSION) {
+            throw new StreamCorruptedException("Unsupported extent file version " + version);
+        }
+        int tables = buffer.getInt(limit - FOOTER_SIZE);
+        int count = buffer.getInt(limit - FOOTER_SIZE + 4);
+        if (tables < HEADER_SIZE || tables > limit - FOOTER_SIZE || count < 0) {
+            throw new StreamCorruptedException("Corrupted mapped extent file");
+        }
+
+        List<Object> objects = new ArrayList<>(count);
+        Mapping mapping = new Mapping(buffer, tables, objects);
+        GraphReader tableReader = new GraphReader(new BufferInputStream(buffer, tables, limit - FOOTER_SIZE),
+                objects, mapping.classes);
+        tableReader.readClassTable();
+        int[] offsets = new int[count];
+        GraphReader.ClassDef[] defs = new GraphReader.ClassDef[count];
+        int offset = 0;
+        for (int id = 0; id < count; id++) {
+            defs[id] = tableReader.classAt(tableReader.readVarInt());
+            offset += tableReader.readVarInt();
+            if (offset < HEADER_SIZE || offset >= tables) {
+                throw new StreamCorruptedException("Object " + id + " outside the object region");
+            }
+            offsets[id] = offset;
+            objects.add(defs[id].newInstance());
+        }
+        Map<Class<?>, Set<Object>> extents = tableReader.readAll();
+
+        // eager objects and the headers of lazy ones are decoded before the restore, since restore listeners
+        // may read them
+        boolean headers = version == MAPPED_VERSION;
+        BufferInputStream objectStream = new BufferInputStream(buffer, HEADER_SIZE, tables);
+        GraphReader objectReader = new GraphReader(objectStream, objects, mapping.classes);
+        for (int id = 0; id < count; id++) {
+            Object object = objects.get(id);
+            ClassLayout layout = ClassLayout.of(defs[id].getType());
+            objectStream.seek(offsets[id]);
+            if (!layout.isLazy()) {
+                objectReader.readObjectFields(object, defs[id]);
+                continue;
+            }
+            if (headers) {
+                objectReader.readHeaderFields(object, defs[id]);
+            }
+            try {
+                layout.getSourceField().set(object, new MappedSource(mapping, objectStream.position, defs[id]));
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot access field " + layout.getSourceField(), e);
+            }
+        }
+        ExtentRegistry.restore(extents);
+    }
+
+    // the mapped file shared by the objects still waiting to be loaded from it
+    static final class Mapping {
+
+        private final ByteBuffer buffer;
+
+        private final int tables;
+
+        private final List<Object> objects;
+
+        private final List<GraphReader.ClassDef> classes = new ArrayList<>();
+
+        private Mapping(ByteBuffer buffer, int tables, List<Object> objects) {
+            this.buffer = buffer;
+            this.tables = tables;
+            this.objects = objects;
+        }
+
+        GraphReader reader(int offset) {
+            return new GraphReader(new BufferInputStream(buffer, offset, tables), objects, classes);
+        }
+    }
+
+    // reads through absolute positions, so several streams can share one buffer
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private final int limit;
+
+        private int position;
+
+        private BufferInputStream(ByteBuffer buffer, int position, int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        private void seek(int position) {
+            this.position = position;
+        }
+
+        @Override
+        public int read() {
+            return position < limit ? buffer.get(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= limit) {
+                return -1;
+            }
+            int n = Math.min(len, limit - position);
+            buffer.get(position, bytes, off, n);
+            position += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.byt.persistence;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of a lazily loaded class that {@link MappedExtentStore} writes
+ * in front of the object's record and sets during the load, so that indexes
+ * can be rebuilt from it without reading the rest of the object. Meant for
+ * small values such as dates and enum constants.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface MappedHeader {
+}
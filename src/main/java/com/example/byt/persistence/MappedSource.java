@@ -0,0 +1,50 @@
+package com.example.byt.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+
+/**
+ * Location of the fields of an object restored by {@link MappedExtentStore}
+ * that have not been read yet. A class opts in to lazy loading by declaring a
+ * transient field of this type and calling {@link #materialize} before it
+ * touches its other fields.
+ */
+public final class MappedSource {
+
+    private final MappedExtentStore.Mapping mapping;
+
+    private final int offset;
+
+    private final GraphReader.ClassDef def;
+
+    MappedSource(MappedExtentStore.Mapping mapping, int offset, GraphReader.ClassDef def) {
+        this.mapping = mapping;
+        this.offset = offset;
+        this.def = def;
+    }
+
+    public void materialize(Object entity) {
+        try {
+            load(entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load " + entity.getClass().getSimpleName() + " from the extent file", e);
+        }
+    }
+
+    void load(Object entity) throws IOException {
+        Field sourceField = ClassLayout.of(entity.getClass()).getSourceField();
+        synchronized (mapping) {
+            try {
+                // another thread may have loaded the object meanwhile
+                if (sourceField.get(entity) != this) {
+                    return;
+                }
+                mapping.reader(offset).readObjectFields(entity, def);
+                sourceField.set(entity, null);
+            } catch (IllegalAccessException e) {
+                throw new IOException("Cannot access field " + sourceField, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,543 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentListener;
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.extent.ExtentView;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import static com.example.byt.persistence.BinaryFormat.*;
+
+/**
+ * Durable store that appends changes instead of rewriting every extent.
+ * A directory holds one snapshot (the BinaryExtentStore format) and the log
+ * of changes made since; each commit appends the buffered changes as one
+ * checksummed batch, so its cost depends on the number of changes only.
+ * Opening the directory loads the snapshot and replays the log, ignoring a
+ * batch torn by a crash. Once the log outgrows the checkpoint threshold a new
+ * snapshot is written and the log starts over.
+ * <p>
+ * Extent membership is tracked through an extent listener; model classes
+ * report changes to their fields through {@link ChangeLog}. The log refers
+ * to objects by the ids the snapshot and earlier batches gave them. Once the
+ * removal of an object from its last extent is committed its id is dropped,
+ * so the log does not hold on to removed objects until the next checkpoint;
+ * an object that is referenced again is written anew under a fresh id.
+ */
+public final class WriteAheadLog implements Closeable {
+
+    public static final long DEFAULT_CHECKPOINT_THRESHOLD = 8L * 1024 * 1024;
+
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    private static final Pattern LOG_FILE = Pattern.compile("changes-(\\d+)\\.log");
+
+    private static final int LOG_HEADER_SIZE = 16;
+
+    // batch length before the batch and its checksum after it
+    private static final int BATCH_OVERHEAD = 12;
+
+    private final Path directory;
+
+    private final List<Change> changes = new ArrayList<>();
+
+    private final ExtentListener extentListener = new ExtentListener() {
+        @Override
+        public void added(ExtentView<?> extent, Object element) {
+            recordExtentChange(RECORD_EXTENT_ADD, extent.getType(), element);
+        }
+
+        @Override
+        public void removed(ExtentView<?> extent, Object element) {
+            recordExtentChange(RECORD_EXTENT_REMOVE, extent.getType(), element);
+            leftExtent(element);
+        }
+
+        @Override
+        public void cleared(ExtentView<?> extent) {
+            recordExtentChange(RECORD_EXTENT_CLEAR, extent.getType(), null);
+            extentCleared(extent.getType());
+        }
+    };
+
+    private final Runnable restoreListener = this::extentsRestored;
+
+    private Map<Object, Integer> objectIds = new IdentityHashMap<>();
+
+    // ids handed out so far, including dropped ones; the next new object gets this one
+    private int nextObjectId;
+
+    // objects removed from an extent and types whose extent was cleared since the last commit; their ids are
+    // dropped once that commit is written, unless the objects are back in an extent
+    private final Set<Object> leaving = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final Set<Class<?>> clearedTypes = new HashSet<>();
+
+    private long generation;
+
+    private FileChannel channel;
+
+    private long logSize;
+
+    private long checkpointThreshold = DEFAULT_CHECKPOINT_THRESHOLD;
+
+    // set when the extents were replaced behind the log's back; only a new snapshot can capture that
+    private boolean restored;
+
+    private boolean closed;
+
+    private WriteAheadLog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the log kept in the given directory and restores every extent from it.
+     * An empty directory starts from the current contents of the extents.
+     */
+    public static WriteAheadLog open(Path directory) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        if (ChangeLog.isRecording()) {
+            throw new IllegalStateException("Another write-ahead log is already open");
+        }
+        Files.createDirectories(directory);
+        WriteAheadLog log = new WriteAheadLog(directory);
+        try {
+            long latest = log.latestGeneration();
+            if (latest < 0) {
+                log.checkpoint();
+            } else {
+                log.recover(latest);
+            }
+            ChangeLog.attach(log);
+        } catch (IOException | RuntimeException e) {
+            log.closeChannel();
+            throw e;
+        }
+        ExtentRegistry.addExtentListener(log.extentListener);
+        ExtentRegistry.addRestoreListener(log.restoreListener);
+        return log;
+    }
+
+    public synchronized void commit() throws IOException {
+        ensureOpen();
+        if (restored) {
+            checkpoint();
+            return;
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        GraphWriter writer = new GraphWriter(batch, objectIds, nextObjectId);
+        try {
+            for (Change change : changes) {
+                change.writeTo(writer);
+            }
+            writer.writePendingObjects();
+            writer.writeEnd();
+            writer.flush();
+            append(batch.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            // the changes stay buffered, so a later commit can retry them
+            writer.forgetAssignedIds();
+            throw e;
+        }
+        nextObjectId = writer.getNextId();
+        changes.clear();
+        forgetRemovedObjects();
+        if (logSize >= checkpointThreshold) {
+            checkpoint();
+        }
+    }
+
+    // writes a new snapshot of every extent and starts an empty log; pending changes are part of the snapshot
+    public synchronized void checkpoint() throws IOException {
+        ensureOpen();
+        long next = generation + 1;
+        Path temp = Files.createTempFile(directory, "snapshot-", ".tmp");
+        Map<Object, Integer> ids;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                ids = BinaryExtentStore.writeSnapshot(out);
+            }
+            try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                file.force(true);
+            }
+            Files.move(temp, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        FileChannel newChannel = createLog(logFile(next), next);
+        closeChannel();
+        channel = newChannel;
+        logSize = LOG_HEADER_SIZE;
+        generation = next;
+        objectIds = ids;
+        nextObjectId = ids.size();
+        changes.clear();
+        leaving.clear();
+        clearedTypes.clear();
+        restored = false;
+        deleteGenerationsBefore(next);
+    }
+
+    public synchronized int getPendingChangeCount() {
+        return changes.size();
+    }
+
+    public synchronized long getLogSize() {
+        return logSize;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    // objects the log currently refers to by id
+    synchronized int getObjectIdCount() {
+        return objectIds.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized long getCheckpointThreshold() {
+        return checkpointThreshold;
+    }
+
+    public synchronized void setCheckpointThreshold(long checkpointThreshold) {
+        if (checkpointThreshold <= 0) {
+            throw new IllegalArgumentException("Checkpoint threshold must be positive");
+        }
+        this.checkpointThreshold = checkpointThreshold;
+    }
+
+    public synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    // commits the pending changes before closing
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            commit();
+        } finally {
+            abandon();
+        }
+    }
+
+    // closes without committing, leaving the files as a crash would
+    synchronized void abandon() throws IOException {
+        closed = true;
+        changes.clear();
+        leaving.clear();
+        clearedTypes.clear();
+        ExtentRegistry.removeExtentListener(extentListener);
+        ExtentRegistry.removeRestoreListener(restoreListener);
+        ChangeLog.detach(this);
+        closeChannel();
+    }
+
+    synchronized void elementAdded(Object owner, String field, Object element) {
+        recordFieldChange(RECORD_ELEMENT_ADD, owner, field, element, null);
+    }
+
+    synchronized void elementRemoved(Object owner, String field, Object element) {
+        recordFieldChange(RECORD_ELEMENT_REMOVE, owner, field, element, null);
+    }
+
+    synchronized void entryPut(Object owner, String field, Object key, Object value) {
+        recordFieldChange(RECORD_ENTRY_PUT, owner, field, key, value);
+    }
+
+    synchronized void entryRemoved(Object owner, String field, Object key) {
+        recordFieldChange(RECORD_ENTRY_REMOVE, owner, field, key, null);
+    }
+
+    synchronized void fieldSet(Object owner, String field) {
+        recordFieldChange(RECORD_FIELD_SET, owner, field, null, null);
+    }
+
+    private void recordFieldChange(byte record, Object owner, String field, Object first, Object second) {
+        if (owner == null) {
+            throw new NullPointerException("Owner cannot be null");
+        }
+        if (closed) {
+            return;
+        }
+        String name = ClassLayout.of(owner.getClass()).qualify(field);
+        changes.add(new Change(record, owner, name, first, second));
+    }
+
+    private synchronized void recordExtentChange(byte record, Class<?> type, Object element) {
+        if (!closed) {
+            changes.add(new Change(record, type, null, element, null));
+        }
+    }
+
+    private synchronized void leftExtent(Object element) {
+        if (!closed) {
+            leaving.add(element);
+        }
+    }
+
+    private synchronized void extentCleared(Class<?> type) {
+        if (!closed) {
+            clearedTypes.add(type);
+        }
+    }
+
+    // drops the ids of objects whose removal from their last extent was just committed
+    private void forgetRemovedObjects() {
+        if (leaving.isEmpty() && clearedTypes.isEmpty()) {
+            return;
+        }
+        List<ExtentView<?>> extents = ExtentRegistry.getExtents();
+        if (!clearedTypes.isEmpty()) {
+            for (Object object : objectIds.keySet()) {
+                for (Class<?> type : clearedTypes) {
+                    if (type.isInstance(object)) {
+                        leaving.add(object);
+                        break;
+                    }
+                }
+            }
+        }
+        for (Object object : leaving) {
+            if (!isInAnyExtent(extents, object)) {
+                objectIds.remove(object);
+            }
+        }
+        leaving.clear();
+        clearedTypes.clear();
+    }
+
+    private static boolean isInAnyExtent(List<ExtentView<?>> extents, Object object) {
+        for (ExtentView<?> extent : extents) {
+            if (extent.contains(object)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized void extentsRestored() {
+        changes.clear();
+        restored = true;
+    }
+
+    private void recover(long latest) throws IOException {
+        generation = latest;
+        List<Object> objects = new ArrayList<>();
+        Map<Class<?>, Set<Object>> extents;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotFile(latest)))) {
+            GraphReader reader = new GraphReader(in, objects);
+            reader.readHeader();
+            extents = reader.readAll();
+        }
+        Path logFile = logFile(latest);
+        if (Files.exists(logFile) && Files.size(logFile) >= LOG_HEADER_SIZE) {
+            channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            logSize = replay(objects, extents);
+            // drops a batch torn by a crash so that new batches follow the last complete one
+            channel.truncate(logSize);
+        } else {
+            channel = createLog(logFile, latest);
+            logSize = LOG_HEADER_SIZE;
+        }
+        ExtentRegistry.restore(extents);
+        objectIds = new IdentityHashMap<>(objects.size());
+        for (int id = 0; id < objects.size(); id++) {
+            objectIds.put(objects.get(id), id);
+        }
+        nextObjectId = objects.size();
+        deleteGenerationsBefore(latest);
+    }
+
+    private long replay(List<Object> objects, Map<Class<?>, Set<Object>> extents) throws IOException {
+        long size = channel.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        if (in.readInt() != LOG_MAGIC || in.readInt() != VERSION || in.readLong() != generation) {
+            throw new StreamCorruptedException("Change log does not belong to snapshot " + generation);
+        }
+        long position = LOG_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position + BATCH_OVERHEAD <= size) {
+            byte[] batch;
+            long checksum;
+            try {
+                int length = in.readInt();
+                if (length < 0 || length > size - position - BATCH_OVERHEAD) {
+                    break;
+                }
+                batch = new byte[length];
+                in.readFully(batch);
+                checksum = in.readLong();
+            } catch (EOFException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(batch);
+            if (crc.getValue() != checksum) {
+                break;
+            }
+            new GraphReader(new ByteArrayInputStream(batch), objects).readRecords(extents);
+            position += batch.length + BATCH_OVERHEAD;
+        }
+        return position;
+    }
+
+    private void append(byte[] batch) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(batch);
+        ByteBuffer buffer = ByteBuffer.allocate(batch.length + BATCH_OVERHEAD);
+        buffer.putInt(batch.length).put(batch).putLong(crc.getValue()).flip();
+        long position = logSize;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(logSize);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        logSize = position;
+    }
+
+    private static FileChannel createLog(Path file, long generation) throws IOException {
+        FileChannel log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+            header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation).flip();
+            while (header.hasRemaining()) {
+                log.write(header);
+            }
+            log.force(true);
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    private long latestGeneration() throws IOException {
+        long latest = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = SNAPSHOT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    latest = Math.max(latest, Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return latest;
+    }
+
+    private void deleteGenerationsBefore(long current) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher snapshot = SNAPSHOT_FILE.matcher(name);
+                Matcher log = LOG_FILE.matcher(name);
+                if ((snapshot.matches() && Long.parseLong(snapshot.group(1)) < current)
+                        || (log.matches() && Long.parseLong(log.group(1)) < current)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve("changes-" + generation + ".log");
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private static final class Change {
+
+        private final byte record;
+
+        // the model object for field changes, the extent type for extent changes
+        private final Object owner;
+
+        private final String field;
+
+        private final Object first;
+
+        private final Object second;
+
+        private Change(byte record, Object owner, String field, Object first, Object second) {
+            this.record = record;
+            this.owner = owner;
+            this.field = field;
+            this.first = first;
+            this.second = second;
+        }
+
+        private void writeTo(GraphWriter writer) throws IOException {
+            switch (record) {
+                case RECORD_EXTENT_ADD, RECORD_EXTENT_REMOVE, RECORD_EXTENT_CLEAR ->
+                        writer.writeExtentChange(record, (Class<?>) owner, first);
+                case RECORD_ELEMENT_ADD, RECORD_ELEMENT_REMOVE -> writer.writeElementChange(record, owner, field, first);
+                case RECORD_ENTRY_PUT -> writer.writeEntryPut(owner, field, first, second);
+                case RECORD_ENTRY_REMOVE -> writer.writeEntryRemove(owner, field, first);
+                default -> writer.writeFieldSet(owner, field);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.byt.validation;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Single entry point for Bean Validation of the domain models.
+ * The factory is bootstrapped once; validators are thread-safe and keep the
+ * constraint metadata of every class they have seen.
+ */
+public final class ModelValidator {
+
+    private static final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
+
+    private static final Validator validator = factory.getValidator();
+
+    private static final Map<Class<?>, Boolean> constrainedTypes = new ConcurrentHashMap<>();
+
+    private static final List<Consumer<ValidationResult<?>>> failureListeners = new CopyOnWriteArrayList<>();
+
+    private ModelValidator() {
+    }
+
+    public static <T> ValidationResult<T> validate(T object) {
+        if (object == null) {
+            throw new NullPointerException("Object to validate cannot be null");
+        }
+        // classes without any constraints (e.g. FourHandsService) skip the validator entirely
+        if (!isConstrained(object.getClass())) {
+            return new ValidationResult<>(object, Set.of());
+        }
+        ValidationResult<T> result = new ValidationResult<>(object, validator.validate(object));
+        if (!result.isValid()) {
+            for (Consumer<ValidationResult<?>> listener : failureListeners) {
+                listener.accept(result);
+            }
+        }
+        return result;
+    }
+
+    public static boolean isValid(Object object) {
+        return validate(object).isValid();
+    }
+
+    public static boolean isConstrained(Class<?> type) {
+        return constrainedTypes.computeIfAbsent(type,
+                t -> validator.getConstraintsForClass(t).isBeanConstrained());
+    }
+
+    public static Validator getValidator() {
+        return validator;
+    }
+
+    public static void addFailureListener(Consumer<ValidationResult<?>> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        failureListeners.add(listener);
+    }
+
+    public static void removeFailureListener(Consumer<ValidationResult<?>> listener) {
+        failureListeners.remove(listener);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.byt.validation;
+
+import jakarta.validation.ConstraintViolation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class ValidationResult<T> {
+
+    private final T object;
+
+    private final Set<ConstraintViolation<T>> violations;
+
+    ValidationResult(T object, Set<ConstraintViolation<T>> violations) {
+        this.object = object;
+        this.violations = Collections.unmodifiableSet(violations);
+    }
+
+    public boolean isValid() {
+        return violations.isEmpty();
+    }
+
+    public T getObject() {
+        return object;
+    }
+
+    public Class<?> getObjectType() {
+        return object.getClass();
+    }
+
+    public Set<ConstraintViolation<T>> getViolations() {
+        return violations;
+    }
+
+    public boolean hasViolationFor(String property) {
+        return violations.stream()
+                .anyMatch(v -> v.getPropertyPath().toString().equals(property));
+    }
+
+    // property path -> messages, in the order the validator reported them
+    public Map<String, List<String>> getMessagesByProperty() {
+        Map<String, List<String>> messages = new LinkedHashMap<>();
+        for (ConstraintViolation<T> violation : violations) {
+            messages.computeIfAbsent(violation.getPropertyPath().toString(), k -> new ArrayList<>())
+                    .add(violation.getMessage());
+        }
+        return messages;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResult{" +
+                "type=" + getObjectType().getSimpleName() +
+                ", valid=" + isValid() +
+                ", violations=" + getMessagesByProperty() +
+                '}';
+    }
+}
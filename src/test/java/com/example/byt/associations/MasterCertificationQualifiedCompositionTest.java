@@ -34,11 +34,12 @@ public class MasterCertificationQualifiedCompositionTest {
     }
 
     @Test
-    void constructorAddsDummyCertificationAndRemovesItOnRealAdd() {
-        assertTrue(master1.existsDummyCertification());
+    void newMasterHasNoCertificationsUntilOneIsAdded() {
+        assertEquals(0, master1.getCertificationCount());
+        assertTrue(Certification.getCertificationList().isEmpty());
         Certification cert = new Certification(master1, "Lamination", "CERT-002", "Advanced", "NoOffence", LocalDate.now());
 
-        assertFalse(master1.existsDummyCertification());
+        assertEquals(1, master1.getCertificationCount());
         assertSame(cert, master1.getCertificationByNumber("CERT-002"));
     }
 
@@ -154,7 +155,6 @@ public class MasterCertificationQualifiedCompositionTest {
         Certification cert1 = new Certification(master1, "CourseA", "CERT-012", "Desc", "Org", LocalDate.now());
         Certification cert2 = new Certification(master1, "CourseB", "CERT-013", "Desc", "Org", LocalDate.now());
 
-        master2.addServiceSpecialisesIn(master1.getDummyService());
         master1.removeMaster();
 
         assertNull(master1.getCertificationByNumber("CERT-012"));
@@ -216,9 +216,6 @@ public class MasterReflexAssociationTest {
         topManager.addTrainee(trainee1);
         topManager.addTrainee(trainee2);
 
-        Master helper = Worker.createMaster("Helper", "Master", "+48555111229", LocalDate.of(1990, 1, 1), 5);
-        helper.addServiceSpecialisesIn(topManager.getDummyService());
-
         topManager.removeMaster();
 
         assertFalse(superManager.getTrainees().contains(topManager));
@@ -267,4 +267,20 @@ public class ProvidedServiceMasterAssociationTest {
 
         assertFalse(master1.getCompletedServices().isEmpty());
     }
+
+    @Test
+    void completedViewsAreReadOnly() {
+        assertThrows(UnsupportedOperationException.class, () -> providedService.getCompletedByMastersView().clear());
+        assertThrows(UnsupportedOperationException.class, () -> master1.getCompletedServicesView().clear());
+        assertTrue(providedService.getCompletedByMastersView().contains(master1));
+    }
+
+    @Test
+    void completedMembershipQueriesReflectAssociation() {
+        assertTrue(providedService.isCompletedBy(master1));
+        assertTrue(master1.hasCompletedService(providedService));
+        assertFalse(master3.hasCompletedService(providedService));
+        assertEquals(providedService.getCompletedByMasters().size(), providedService.getCompletedByMasterCount());
+        assertEquals(master1.getCompletedServices().size(), master1.getCompletedServiceCount());
+    }
 }
\ No newline at end of file
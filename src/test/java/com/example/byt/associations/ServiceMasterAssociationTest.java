@@ -45,10 +45,12 @@ public class ServiceMasterAssociationTest {
     }
 
     @Test
-    void masterConstructorWithNoServicesAddsDummyService(){
+    void masterConstructorWithNoServicesIsPendingSpecialisation(){
+        int services = Service.getServiceList().size();
         Master master = Worker.createMaster("Jane", "Smith", "987654322", LocalDate.of(1985, 5, 20), 7);
-        assertEquals(1, master.getServiceSpecialisesIn().size());
-        assertTrue(master.existsDummyService());
+        assertEquals(0, master.getServiceSpecialisesIn().size());
+        assertTrue(master.isPendingSpecialisation());
+        assertEquals(services, Service.getServiceList().size());
     }
 
     @Test
@@ -91,10 +93,10 @@ public class ServiceMasterAssociationTest {
 
 
     @Test
-    void addServiceSpecialisesInUpdatesBothSidesAndDeletesDummyService(){
+    void addServiceSpecialisesInUpdatesBothSidesAndEndsPendingSpecialisation(){
         master2.addServiceSpecialisesIn(service1);
 
-        assertFalse(master2.existsDummyService());
+        assertFalse(master2.isPendingSpecialisation());
 
         assertTrue(service1.getMasterSpecializedIn().contains(master2));
         assertTrue(master2.getServiceSpecialisesIn().contains(service1));
@@ -270,6 +272,29 @@ public class ServiceMasterAssociationTest {
         assertTrue(service1.getMasterSpecializedIn().contains(master1));
     }
 
+    @Test
+    void getServiceSpecialisesInViewIsLiveAndReadOnly(){
+        Set<Service> view = master1.getServiceSpecialisesInView();
+        assertThrows(UnsupportedOperationException.class, view::clear);
+        service1.addMasterSpecializedIn(master2);
+        master2.addServiceSpecialisesIn(service2);
+        assertTrue(master2.getServiceSpecialisesInView().contains(service2));
+        assertEquals(master1.getServiceSpecialisesIn().size(), view.size());
+    }
+
+    @Test
+    void membershipQueriesReflectAssociation(){
+        assertTrue(master1.hasServiceSpecialisesIn(service1));
+        assertTrue(service1.hasMasterSpecializedIn(master1));
+        assertFalse(service1.hasMasterSpecializedIn(master2));
+        assertEquals(1, service1.getMasterSpecializedInCount());
+
+        service1.addMasterSpecializedIn(master2);
+        assertTrue(master2.hasServiceSpecialisesIn(service1));
+        assertEquals(2, service1.getMasterSpecializedInCount());
+        assertEquals(master1.getServiceSpecialisesIn().size(), master1.getServiceSpecialisesInCount());
+    }
+
     @Test
     void removeMasterClearsAllAssociations(){
         //to avoid exceptions in service
@@ -208,5 +208,40 @@ public class ServicePromotionAssociationTest {
         assertEquals(80, service1.getTotalPrice());
     }
 
+    @Test
+    void getTotalPriceForDateUsesPromotionsActiveOnThatDate(){
+        assertEquals(80, service1.getTotalPrice(LocalDate.now()));
+        assertEquals(90, service1.getTotalPrice(LocalDate.now().plusDays(2)));
+        assertEquals(90, service1.getTotalPrice(LocalDate.now().plusDays(25)));
+        assertEquals(100, service1.getTotalPrice(LocalDate.now().plusDays(26)));
+        assertEquals(100, service1.getTotalPrice(LocalDate.now().minusDays(26)));
+    }
+
+    @Test
+    void getTotalPriceReflectsChangedPromotionDates(){
+        assertEquals(90, service1.getTotalPrice(LocalDate.now().plusDays(5)));
+        promotion1.setEndDate(LocalDate.now().plusDays(10));
+        assertEquals(80, service1.getTotalPrice(LocalDate.now().plusDays(5)));
+        promotion1.setStartDate(LocalDate.now().plusDays(6));
+        assertEquals(90, service1.getTotalPrice(LocalDate.now().plusDays(5)));
+    }
+
+    @Test
+    void getTotalPriceReflectsRemovedPromotion(){
+        assertEquals(80, service1.getTotalPrice());
+        service1.addPromotionApplied(new Promotion("Summer", "Summer sale", 50,
+                LocalDate.now(), LocalDate.now(), Set.of(service2)));
+        assertEquals(50, service1.getTotalPrice());
+        service2.addPromotionApplied(promotion1);
+        service1.removePromotionApplied(promotion1);
+        assertEquals(50, service1.getTotalPrice());
+        assertEquals(90, service1.getTotalPrice(LocalDate.now().plusDays(1)));
+    }
+
+    @Test
+    void getBestDiscountWithNullDateThrowsException(){
+        assertThrows(IllegalArgumentException.class, () -> service1.getBestDiscount(null));
+    }
+
 
 }
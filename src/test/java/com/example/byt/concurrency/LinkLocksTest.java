@@ -0,0 +1,258 @@
+package com.example.byt.concurrency;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.AppointmentStatus;
+import com.example.byt.models.Certification;
+import com.example.byt.models.HistoryOfStatus;
+import com.example.byt.models.Material;
+import com.example.byt.models.Promotion;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Receptionist;
+import com.example.byt.models.person.WorkType;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.HairService;
+import com.example.byt.models.services.HairServiceType;
+import com.example.byt.models.services.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkLocksTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 40;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+    }
+
+    @Test
+    void locksAreReentrantAndReleasedOnClose() {
+        Object first = new Object();
+        Object second = new Object();
+        try (LinkLocks.Guard outer = LinkLocks.lock(first, second)) {
+            try (LinkLocks.Guard inner = LinkLocks.lock(second, first)) {
+                assertTrue(LinkLocks.isHeldByCurrentThread(first));
+            }
+            assertTrue(LinkLocks.isHeldByCurrentThread(second));
+        }
+        assertFalse(LinkLocks.isHeldByCurrentThread(first));
+        assertFalse(LinkLocks.isHeldByCurrentThread(second));
+    }
+
+    @Test
+    void nullPartiesAreIgnored() {
+        Object party = new Object();
+        try (LinkLocks.Guard guard = LinkLocks.lock(party, null)) {
+            assertTrue(LinkLocks.isHeldByCurrentThread(party));
+        }
+        assertFalse(LinkLocks.isHeldByCurrentThread(null));
+    }
+
+    @Test
+    void stableLockCoversPartiesChangedWhileLocking() {
+        List<Object> parties = new ArrayList<>(List.of(new Object()));
+        Object late = new Object();
+        AtomicInteger reads = new AtomicInteger();
+        try (LinkLocks.Guard guard = LinkLocks.lockStable(() -> {
+            if (reads.incrementAndGet() == 2) {
+                parties.add(late);
+            }
+            return parties;
+        })) {
+            assertTrue(LinkLocks.isHeldByCurrentThread(late));
+        }
+        assertFalse(LinkLocks.isHeldByCurrentThread(late));
+    }
+
+    @Test
+    void associationOperationsNameAllTheirPartiesUpFront() throws Exception {
+        long unnamedBefore = LinkLocks.unnamedAcquisitionCount();
+
+        Master manager = Worker.createMaster("Mike", "Smith", "444555666", LocalDate.of(1985, 3, 20), 5);
+        Master otherManager = Worker.createMaster("Anna", "Lee", "444555667", LocalDate.of(1986, 4, 21), 4);
+        Master trainee = Worker.createMaster("Tom", "Green", "444555668", LocalDate.of(1995, 6, 1), 1);
+        Receptionist receptionist = Worker.createReceptionist("Eva", "Brown", "777888999", LocalDate.of(1992, 7, 10),
+                WorkType.FULL_TIME);
+        Customer customer = Person.createCustomer("John", "Doe", "111222333", "john@example.com",
+                LocalDate.of(1990, 5, 15));
+        HairService service = new HairService(1, "Haircut", 50.0, "Basic haircut", 30.0, Set.of(manager),
+                HairServiceType.CUT, List.of("Straight"));
+        HairService coloring = new HairService(2, "Coloring", 80.0, "Full coloring", 60.0, Set.of(manager),
+                HairServiceType.COLOR, List.of("Straight"));
+        Material dye = new Material("Dye", "Wella");
+        dye.addStock(10.0);
+
+        trainee.setManager(manager);
+        trainee.setManager(otherManager);
+        otherManager.removeTrainee(trainee);
+        manager.addTrainee(trainee);
+        service.addMasterSpecializedIn(trainee);
+        service.addMaterialUsed(dye, 1.0);
+        dye.removeServiceUsedIn(service);
+        dye.addServiceUsedIn(service);
+
+        Certification certification = new Certification(trainee, "Colorist", "C-1", "Advanced coloring", "Academy",
+                LocalDate.of(2020, 1, 1));
+        certification.setMaster(otherManager);
+        certification.setMaster(trainee);
+        new Certification(manager, "Barber", "C-2", "Beard care", "Academy", LocalDate.of(2020, 1, 1))
+                .removeFromExtent();
+
+        Promotion promotion = new Promotion("Winter", "Winter sale", 20, LocalDate.now().minusDays(1),
+                LocalDate.now().plusDays(1), Set.of(service, coloring));
+        promotion.setEndDate(LocalDate.now().plusDays(2));
+        service.removePromotionApplied(promotion);
+        promotion.addServiceApplicableTo(service);
+
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(2025, 11, 13, 9, 0).plusHours(i),
+                    Set.of(manager, trainee));
+            appointments.add(new Appointment.Builder(LocalDate.now().minusDays(1), customer, Set.of(serviceInfo))
+                    .receptionist(receptionist)
+                    .build());
+        }
+        Appointment cancelled = appointments.get(0);
+        HistoryOfStatus cancellation = cancelled.changeStatus(AppointmentStatus.CANCELLED);
+        cancelled.removeHistory(cancellation);
+        customer.removeHistory(cancelled.changeStatus(AppointmentStatus.CANCELLED));
+
+        Appointment completed = appointments.get(1);
+        completed.changeStatus(AppointmentStatus.COMPLETED);
+        completed.setPaymentMethod(PaymentMethod.CARD);
+        ProvidedService providedService = completed.getProvidedServicesView().iterator().next();
+        providedService.setRating(4);
+        providedService.removeMaster(trainee);
+        receptionist.removeAppointment(completed);
+
+        appointments.get(2).getProvidedServicesView().iterator().next().removeService(service);
+        appointments.get(3).getProvidedServicesView().iterator().next().removeFromExtent();
+        Appointment.evictBefore(LocalDate.now(), (date, archived) -> { });
+        receptionist.removeReceptionist();
+
+        Master.removeMasters(List.of(trainee));
+        Service.createTwoHandsService(3, "Massage", 70.0, "One therapist massage", 60.0, Set.of(manager))
+                .removeFromExtent();
+        service.removeFromExtent();
+
+        assertEquals(unnamedBefore, LinkLocks.unnamedAcquisitionCount());
+    }
+
+    @Test
+    void concurrentBookingsKeepBothSidesOfEveryLink() throws Exception {
+        Master master = Worker.createMaster("Mike", "Smith", "444555666", LocalDate.of(1985, 3, 20), 5);
+        HairService service = new HairService(1, "Haircut", 50.0, "Basic haircut", 30.0, Set.of(master),
+                HairServiceType.CUT, List.of("Straight"));
+
+        runConcurrently(thread -> {
+            Customer customer = Person.createCustomer("John", "Doe", "111222333", "john@example.com",
+                    LocalDate.of(1990, 5, 15));
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(2025, 11, 13, 9, 0).plusHours(i),
+                        Set.of(master));
+                Appointment appointment = new Appointment.Builder(LocalDate.now(), customer, Set.of(serviceInfo)).build();
+                appointment.getProvidedServicesView().iterator().next().setRating(1 + i % 5);
+            }
+            return null;
+        });
+
+        int total = THREADS * BOOKINGS_PER_THREAD;
+        assertEquals(total, Appointment.getAppointmentExtent().size());
+        assertEquals(total, ProvidedService.getProvidedServiceExtent().size());
+        assertEquals(total, service.getProvidedServiceCount());
+        assertEquals(total, master.getCompletedServiceCount());
+        assertEquals(total, service.getRatingCount());
+        assertEquals(total, master.getRatingCount());
+        assertEquals(total, HairService.getTotalRatingCount());
+        assertEquals(3.0, service.getRating(), 1e-9);
+        for (ProvidedService providedService : ProvidedService.getProvidedServiceExtent()) {
+            assertSame(service, providedService.getService());
+            assertTrue(providedService.getAppointment().hasProvidedService(providedService));
+            assertTrue(master.hasCompletedService(providedService));
+        }
+    }
+
+    @Test
+    void linkingFromBothSidesDoesNotDeadlock() throws Exception {
+        Master master = Worker.createMaster("Mike", "Smith", "444555666", LocalDate.of(1985, 3, 20), 5);
+        List<HairService> services = new ArrayList<>();
+        List<Material> materials = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            services.add(new HairService(i + 1, "Service " + i, 50.0, "Description", 30.0, Set.of(master),
+                    HairServiceType.CUT, List.of("Straight")));
+            materials.add(new Material("Material " + i, "Brand"));
+        }
+
+        runConcurrently(thread -> {
+            for (int round = 0; round < 200; round++) {
+                for (int i = 0; i < services.size(); i++) {
+                    HairService service = services.get((i + thread) % services.size());
+                    Material material = materials.get(i);
+                    // half of the threads link from the service side, the others from the material side
+                    if (thread % 2 == 0) {
+                        service.addMaterialUsed(material);
+                        material.removeServiceUsedIn(service);
+                    } else {
+                        material.addServiceUsedIn(service);
+                        service.removeMaterialUsed(material);
+                    }
+                }
+            }
+            return null;
+        });
+
+        for (HairService service : services) {
+            for (Material material : materials) {
+                assertEquals(service.hasMaterialUsed(material), material.isUsedIn(service));
+            }
+        }
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Callable<Void> callable = () -> {
+                    start.await();
+                    return task.run(thread);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        Void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.byt.extent;
+
+import com.example.byt.models.Material;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExtentTest {
+
+    private Extent<String> extent;
+
+    @BeforeEach
+    void setUp() {
+        extent = new Extent<>(String.class);
+    }
+
+    @Test
+    void addKeepsInsertionOrder() {
+        extent.add("a");
+        extent.add("b");
+        extent.add("c");
+        assertEquals(List.of("a", "b", "c"), extent.snapshot());
+        assertEquals(3, extent.size());
+    }
+
+    @Test
+    void addSameInstanceTwiceIsIgnored() {
+        String element = "a";
+        assertTrue(extent.add(element));
+        assertFalse(extent.add(element));
+        assertEquals(1, extent.size());
+    }
+
+    @Test
+    void elementsAreComparedByIdentity() {
+        String first = new String("a");
+        String second = new String("a");
+        extent.add(first);
+        extent.add(second);
+        assertEquals(2, extent.size());
+        assertTrue(extent.remove(second));
+        assertSame(first, extent.snapshot().get(0));
+    }
+
+    @Test
+    void removeKeepsOrderOfRemainingElements() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            extent.add("e" + i);
+        }
+        for (String element : extent) {
+            if (Integer.parseInt(element.substring(1)) % 3 != 0) {
+                extent.remove(element);
+            } else {
+                expected.add(element);
+            }
+        }
+        assertEquals(expected, extent.snapshot());
+        extent.add("last");
+        assertEquals("last", extent.snapshot().get(extent.size() - 1));
+    }
+
+    @Test
+    void removeMissingElementReturnsFalse() {
+        extent.add("a");
+        assertFalse(extent.remove("b"));
+        assertFalse(extent.remove(null));
+        assertEquals(1, extent.size());
+    }
+
+    @Test
+    void snapshotIsReusedUntilExtentChanges() {
+        extent.add("a");
+        List<String> snapshot = extent.snapshot();
+        assertSame(snapshot, extent.snapshot());
+        extent.add("b");
+        assertNotSame(snapshot, extent.snapshot());
+        assertEquals(List.of("a"), snapshot);
+    }
+
+    @Test
+    void snapshotIsReadOnly() {
+        extent.add("a");
+        assertThrows(UnsupportedOperationException.class, () -> extent.snapshot().clear());
+    }
+
+    @Test
+    void clearRemovesAllElements() {
+        extent.add("a");
+        extent.add("b");
+        extent.clear();
+        assertTrue(extent.isEmpty());
+        assertFalse(extent.contains("a"));
+        assertTrue(extent.snapshot().isEmpty());
+    }
+
+    @Test
+    void addNullThrowsException() {
+        assertThrows(NullPointerException.class, () -> extent.add(null));
+    }
+
+    @Test
+    void modelExtentsAreRegistered() {
+        Material.clearExtent();
+        Material material = new Material("Nail Polish", "OPI");
+        ExtentView<Material> view = ExtentRegistry.getExtent(Material.class);
+        assertSame(Material.getMaterialExtent(), view);
+        assertTrue(view.contains(material));
+    }
+
+    @Test
+    void registeringSameTypeTwiceThrowsException() {
+        new Material("Nail Polish", "OPI");
+        assertThrows(IllegalStateException.class, () -> ExtentRegistry.register(Material.class));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.byt.extent;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalIndexTest {
+
+    // string lengths counted per length
+    private final Map<Integer, Integer> counts = new TreeMap<>();
+
+    private IncrementalIndex<String, Integer> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new IncrementalIndex<>() {
+            @Override
+            protected void changed(String element, Integer old, Integer length) {
+                if (old != null) {
+                    counts.merge(old, -1, Integer::sum);
+                    counts.remove(old, 0);
+                }
+                if (length != null) {
+                    counts.merge(length, 1, Integer::sum);
+                }
+            }
+
+            @Override
+            protected void cleared() {
+                counts.clear();
+            }
+        };
+    }
+
+    @Test
+    void aggregatesFollowEveryChange() {
+        String word = "salon";
+        index.put(word, 5);
+        index.put("nail", 4);
+        index.put(word, 3);
+        index.remove("nail");
+
+        assertEquals(Map.of(3, 1), counts);
+        assertEquals(3, index.get(word));
+        assertNull(index.get("nail"));
+    }
+
+    @Test
+    void staleIndexIsReadOnceAndKeepsNewerValues() {
+        String kept = "kept";
+        String updated = "updated";
+        index.put(kept, 1);
+        index.markStale();
+        assertTrue(index.isStale());
+        assertTrue(counts.isEmpty());
+
+        // updated while the rebuild reads the old value
+        index.put(updated, 1);
+        index.ensureBuilt(List.of(kept, updated), String::length);
+        index.ensureBuilt(List.of(), String::length);
+
+        assertFalse(index.isStale());
+        assertEquals(4, index.get(kept));
+        assertEquals(1, index.get(updated));
+        assertEquals(Map.of(1, 1, 4, 1), counts);
+    }
+}
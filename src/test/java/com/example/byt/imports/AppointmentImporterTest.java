@@ -0,0 +1,160 @@
+package com.example.byt.imports;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AppointmentImporterTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2025, 11, 13, 9, 0);
+
+    private Customer customer;
+    private Master master1;
+    private Master master2;
+    private Master outsider;
+    private Service haircut;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        master1 = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        master2 = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 4);
+        outsider = Worker.createMaster("Tom", "Davis", "777777777", LocalDate.of(1982, 9, 25), 2);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(master1, master2));
+    }
+
+    @Test
+    void validRecordsAreImported() {
+        List<AppointmentRecord> records = List.of(record(customer, NINE, master1), record(customer, NINE, master2));
+
+        ImportReport report = new AppointmentImporter().importAll(records);
+
+        assertEquals(2, report.getImportedCount());
+        assertEquals(0, report.getRejectedCount());
+        assertEquals(2, Appointment.getAppointmentExtent().size());
+        assertEquals(2, haircut.getProvidedServicesView().size());
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Test
+    void invalidRecordsAreRejectedWithoutPartialState() {
+        List<AppointmentRecord> records = List.of(
+                record(customer, NINE, master1),
+                record(customer, NINE, outsider),
+                new AppointmentRecord(null, customer, Set.of(new ServiceInfo(haircut, NINE, Set.of(master1)))),
+                new AppointmentRecord(LocalDate.now(), customer, Set.of()));
+
+        ImportReport report = new AppointmentImporter().importAll(records.stream());
+
+        assertEquals(1, report.getImportedCount());
+        assertEquals(3, report.getRejectedCount());
+        assertEquals(List.of(1L, 2L, 3L), report.getRejected().stream().map(RejectedRecord::getIndex).toList());
+        assertTrue(report.getRejected().get(0).getReason().contains("does not specialize"));
+        assertTrue(report.getRejected().get(1).getReason().contains("date"));
+        assertTrue(report.getRejected().get(2).getReason().contains("services"));
+        assertEquals(1, Appointment.getAppointmentExtent().size());
+        assertEquals(0, outsider.getCompletedServiceCount());
+    }
+
+    @Test
+    void recordsAreReadInBatches() {
+        List<AppointmentRecord> records = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            records.add(record(customer, NINE.plusHours(i), master1));
+        }
+        AppointmentImporter importer = new AppointmentImporter();
+        importer.setBatchSize(10);
+
+        ImportReport report = importer.importAll(records);
+
+        assertEquals(3, report.getBatchCount());
+        assertEquals(25, report.getImportedCount());
+        assertEquals(25, master1.getCompletedServiceCount());
+    }
+
+    @Test
+    void parallelImportLinksEveryRecord() {
+        List<AppointmentRecord> records = new ArrayList<>();
+        for (int c = 0; c < 20; c++) {
+            Customer next = Person.createCustomer("Customer" + c, "Doe", String.valueOf(200000000 + c),
+                    LocalDate.of(1990, 1, 1));
+            for (int i = 0; i < 10; i++) {
+                records.add(record(next, NINE.plusMinutes(30L * i), i % 2 == 0 ? master1 : master2));
+            }
+        }
+        AppointmentImporter importer = new AppointmentImporter();
+        importer.setBatchSize(64);
+        importer.setParallelism(4);
+
+        ImportReport report = importer.importAll(records);
+
+        assertEquals(200, report.getImportedCount());
+        assertEquals(200, Appointment.getAppointmentExtent().size());
+        assertEquals(200, haircut.getProvidedServicesView().size());
+        assertEquals(100, master1.getCompletedServiceCount());
+        assertEquals(100, master2.getCompletedServiceCount());
+    }
+
+    @Test
+    void checkedImportRejectsBusyMasters() {
+        List<AppointmentRecord> records = List.of(record(customer, NINE, master1),
+                record(customer, NINE.plusMinutes(10), master1));
+        AppointmentImporter importer = new AppointmentImporter();
+        importer.setCheckAvailability(true);
+
+        ImportReport report = importer.importAll(records);
+
+        assertEquals(1, report.getImportedCount());
+        assertEquals(1, report.getRejected().get(0).getIndex());
+        assertInstanceOf(IllegalStateException.class, report.getRejected().get(0).getCause());
+        assertEquals(1, master1.getCompletedServiceCount());
+    }
+
+    @Test
+    void conflictInTheSecondServiceLeavesNothingBehind() {
+        new AppointmentImporter().importAll(List.of(record(customer, NINE.plusHours(3), master1)));
+        AppointmentRecord conflicting = new AppointmentRecord(LocalDate.now(), customer, Set.of(
+                new ServiceInfo(haircut, NINE, Set.of(master2)),
+                new ServiceInfo(haircut, NINE.plusHours(3), Set.of(master1))));
+        AppointmentImporter importer = new AppointmentImporter();
+        importer.setCheckAvailability(true);
+
+        ImportReport report = importer.importAll(List.of(conflicting));
+
+        assertEquals(1, report.getRejectedCount());
+        assertEquals(1, Appointment.getAppointmentExtent().size());
+        assertEquals(1, ProvidedService.getProvidedServiceExtent().size());
+        assertEquals(0, master2.getCompletedServiceCount());
+        assertEquals(1, haircut.getProvidedServiceCount());
+        assertEquals(1, customer.getHistoryCount());
+    }
+
+    @Test
+    void invalidSettingsThrowException() {
+        AppointmentImporter importer = new AppointmentImporter();
+        assertThrows(IllegalArgumentException.class, () -> importer.setBatchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> importer.setParallelism(0));
+        assertThrows(NullPointerException.class, () -> importer.importAll((List<AppointmentRecord>) null));
+    }
+
+    private AppointmentRecord record(Customer customer, LocalDateTime time, Master master) {
+        return new AppointmentRecord(LocalDate.now(), customer, Set.of(new ServiceInfo(haircut, time, Set.of(master))));
+    }
+}
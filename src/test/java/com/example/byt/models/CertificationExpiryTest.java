@@ -0,0 +1,118 @@
+package com.example.byt.models;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Worker;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CertificationExpiryTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private static final LocalDate ISSUED = TODAY.minusYears(1);
+
+    private final List<Certification> notified = new ArrayList<>();
+
+    private final CertificationExpiryListener listener = notified::add;
+
+    private Master first;
+    private Master second;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        CertificationExpiry.addListener(listener);
+        first = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        second = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CertificationExpiry.removeListener(listener);
+    }
+
+    @Test
+    void everyCertificationIsNotifiedOnce() {
+        Certification soon = certify(first, "Colorist", "C-1", TODAY.plusDays(3));
+        Certification later = certify(second, "Stylist", "C-2", TODAY.plusDays(20));
+        certify(second, "Barber", "C-3", null);
+
+        assertEquals(List.of(soon), CertificationExpiry.notifyExpiring(TODAY, 7));
+        assertEquals(List.of(soon), notified);
+        assertTrue(CertificationExpiry.notifyExpiring(TODAY.plusDays(1), 7).isEmpty());
+        assertEquals(List.of(later), CertificationExpiry.notifyExpiring(TODAY.plusDays(13), 7));
+        assertEquals(List.of(soon, later), notified);
+    }
+
+    @Test
+    void certificationMovedIntoNotifiedDaysIsReportedNext() {
+        CertificationExpiry.notifyExpiring(TODAY, 7);
+        Certification added = certify(first, "Colorist", "C-1", TODAY.plusDays(2));
+        Certification moved = certify(second, "Stylist", "C-2", TODAY.plusDays(30));
+        moved.setExpiryDate(TODAY.plusDays(5));
+
+        assertEquals(List.of(added, moved), CertificationExpiry.notifyExpiring(TODAY, 7));
+        assertTrue(CertificationExpiry.notifyExpiring(TODAY, 7).isEmpty());
+    }
+
+    @Test
+    void removedCertificationIsNotNotified() {
+        certify(first, "Colorist", "C-1", TODAY.plusDays(3));
+        first.removeCertification("C-1");
+
+        assertTrue(CertificationExpiry.notifyExpiring(TODAY, 7).isEmpty());
+        assertTrue(CertificationExpiry.getExpiringBetween(TODAY, TODAY.plusDays(7)).isEmpty());
+    }
+
+    @Test
+    void renewedCertificationKeepsTheQualification() {
+        Certification lost = certify(first, "Colorist", "C-1", TODAY.plusDays(3));
+        certify(second, "Colorist", "C-2", TODAY.plusDays(4));
+        certify(second, "Colorist", "C-3", TODAY.plusYears(1));
+
+        Map<Master, List<Certification>> losing = CertificationExpiry.getMastersLosingQualification(TODAY, 10);
+
+        assertEquals(Map.of(first, List.of(lost)), losing);
+        assertTrue(CertificationExpiry.getMastersLosingQualification(TODAY, 1).isEmpty());
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> CertificationExpiry.notifyExpiring(null, 7));
+        assertThrows(IllegalArgumentException.class, () -> CertificationExpiry.notifyExpiring(TODAY, -1));
+        assertThrows(IllegalArgumentException.class, () -> CertificationExpiry.getExpiringBetween(TODAY, TODAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> CertificationExpiry.getMastersLosingQualification(TODAY, -1));
+        assertThrows(IllegalArgumentException.class, () -> CertificationExpiry.addListener(null));
+    }
+
+    @Test
+    void indexIsRebuiltAfterLoad() throws IOException {
+        certify(first, "Colorist", "C-1", TODAY.plusDays(3));
+        CertificationExpiry.notifyExpiring(TODAY, 7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        List<Certification> due = CertificationExpiry.notifyExpiring(TODAY, 7);
+        assertEquals(1, due.size());
+        assertEquals("C-1", due.get(0).getCertificationNumber());
+    }
+
+    private static Certification certify(Master master, String name, String number, LocalDate expiryDate) {
+        return new Certification(master, name, number, "Course", "Academy", ISSUED, expiryDate);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.byt.models;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Worker;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CertificationNumberIndexTest {
+
+    private static final LocalDate ISSUED = LocalDate.of(2020, 1, 1);
+
+    private Master first;
+    private Master second;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        first = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        second = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+    }
+
+    @Test
+    void holderIsFoundByNumberAndOrganization() {
+        Certification academy = new Certification(first, "Colorist", "C-1", "Course", "Academy", ISSUED);
+        Certification institute = new Certification(second, "Stylist", "C-1", "Course", "Institute", ISSUED);
+
+        assertSame(academy, CertificationNumberIndex.find("Academy", "C-1"));
+        assertSame(second, CertificationNumberIndex.find("Institute", "C-1").getMaster());
+        assertNull(CertificationNumberIndex.find("Academy", "C-2"));
+        assertEquals(Set.of(academy, institute), Set.copyOf(CertificationNumberIndex.findAll("C-1")));
+    }
+
+    @Test
+    void duplicateNumberOfTheSameOrganizationIsRejected() {
+        new Certification(first, "Colorist", "C-1", "Course", "Academy", ISSUED);
+
+        assertThrows(IllegalStateException.class,
+                () -> new Certification(second, "Colorist", "C-1", "Course", "Academy", ISSUED));
+        assertEquals(1, Certification.getCertificationList().size());
+        assertEquals(0, second.getCertificationCount());
+    }
+
+    @Test
+    void onlyLinkedCertificationsHoldTheirNumber() {
+        Certification invalid = new Certification(first, " ", "C-1", "Course", "Academy", ISSUED);
+        new Certification(first, "Colorist", "C-2", "Course", "Academy", ISSUED);
+
+        assertNull(invalid.getMaster());
+        assertNull(CertificationNumberIndex.find("Academy", "C-1"));
+        // the master already holds C-2, so the second certification is never linked and gives its number back
+        assertThrows(IllegalStateException.class,
+                () -> new Certification(first, "Stylist", "C-2", "Course", "Institute", ISSUED));
+        assertNull(CertificationNumberIndex.find("Institute", "C-2"));
+        assertEquals(1, Certification.getCertificationList().size());
+        assertEquals(1, first.getCertificationCount());
+    }
+
+    @Test
+    void indexFollowsRemovalAndMoves() {
+        Certification certification = new Certification(first, "Colorist", "C-1", "Course", "Academy", ISSUED);
+
+        certification.setMaster(second);
+        assertSame(second, CertificationNumberIndex.find("Academy", "C-1").getMaster());
+        assertEquals(List.of(certification), Certification.getCertificationList());
+        assertEquals(0, first.getCertificationCount());
+
+        second.removeCertification("C-1");
+        assertNull(CertificationNumberIndex.find("Academy", "C-1"));
+        assertTrue(CertificationNumberIndex.findAll("C-1").isEmpty());
+        new Certification(first, "Colorist", "C-1", "Course", "Academy", ISSUED);
+        assertSame(first, CertificationNumberIndex.find("Academy", "C-1").getMaster());
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> CertificationNumberIndex.find("Academy", null));
+        assertThrows(IllegalArgumentException.class, () -> CertificationNumberIndex.findAll(null));
+    }
+
+    @Test
+    void indexIsRebuiltAfterLoad() throws IOException {
+        new Certification(first, "Colorist", "C-1", "Course", "Academy", ISSUED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals("Mike", CertificationNumberIndex.find("Academy", "C-1").getMaster().getName());
+        Master loaded = Master.getMasterList().get(1);
+        assertThrows(IllegalStateException.class,
+                () -> new Certification(loaded, "Colorist", "C-1", "Course", "Academy", ISSUED));
+        assertEquals(List.of("C-1"), Certification.getCertificationList().stream()
+                .map(Certification::getCertificationNumber)
+                .toList());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.byt.models;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MaterialForecastTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private Customer customer;
+    private Master master;
+    private Service haircut;
+    private Service coloring;
+    private Material dye;
+    private Material shampoo;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        master = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(master));
+        coloring = new Service(2, "Coloring", 100.0, "Hair coloring", 60, Set.of(master));
+        dye = new Material("Dye", "L'Oreal");
+        shampoo = new Material("Shampoo", "Schwarzkopf");
+        coloring.addMaterialUsed(dye, 2.0);
+        coloring.addMaterialUsed(shampoo, 0.5);
+        haircut.addMaterialUsed(shampoo, 0.25);
+        dye.addStock(5.0);
+        shampoo.addStock(1.0);
+    }
+
+    @Test
+    void bookingTakesMaterialsAndCancellingGivesThemBack() {
+        Appointment appointment = book(DAY, coloring);
+        ProvidedService providedService = appointment.getProvidedServicesView().iterator().next();
+
+        assertEquals(3.0, dye.getStock(), 1e-9);
+        assertEquals(0.5, shampoo.getStock(), 1e-9);
+        assertEquals(Map.of(dye, 2.0, shampoo, 0.5), providedService.getMaterialUsage());
+        assertEquals(2.0, MaterialForecast.getDemand(dye, DAY, DAY), 1e-9);
+
+        coloring.setMaterialQuantity(dye, 3.0);
+        providedService.removeService(coloring);
+
+        assertEquals(5.0, dye.getStock(), 1e-9);
+        assertEquals(1.0, shampoo.getStock(), 1e-9);
+        assertTrue(providedService.getMaterialUsage().isEmpty());
+        assertTrue(MaterialForecast.getDemandByDay(dye, DAY, DAY).isEmpty());
+    }
+
+    @Test
+    void cancelledAppointmentGivesItsMaterialsBack() {
+        Appointment appointment = book(DAY, coloring);
+        book(DAY, haircut);
+
+        HistoryOfStatus cancellation = appointment.changeStatus(AppointmentStatus.CANCELLED);
+
+        assertEquals(5.0, dye.getStock(), 1e-9);
+        assertEquals(0.75, shampoo.getStock(), 1e-9);
+        assertEquals(0.25, MaterialForecast.getDemand(shampoo, DAY, DAY), 1e-9);
+        assertTrue(MaterialForecast.getDemandByDay(dye, DAY, DAY).isEmpty());
+
+        appointment.removeHistory(cancellation);
+        assertEquals(3.0, dye.getStock(), 1e-9);
+        assertEquals(2.0, MaterialForecast.getDemand(dye, DAY, DAY), 1e-9);
+    }
+
+    @Test
+    void depletionIsForecastFromBookedDays() {
+        book(DAY, coloring);
+        book(DAY.plusDays(1), haircut);
+        book(DAY.plusDays(2), coloring);
+        book(DAY.plusDays(3), coloring);
+
+        assertEquals(-1.0, dye.getStock(), 1e-9);
+        assertEquals(Map.of(DAY, 2.0, DAY.plusDays(2), 2.0, DAY.plusDays(3), 2.0),
+                MaterialForecast.getDemandByDay(dye, DAY, DAY.plusDays(3)));
+        assertEquals(DAY.plusDays(3), MaterialForecast.getDepletionDate(dye, DAY));
+        assertEquals(DAY.plusDays(2), MaterialForecast.getDepletionDate(shampoo, DAY));
+        assertEquals(DAY.plusDays(2), MaterialForecast.getDepletionDate(shampoo, DAY.plusDays(2)));
+
+        Map<Material, LocalDate> runningOut = MaterialForecast.getMaterialsRunningOut(DAY, DAY.plusDays(2));
+        assertEquals(Map.of(shampoo, DAY.plusDays(2)), runningOut);
+
+        dye.addStock(1.0);
+        assertNull(MaterialForecast.getDepletionDate(dye, DAY));
+    }
+
+    @Test
+    void quantitiesBelongToUsedMaterials() {
+        Material foil = new Material("Foil", "Generic");
+
+        assertEquals(0.0, haircut.getMaterialQuantity(dye));
+        assertThrows(IllegalArgumentException.class, () -> haircut.setMaterialQuantity(foil, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> coloring.setMaterialQuantity(dye, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> dye.addStock(-1.0));
+
+        coloring.removeMaterialUsed(dye);
+        assertEquals(0.0, coloring.getMaterialQuantity(dye));
+        assertEquals(Map.of(shampoo, 0.5), coloring.getMaterialQuantities());
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> MaterialForecast.getDemand(null, DAY, DAY));
+        assertThrows(IllegalArgumentException.class, () -> MaterialForecast.getDemand(dye, DAY, DAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> MaterialForecast.getDepletionDate(dye, null));
+        assertThrows(IllegalArgumentException.class, () -> MaterialForecast.getMaterialsRunningOut(null, DAY));
+    }
+
+    @Test
+    void forecastIsRebuiltAfterLoad() throws IOException {
+        book(DAY, coloring);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        Material loaded = Material.getMaterialList().stream()
+                .filter(material -> material.getName().equals("Dye"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(3.0, loaded.getStock(), 1e-9);
+        assertEquals(2.0, MaterialForecast.getDemand(loaded, DAY, DAY), 1e-9);
+        assertNull(MaterialForecast.getDepletionDate(loaded, DAY));
+    }
+
+    private Appointment book(LocalDate date, Service service) {
+        ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(date, LocalTime.NOON), Set.of(master));
+        return new Appointment.Builder(date, customer, Set.of(serviceInfo)).build();
+    }
+}
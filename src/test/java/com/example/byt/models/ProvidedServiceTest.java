@@ -1,7 +1,10 @@
 package com.example.byt.models;
 
+import com.example.byt.extent.ExtentRegistry;
 import com.example.byt.models.appointment.Appointment;
 import com.example.byt.models.person.*;
+import com.example.byt.models.services.HairService;
+import com.example.byt.models.services.HairServiceType;
 import com.example.byt.models.services.Service;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
@@ -222,6 +225,115 @@ public class ProvidedServiceTest {
         );
     }
 
+    @Test
+    void serviceAndMasterRatingsIncludeNewProvidedServices() {
+        LocalDateTime time = LocalDateTime.of(2025, 11, 13, 14, 30);
+        new ProvidedService.Builder(time, service, appointment, Set.of(master)).rating(4).build();
+        new ProvidedService.Builder(time, service, appointment, Set.of(master)).rating(5).build();
+        assertEquals(4.5, service.getRating());
+        assertEquals(2, service.getRatingCount());
+        assertEquals(4.5, master.getRating());
+        assertEquals(2, master.getRatingCount());
+    }
+
+    @Test
+    void setRatingUpdatesServiceAndMasterRatings() {
+        LocalDateTime time = LocalDateTime.of(2025, 11, 13, 14, 30);
+        ProvidedService providedService = new ProvidedService.Builder(time, service, appointment, Set.of(master))
+                .rating(2)
+                .build();
+        providedService.setRating(4);
+        assertEquals(4.0, service.getRating());
+        assertEquals(4.0, master.getRating());
+        providedService.setRating(null);
+        assertEquals(0.0, service.getRating());
+        assertEquals(0, service.getRatingCount());
+        assertEquals(0, master.getRatingCount());
+    }
+
+    @Test
+    void removingProvidedServiceRemovesItsRating() {
+        LocalDateTime time = LocalDateTime.of(2025, 11, 13, 14, 30);
+        new ProvidedService.Builder(time, service, appointment, Set.of(master)).rating(5).build();
+        ProvidedService removed = new ProvidedService.Builder(time, service, appointment, Set.of(master))
+                .rating(1)
+                .build();
+        service.removeProvidedService(removed);
+        assertEquals(5.0, service.getRating());
+        assertEquals(1, service.getRatingCount());
+    }
+
+    @Test
+    void subtypeRatingAggregatesAllInstances() {
+        HairService.clearExtent();
+        HairService cut = new HairService(2, "Cut", 30.0, "Short cut", 30.0, Set.of(master),
+                HairServiceType.CUT, List.of("Straight"));
+        HairService color = new HairService(3, "Color", 60.0, "Full color", 90.0, Set.of(master),
+                HairServiceType.COLOR, List.of("Curly"));
+        LocalDateTime time = LocalDateTime.of(2025, 11, 13, 14, 30);
+        new ProvidedService.Builder(time, cut, appointment, Set.of(master)).rating(3).build();
+        new ProvidedService.Builder(time, color, appointment, Set.of(master)).rating(5).build();
+        new ProvidedService.Builder(time, service, appointment, Set.of(master)).rating(1).build();
+        assertEquals(4.0, HairService.getAverageRating());
+        assertEquals(2, HairService.getTotalRatingCount());
+    }
+
+    @Test
+    void subtypeRatingFollowsTheExtent() {
+        HairService.clearExtent();
+        HairService cut = new HairService(2, "Cut", 30.0, "Short cut", 30.0, Set.of(master),
+                HairServiceType.CUT, List.of("Straight"));
+        HairService color = new HairService(3, "Color", 60.0, "Full color", 90.0, Set.of(master),
+                HairServiceType.COLOR, List.of("Curly"));
+        HairService invalid = new HairService(4, "Wash", 10.0, "Wash", 10.0, Set.of(master),
+                HairServiceType.CUT, List.of());
+        LocalDateTime time = LocalDateTime.of(2025, 11, 13, 14, 30);
+        new ProvidedService.Builder(time, cut, appointment, Set.of(master)).rating(3).build();
+        new ProvidedService.Builder(time, color, appointment, Set.of(master)).rating(5).build();
+        new ProvidedService.Builder(time, invalid, appointment, Set.of(master)).rating(1).build();
+        assertEquals(2, HairService.getTotalRatingCount());
+
+        color.removeFromExtent();
+        assertEquals(3.0, HairService.getAverageRating());
+        assertEquals(1, HairService.getTotalRatingCount());
+
+        ExtentRegistry.clearAll();
+        assertEquals(0, HairService.getTotalRatingCount());
+    }
+
+    @Test
+    void priceIsCapturedWhenBooked() {
+        Master junior = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+        service.addMasterSpecializedIn(junior);
+        new Promotion("Spring", "Spring sale", 20, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), Set.of(service));
+        LocalDateTime time = LocalDateTime.now().plusDays(7);
+        ProvidedService discounted = new ProvidedService.Builder(time, service, appointment, Set.of(junior)).build();
+        ProvidedService surcharged = new ProvidedService.Builder(time, service, appointment, Set.of(master)).build();
+
+        assertEquals(50.0, discounted.getBasePrice());
+        assertEquals(20.0, discounted.getDiscount());
+        assertFalse(discounted.hasTopMasterSurcharge());
+        assertEquals(40.0, discounted.getPrice(), 1e-9);
+        assertTrue(surcharged.hasTopMasterSurcharge());
+        assertEquals(48.0, surcharged.getPrice(), 1e-9);
+        // the service of the appointment was booked before the promotion
+        assertEquals(50.0 * 1.2 + 40.0 + 48.0, appointment.getTotalPrice(), 1e-9);
+    }
+
+    @Test
+    void capturedPriceIgnoresLaterChanges() {
+        ProvidedService providedService = appointment.getProvidedServicesView().iterator().next();
+        double booked = providedService.getPrice();
+
+        new Promotion("Spring", "Spring sale", 50, LocalDate.now(), LocalDate.now().plusDays(1), Set.of(service));
+
+        assertEquals(booked, providedService.getPrice());
+        assertEquals(booked / 2, providedService.getPrice(LocalDate.now()), 1e-9);
+        providedService.reprice();
+        assertEquals(booked / 2, providedService.getPrice(), 1e-9);
+        assertEquals(50.0, providedService.getDiscount());
+    }
+
     private boolean containsViolationFor(Set<ConstraintViolation<ProvidedService>> violations, String fieldName) {
         return violations.stream()
                 .anyMatch(v -> v.getPropertyPath().toString().equals(fieldName));
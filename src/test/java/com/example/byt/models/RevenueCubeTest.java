@@ -0,0 +1,159 @@
+package com.example.byt.models;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.HairService;
+import com.example.byt.models.services.HairServiceType;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RevenueCubeTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private Customer customer;
+    private Master top;
+    private Master junior;
+    private Service haircut;
+    private Service coloring;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        top = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        junior = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(top, junior));
+        coloring = new Service(2, "Coloring", 100.0, "Hair coloring", 60, Set.of(top, junior));
+    }
+
+    @Test
+    void revenueIsBrokenDownByEveryDimension() {
+        book(DAY, haircut, PaymentMethod.CASH, junior);
+        book(DAY, coloring, PaymentMethod.CARD, top);
+        book(DAY.plusDays(1), haircut, PaymentMethod.CARD, junior);
+
+        assertEquals(220.0, RevenueCube.getTotal(DAY, DAY.plusDays(1)), 1e-9);
+        assertEquals(170.0, RevenueCube.getByDay(DAY, DAY).get(DAY), 1e-9);
+        assertEquals(100.0, RevenueCube.getByMaster(DAY, DAY.plusDays(1)).get(junior), 1e-9);
+        assertEquals(120.0, RevenueCube.getByMaster(DAY, DAY.plusDays(1)).get(top), 1e-9);
+        assertEquals(100.0, RevenueCube.getByService(DAY, DAY.plusDays(1)).get(haircut), 1e-9);
+        assertEquals(170.0, RevenueCube.getByPaymentMethod(DAY, DAY.plusDays(1)).get(PaymentMethod.CARD), 1e-9);
+        assertEquals(Map.of(Service.class, 220.0), RevenueCube.getByServiceType(DAY, DAY.plusDays(1)));
+        assertTrue(RevenueCube.getByDay(DAY.plusDays(2), DAY.plusDays(9)).isEmpty());
+    }
+
+    @Test
+    void sharedServiceIsSplitBetweenMasters() {
+        book(DAY, haircut, PaymentMethod.CASH, top, junior);
+
+        Map<Master, Double> byMaster = RevenueCube.getByMaster(DAY, DAY);
+        assertEquals(30.0, byMaster.get(top), 1e-9);
+        assertEquals(30.0, byMaster.get(junior), 1e-9);
+        assertEquals(60.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+    }
+
+    @Test
+    void changesAreFollowedIncrementally() {
+        Appointment appointment = book(DAY, haircut, PaymentMethod.CASH, junior);
+        ProvidedService providedService = appointment.getProvidedServicesView().iterator().next();
+
+        appointment.setPaymentMethod(PaymentMethod.CARD);
+        assertNull(RevenueCube.getByPaymentMethod(DAY, DAY).get(PaymentMethod.CASH));
+        assertEquals(50.0, RevenueCube.getByPaymentMethod(DAY, DAY).get(PaymentMethod.CARD), 1e-9);
+
+        providedService.addMaster(top);
+        assertEquals(50.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+        providedService.reprice();
+        assertEquals(60.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+
+        providedService.removeService(haircut);
+        assertEquals(0.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+        assertTrue(RevenueCube.getByMaster(DAY, DAY).isEmpty());
+    }
+
+    @Test
+    void onlyCarriedOutAppointmentsCount() {
+        ServiceInfo haircutInfo = new ServiceInfo(haircut, LocalDateTime.of(DAY, LocalTime.NOON), Set.of(junior));
+        Appointment cancelled = new Appointment.Builder(DAY, customer, Set.of(haircutInfo)).build();
+        cancelled.changeStatus(AppointmentStatus.CANCELLED);
+        ServiceInfo coloringInfo = new ServiceInfo(coloring, LocalDateTime.of(DAY, LocalTime.NOON), Set.of(junior));
+        Appointment booked = new Appointment.Builder(DAY, customer, Set.of(coloringInfo)).build();
+        assertEquals(0.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+
+        booked.changeStatus(AppointmentStatus.COMPLETED);
+        assertEquals(100.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+        booked.changeStatus(AppointmentStatus.PAID);
+        assertEquals(100.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+    }
+
+    @Test
+    void subtypesAreReportedByType() {
+        HairService styling = new HairService(3, "Styling", 40.0, "Styling", 30, Set.of(junior),
+                HairServiceType.CUT, List.of("Straight"));
+        book(DAY, styling, null, junior);
+        book(DAY, haircut, null, junior);
+
+        Map<Class<? extends Service>, Double> byType = RevenueCube.getByServiceType(DAY, DAY);
+        assertEquals(40.0, byType.get(HairService.class), 1e-9);
+        assertEquals(50.0, byType.get(Service.class), 1e-9);
+        assertEquals(90.0, RevenueCube.getByPaymentMethod(DAY, DAY).get(null), 1e-9);
+    }
+
+    @Test
+    void cubeIsRebuiltAfterLoadAndOnDemand() throws IOException {
+        book(DAY, haircut, PaymentMethod.CASH, junior);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        assertEquals(0.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(50.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+
+        Service loaded = Service.getServiceList().stream()
+                .filter(service -> service.getName().equals("Haircut"))
+                .findFirst()
+                .orElseThrow();
+        new Promotion("Spring", "Spring sale", 50, LocalDate.now(), LocalDate.now().plusDays(7), Set.of(loaded));
+        RevenueCube.rebuild();
+        assertEquals(50.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+        ProvidedService.getProvidedServiceExtent().snapshot().forEach(ProvidedService::reprice);
+        assertEquals(25.0, RevenueCube.getTotal(DAY, DAY), 1e-9);
+    }
+
+    @Test
+    void invalidRangeThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> RevenueCube.getTotal(null, DAY));
+        assertThrows(IllegalArgumentException.class, () -> RevenueCube.getByMaster(DAY, DAY.minusDays(1)));
+    }
+
+    // a completed appointment, since only those count as revenue
+    private Appointment book(LocalDate date, Service service, PaymentMethod paymentMethod, Master... masters) {
+        ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(date, LocalTime.NOON), Set.of(masters));
+        Appointment appointment = new Appointment.Builder(date, customer, Set.of(serviceInfo))
+                .paymentMethod(paymentMethod)
+                .build();
+        appointment.changeStatus(AppointmentStatus.COMPLETED);
+        return appointment;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.byt.models.appointment;
 
+import com.example.byt.models.ProvidedService;
 import com.example.byt.models.ServiceInfo;
 import com.example.byt.models.person.*;
 import com.example.byt.models.services.Service;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -101,6 +103,29 @@ public class AppointmentTest {
         List<Appointment> appointmentList = Appointment.getAppointmentList();
         assertFalse(appointmentList.contains(appointment),
                 "Invalid appointment should NOT be added to extent");
+        assertTrue(appointment.getProvidedServicesView().isEmpty());
+        assertEquals(0, master.getCompletedServiceCount());
+        assertEquals(0, customer.getHistoryCount());
+        assertFalse(receptionist.getAppointments().contains(appointment));
+    }
+
+    @Test
+    void failedBookingOfALaterServiceUndoesTheEarlierOnes() {
+        Master outsider = Worker.createMaster("Tom", "Davis", "777777777", LocalDate.of(1982, 9, 25), 2);
+        Service coloring = new Service(2, "Coloring", 100.0, "Hair coloring", 60.0, Set.of(outsider));
+        Set<ServiceInfo> mixed = new LinkedHashSet<>(serviceInfos);
+        mixed.add(new ServiceInfo(coloring, LocalDateTime.now(), Set.of(master)));
+        int providedServices = ProvidedService.getProvidedServiceExtent().size();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Appointment.Builder(LocalDate.now(), customer, mixed).receptionist(receptionist).build());
+
+        assertEquals(providedServices, ProvidedService.getProvidedServiceExtent().size());
+        assertEquals(0, master.getCompletedServiceCount());
+        assertEquals(0, service.getProvidedServiceCount());
+        assertEquals(0, coloring.getProvidedServiceCount());
+        assertEquals(0, customer.getHistoryCount());
+        assertTrue(Appointment.getAppointmentList().isEmpty());
     }
 
     @Test
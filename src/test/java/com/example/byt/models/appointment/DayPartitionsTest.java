@@ -0,0 +1,164 @@
+package com.example.byt.models.appointment;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.AppointmentStatus;
+import com.example.byt.models.Material;
+import com.example.byt.models.MaterialForecast;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.RevenueCube;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DayPartitionsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 10);
+
+    private Customer customer;
+    private Master master;
+    private Service haircut;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        master = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(master));
+    }
+
+    @Test
+    void appointmentsAreFoundByDayAndRange() {
+        Appointment monday = book(MONDAY);
+        Appointment wednesday = book(MONDAY.plusDays(2));
+        Appointment secondWednesday = book(MONDAY.plusDays(2));
+        book(MONDAY.plusDays(9));
+
+        assertEquals(List.of(monday), Appointment.getAppointmentsOn(MONDAY));
+        assertEquals(List.of(monday, wednesday, secondWednesday),
+                Appointment.getAppointmentsBetween(MONDAY, MONDAY.plusDays(6)));
+        assertTrue(Appointment.getAppointmentsOn(MONDAY.plusDays(1)).isEmpty());
+        assertEquals(2, Appointment.getAppointmentCountOn(MONDAY.plusDays(2)));
+    }
+
+    @Test
+    void countsByDaySkipEmptyDays() {
+        book(MONDAY);
+        book(MONDAY.plusDays(2));
+        book(MONDAY.plusDays(2));
+
+        Map<LocalDate, Integer> expected = new TreeMap<>(Map.of(MONDAY, 1, MONDAY.plusDays(2), 2));
+        assertEquals(expected, Appointment.getAppointmentCountsByDay(MONDAY, MONDAY.plusDays(6)));
+    }
+
+    @Test
+    void statusOfTheDayUsesThePartition() {
+        Appointment first = book(LocalDate.now());
+        Appointment second = book(LocalDate.now());
+        book(LocalDate.now().plusDays(1));
+        second.changeStatus(AppointmentStatus.CANCELLED);
+
+        assertEquals(List.of(first), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED, LocalDate.now()));
+    }
+
+    @Test
+    void evictedPartitionsLeaveTheExtent() throws IOException {
+        book(MONDAY);
+        book(MONDAY.minusDays(3));
+        Appointment current = book(MONDAY.plusDays(1));
+        List<LocalDate> archived = new ArrayList<>();
+
+        int evicted = Appointment.evictBefore(MONDAY.plusDays(1), (date, appointments) -> archived.add(date));
+
+        assertEquals(2, evicted);
+        assertEquals(List.of(MONDAY.minusDays(3), MONDAY), archived);
+        assertEquals(List.of(current), Appointment.getAppointmentList());
+        assertTrue(Appointment.getAppointmentsBetween(MONDAY.minusDays(7), MONDAY).isEmpty());
+        assertEquals(Set.of(current), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED));
+    }
+
+    @Test
+    void evictedAppointmentsAreUnlinked() throws IOException {
+        Material dye = new Material("Dye", "Wella");
+        haircut.addMaterialUsed(dye, 1.0);
+        dye.addStock(5.0);
+        Appointment old = book(MONDAY);
+        old.changeStatus(AppointmentStatus.COMPLETED);
+        Appointment current = book(MONDAY.plusDays(1));
+        current.changeStatus(AppointmentStatus.COMPLETED);
+        assertEquals(120.0, RevenueCube.getTotal(MONDAY, MONDAY.plusDays(1)), 1e-9);
+        assertEquals(2.0, MaterialForecast.getDemand(dye, MONDAY, MONDAY.plusDays(1)));
+
+        Appointment.evictBefore(MONDAY.plusDays(1), (date, appointments) -> { });
+
+        assertEquals(List.of(current), customer.getLastVisits(5));
+        assertEquals(2, customer.getHistoryCount());
+        assertEquals(Set.of(current.getProvidedServicesView().iterator().next()),
+                Set.copyOf(ProvidedService.getProvidedServiceList()));
+        assertEquals(1, haircut.getProvidedServiceCount());
+        assertEquals(1, master.getCompletedServiceCount());
+        assertEquals(60.0, RevenueCube.getTotal(MONDAY, MONDAY.plusDays(1)), 1e-9);
+        assertEquals(1.0, MaterialForecast.getDemand(dye, MONDAY, MONDAY.plusDays(1)));
+        // the evicted visit took place, so its dye stays used
+        assertEquals(3.0, dye.getStock());
+    }
+
+    @Test
+    void failedArchiveKeepsThePartition() {
+        book(MONDAY.minusDays(1));
+        book(MONDAY);
+
+        assertThrows(IOException.class, () -> Appointment.evictBefore(MONDAY.plusDays(1), (date, appointments) -> {
+            if (date.equals(MONDAY)) {
+                throw new IOException("disk full");
+            }
+        }));
+        assertEquals(1, Appointment.getAppointmentList().size());
+        assertEquals(1, Appointment.getAppointmentCountOn(MONDAY));
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> Appointment.getAppointmentsOn(null));
+        assertThrows(IllegalArgumentException.class, () -> Appointment.getAppointmentsBetween(MONDAY, MONDAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> Appointment.evictBefore(null, (date, appointments) -> { }));
+        assertThrows(IllegalArgumentException.class, () -> Appointment.evictBefore(MONDAY, null));
+    }
+
+    @Test
+    void partitionsAreRebuiltAfterLoad() throws IOException {
+        book(MONDAY);
+        book(MONDAY.plusDays(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(1, Appointment.getAppointmentCountOn(MONDAY));
+        assertEquals(2, Appointment.getAppointmentsBetween(MONDAY, MONDAY.plusDays(1)).size());
+    }
+
+    private Appointment book(LocalDate date) {
+        ServiceInfo serviceInfo = new ServiceInfo(haircut, LocalDateTime.of(date, LocalTime.NOON), Set.of(master));
+        return new Appointment.Builder(date, customer, Set.of(serviceInfo)).build();
+    }
+}
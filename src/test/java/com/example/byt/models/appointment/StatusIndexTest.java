@@ -0,0 +1,142 @@
+package com.example.byt.models.appointment;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.AppointmentStatus;
+import com.example.byt.models.HistoryOfStatus;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatusIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private Customer customer;
+    private Master master;
+    private Service haircut;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        master = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(master));
+    }
+
+    @Test
+    void newAppointmentIsScheduled() {
+        Appointment appointment = book(TODAY);
+
+        assertEquals(AppointmentStatus.SCHEDULED, appointment.getCurrentStatus());
+        assertEquals(1, appointment.getStatusHistory().size());
+        assertEquals(Set.of(appointment), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED));
+    }
+
+    @Test
+    void changesOfTheSameDayKeepTheirOrder() {
+        Appointment appointment = book(TODAY);
+
+        HistoryOfStatus completed = appointment.changeStatus(AppointmentStatus.COMPLETED);
+        HistoryOfStatus paid = appointment.changeStatus(AppointmentStatus.PAID);
+
+        assertEquals(AppointmentStatus.PAID, appointment.getCurrentStatus());
+        List<HistoryOfStatus> history = appointment.getStatusHistory();
+        assertEquals(AppointmentStatus.SCHEDULED, history.get(0).getStatus());
+        assertSame(completed, history.get(1));
+        assertSame(paid, history.get(2));
+        assertTrue(customer.hasHistory(paid));
+    }
+
+    @Test
+    void earlierChangeIsPlacedByDate() {
+        Appointment appointment = book(TODAY);
+
+        new HistoryOfStatus(AppointmentStatus.CANCELLED, TODAY.minusDays(2), customer, appointment);
+
+        assertEquals(AppointmentStatus.SCHEDULED, appointment.getCurrentStatus());
+        assertEquals(AppointmentStatus.CANCELLED, appointment.getStatusHistory().get(0).getStatus());
+    }
+
+    @Test
+    void invalidTransitionsThrowException() {
+        Appointment appointment = book(TODAY);
+
+        assertThrows(IllegalStateException.class, () -> appointment.changeStatus(AppointmentStatus.PAID));
+        assertThrows(IllegalArgumentException.class, () -> appointment.changeStatus(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> appointment.changeStatus(AppointmentStatus.COMPLETED, TODAY.plusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> appointment.changeStatus(AppointmentStatus.COMPLETED, TODAY.minusDays(1)));
+
+        appointment.changeStatus(AppointmentStatus.CANCELLED);
+        assertThrows(IllegalStateException.class, () -> appointment.changeStatus(AppointmentStatus.COMPLETED));
+        assertEquals(2, appointment.getHistoryCount());
+    }
+
+    @Test
+    void indexFollowsStatusChanges() {
+        Appointment today = book(TODAY);
+        Appointment tomorrow = book(TODAY.plusDays(1));
+        Appointment cancelled = book(TODAY);
+        cancelled.changeStatus(AppointmentStatus.CANCELLED);
+
+        assertEquals(Set.of(today, tomorrow), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED));
+        assertEquals(List.of(today), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED, TODAY));
+        assertEquals(1, Appointment.getAppointmentCountByStatus(AppointmentStatus.CANCELLED));
+
+        today.changeStatus(AppointmentStatus.COMPLETED);
+        assertEquals(Set.of(tomorrow), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED));
+        assertEquals(Set.of(today), Appointment.getAppointmentsByStatus(AppointmentStatus.COMPLETED));
+
+        Appointment.clearExtent();
+        assertEquals(0, Appointment.getAppointmentCountByStatus(AppointmentStatus.SCHEDULED));
+    }
+
+    @Test
+    void indexIsRebuiltAfterLoad() throws IOException {
+        book(TODAY).changeStatus(AppointmentStatus.COMPLETED);
+        book(TODAY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(1, Appointment.getAppointmentCountByStatus(AppointmentStatus.SCHEDULED));
+        Appointment completed = Appointment.getAppointmentsByStatus(AppointmentStatus.COMPLETED).iterator().next();
+        assertEquals(AppointmentStatus.SCHEDULED, completed.getStatusHistory().get(0).getStatus());
+        completed.changeStatus(AppointmentStatus.PAID);
+        assertEquals(1, Appointment.getAppointmentCountByStatus(AppointmentStatus.PAID));
+        assertEquals(0, Appointment.getAppointmentCountByStatus(AppointmentStatus.COMPLETED));
+    }
+
+    @Test
+    void statusRulesFollowTheAppointmentLifecycle() {
+        assertTrue(AppointmentStatus.SCHEDULED.canChangeTo(AppointmentStatus.COMPLETED));
+        assertTrue(AppointmentStatus.SCHEDULED.canChangeTo(AppointmentStatus.CANCELLED));
+        assertTrue(AppointmentStatus.COMPLETED.canChangeTo(AppointmentStatus.PAID));
+        assertFalse(AppointmentStatus.CANCELLED.canChangeTo(AppointmentStatus.SCHEDULED));
+        assertFalse(AppointmentStatus.PAID.canChangeTo(AppointmentStatus.COMPLETED));
+    }
+
+    private Appointment book(LocalDate date) {
+        ServiceInfo serviceInfo = new ServiceInfo(haircut, LocalDateTime.of(date, LocalTime.NOON), Set.of(master));
+        return new Appointment.Builder(date, customer, Set.of(serviceInfo)).build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.AppointmentStatus;
+import com.example.byt.models.HistoryOfStatus;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomerTimelineTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private Customer customer;
+    private Customer other;
+    private Master master;
+    private Service haircut;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        other = Person.createCustomer("Jane", "Doe", "987654321", LocalDate.of(1991, 1, 1));
+        master = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(master));
+    }
+
+    @Test
+    void lastVisitsAreNewestFirst() {
+        Appointment first = book(customer, DAY);
+        Appointment second = book(customer, DAY.plusDays(3));
+        Appointment third = book(customer, DAY.plusDays(1));
+        book(other, DAY.plusDays(5));
+
+        assertEquals(List.of(second, third), customer.getLastVisits(2));
+        assertEquals(List.of(second, third, first), customer.getLastVisits(10));
+        assertTrue(customer.getLastVisits(0).isEmpty());
+        assertEquals(3, customer.getVisitCount());
+    }
+
+    @Test
+    void visitsInRangeIncludeBothEnds() {
+        Appointment first = book(customer, DAY);
+        Appointment second = book(customer, DAY.plusDays(2));
+        book(customer, DAY.plusDays(4));
+
+        assertEquals(List.of(first, second), customer.getVisits(DAY, DAY.plusDays(2)));
+        assertTrue(customer.getVisits(DAY.plusDays(5), DAY.plusDays(9)).isEmpty());
+    }
+
+    @Test
+    void appointmentWithSeveralStatusChangesIsOneVisit() {
+        Appointment appointment = book(customer, DAY);
+        assertEquals(1, customer.getVisitCount());
+
+        HistoryOfStatus completed = new HistoryOfStatus(AppointmentStatus.COMPLETED, LocalDate.now(), customer, appointment);
+
+        assertEquals(List.of(appointment), customer.getLastVisits(5));
+        assertEquals(2, customer.getLastStatusChanges(5).size());
+        assertSame(completed, customer.getLastStatusChanges(1).get(0));
+        assertEquals(2, customer.getStatusChanges(LocalDate.now(), LocalDate.now()).size());
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> customer.getLastVisits(-1));
+        assertThrows(IllegalArgumentException.class, () -> customer.getVisits(null, DAY));
+        assertThrows(IllegalArgumentException.class, () -> customer.getVisits(DAY, DAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> customer.getStatusChanges(DAY, null));
+    }
+
+    @Test
+    void timelineIsRebuiltAfterLoad() throws IOException {
+        book(customer, DAY);
+        book(customer, DAY.plusDays(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        Customer loaded = Customer.getCustomerList().stream()
+                .filter(c -> c.getName().equals("John"))
+                .findFirst()
+                .orElseThrow();
+        List<Appointment> visits = loaded.getLastVisits(5);
+        assertEquals(2, visits.size());
+        assertEquals(DAY.plusDays(1), visits.get(0).getDate());
+    }
+
+    @Test
+    void sameDayStatusChangesKeepTheirOrderAfterLoad() throws IOException {
+        List<LocalDate> booked = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            booked.add(DAY.plusDays(i * 7 % 20));
+            book(customer, booked.get(i));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        Customer loaded = Customer.getCustomerList().stream()
+                .filter(c -> c.getName().equals("John"))
+                .findFirst()
+                .orElseThrow();
+        List<LocalDate> changed = new ArrayList<>();
+        for (HistoryOfStatus historyOfStatus : loaded.getStatusChanges(LocalDate.now(), LocalDate.now())) {
+            changed.add(historyOfStatus.getAppointment().getDate());
+        }
+        assertEquals(booked, changed);
+    }
+
+    private Appointment book(Customer customer, LocalDate date) {
+        ServiceInfo serviceInfo = new ServiceInfo(haircut, LocalDateTime.of(date, LocalTime.NOON), Set.of(master));
+        return new Appointment.Builder(date, customer, Set.of(serviceInfo)).build();
+    }
+}
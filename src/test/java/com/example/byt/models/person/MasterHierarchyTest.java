@@ -0,0 +1,151 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MasterHierarchyTest {
+
+    private Master region;
+    private Master salon;
+    private Master senior;
+    private Master trainee;
+    private Master other;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        region = Worker.createMaster("Mike", "Johnson", "555555551", LocalDate.of(1980, 3, 20), 10);
+        salon = Worker.createMaster("Sarah", "Williams", "555555552", LocalDate.of(1985, 6, 15), 6);
+        senior = Worker.createMaster("Anna", "Brown", "555555553", LocalDate.of(1990, 1, 1), 4);
+        trainee = Worker.createMaster("Dana", "Smith", "555555554", LocalDate.of(1991, 1, 1), 1);
+        other = Worker.createMaster("Olga", "White", "555555555", LocalDate.of(1992, 1, 1), 1);
+        salon.setManager(region);
+        senior.setManager(salon);
+        trainee.setManager(senior);
+        region.addTrainee(other);
+    }
+
+    @Test
+    void subtreeAndDepthFollowTheTree() {
+        assertEquals(List.of(salon, senior, trainee, other), region.getAllTrainees());
+        assertEquals(List.of(senior, trainee), salon.getAllTrainees());
+        assertEquals(4, region.getAllTraineeCount());
+        assertEquals(0, region.getHierarchyDepth());
+        assertEquals(3, trainee.getHierarchyDepth());
+        assertTrue(trainee.isManagedBy(region));
+        assertTrue(trainee.isManagedBy(senior));
+        assertFalse(other.isManagedBy(salon));
+        assertFalse(region.isManagedBy(region));
+    }
+
+    @Test
+    void indexFollowsManagerChanges() {
+        senior.setManager(null);
+        assertEquals(List.of(trainee), senior.getAllTrainees());
+        assertFalse(trainee.isManagedBy(region));
+        assertEquals(1, trainee.getHierarchyDepth());
+
+        senior.setManager(region);
+        assertEquals(List.of(salon, other, senior, trainee), region.getAllTrainees());
+
+        region.removeTrainee(other);
+        assertEquals(List.of(salon, senior, trainee), region.getAllTrainees());
+        assertEquals(0, other.getHierarchyDepth());
+    }
+
+    @Test
+    void cyclesAreRejected() {
+        assertThrows(IllegalStateException.class, () -> region.setManager(senior));
+        assertThrows(IllegalStateException.class, () -> senior.addTrainee(region));
+        assertNull(region.getManager());
+        assertFalse(senior.isTrainee(region));
+    }
+
+    @Test
+    void managersAreRankedBySubtreeSize() {
+        assertEquals(List.of(region, salon), Master.getManagersWithMostTrainees(2));
+        assertEquals(List.of(region, salon, senior), Master.getManagersWithMostTrainees(10));
+        assertTrue(Master.getManagersWithMostTrainees(0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> Master.getManagersWithMostTrainees(-1));
+    }
+
+    @Test
+    void removedMasterLeavesTheTree() {
+        Master.removeMasters(List.of(salon));
+
+        assertEquals(List.of(other), region.getAllTrainees());
+        assertEquals(List.of(trainee), senior.getAllTrainees());
+        assertEquals(0, senior.getHierarchyDepth());
+    }
+
+    @Test
+    void alternatingMovesAndQueriesMatchTheManagers() {
+        List<Master> team = new ArrayList<>(List.of(region, salon, senior, trainee, other));
+        for (int i = 0; i < 40; i++) {
+            team.add(Worker.createMaster("Extra", "Master", String.valueOf(600000000 + i), LocalDate.of(1990, 1, 1), 3));
+        }
+        Random random = new Random(7);
+        for (int step = 0; step < 400; step++) {
+            Master moved = team.get(random.nextInt(team.size()));
+            Master manager = random.nextInt(5) == 0 ? null : team.get(random.nextInt(team.size()));
+            if (manager == moved || (manager != null && (!manager.isTopMaster() || isBelow(manager, moved)))) {
+                continue;
+            }
+            moved.setManager(manager);
+            Master probe = team.get(random.nextInt(team.size()));
+            assertEquals(depthOf(probe), probe.getHierarchyDepth());
+            for (Master master : team) {
+                assertEquals(isBelow(probe, master), probe.isManagedBy(master));
+            }
+        }
+        for (Master master : team) {
+            List<Master> below = master.getAllTrainees();
+            assertEquals(below.size(), master.getAllTraineeCount());
+            assertEquals(team.stream().filter(m -> isBelow(m, master)).count(), below.size());
+        }
+    }
+
+    @Test
+    void hierarchyIsRebuiltAfterLoad() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        Master loaded = Master.getMasterList().stream()
+                .filter(master -> master.getName().equals("Mike"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(4, loaded.getAllTraineeCount());
+        assertEquals(List.of(loaded), Master.getManagersWithMostTrainees(1));
+    }
+
+    private static boolean isBelow(Master master, Master ancestor) {
+        for (Master above = master.getManager(); above != null; above = above.getManager()) {
+            if (above == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int depthOf(Master master) {
+        int depth = 0;
+        for (Master above = master.getManager(); above != null; above = above.getManager()) {
+            depth++;
+        }
+        return depth;
+    }
+}
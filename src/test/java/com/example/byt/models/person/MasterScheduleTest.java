@@ -0,0 +1,174 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.Slot;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MasterScheduleTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2025, 11, 13, 9, 0);
+
+    private Customer customer;
+    private Master master1;
+    private Master master2;
+    private Service haircut;
+    private Service coloring;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        master1 = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        master2 = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 4);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(master1, master2));
+        coloring = new Service(2, "Coloring", 100.0, "Hair coloring", 120, Set.of(master1, master2));
+    }
+
+    @Test
+    void masterIsBusyForTheDurationOfABookedService() {
+        book(haircut, NINE, master1);
+
+        assertFalse(master1.isAvailable(NINE.plusMinutes(15), Duration.ofMinutes(30)));
+        assertFalse(master1.isAvailable(NINE.minusMinutes(15), Duration.ofMinutes(30)));
+        assertTrue(master1.isAvailable(NINE.plusMinutes(30), Duration.ofMinutes(30)));
+        assertTrue(master1.isAvailable(NINE.minusMinutes(30), Duration.ofMinutes(30)));
+        assertTrue(master2.isAvailable(NINE, Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void longBookingStartingEarlierIsFound() {
+        ProvidedService coloringAtNine = book(coloring, NINE, master1);
+        book(haircut, NINE.plusHours(3), master1);
+
+        assertEquals(List.of(coloringAtNine), master1.getConflictingServices(NINE.plusMinutes(90), Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void conflictsAreFoundAfterBookingsAreRemoved() {
+        ProvidedService coloringAtNine = book(coloring, NINE, master1);
+        List<ProvidedService> haircuts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            haircuts.add(book(haircut, NINE.plusMinutes(30L * i), master1, master2));
+        }
+        for (int i = 0; i < haircuts.size(); i += 2) {
+            haircuts.get(i).removeMaster(master1);
+        }
+
+        assertEquals(List.of(coloringAtNine), master1.getConflictingServices(NINE.plusMinutes(70), Duration.ofMinutes(10)));
+        assertEquals(List.of(coloringAtNine, haircuts.get(3)),
+                master1.getConflictingServices(NINE.plusMinutes(100), Duration.ofMinutes(10)));
+        assertEquals(NINE.plusMinutes(120), master1.getNextAvailableTime(NINE, Duration.ofMinutes(30)));
+        assertFalse(master1.isAvailable(NINE.plusMinutes(150), Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void nextAvailableTimeSkipsBackToBackBookings() {
+        book(haircut, NINE, master1);
+        book(coloring, NINE.plusMinutes(30), master1);
+        book(haircut, NINE.plusMinutes(170), master1);
+
+        assertEquals(NINE.plusMinutes(200), master1.getNextAvailableTime(NINE, Duration.ofMinutes(30)));
+        assertEquals(NINE.plusMinutes(150), master1.getNextAvailableTime(NINE, Duration.ofMinutes(20)));
+    }
+
+    @Test
+    void removedMasterIsFreeAgain() {
+        ProvidedService providedService = book(haircut, NINE, master1, master2);
+        assertFalse(master1.isAvailable(NINE, Duration.ofMinutes(30)));
+
+        providedService.removeMaster(master1);
+        assertTrue(master1.isAvailable(NINE, Duration.ofMinutes(30)));
+        assertFalse(master2.isAvailable(NINE, Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void checkedBookingRejectsBusyMaster() {
+        book(haircut, NINE, master1);
+        ServiceInfo overlapping = new ServiceInfo(coloring, NINE.minusMinutes(60), Set.of(master1));
+
+        assertThrows(IllegalStateException.class, () ->
+                new Appointment.Builder(LocalDate.now(), customer, Set.of(overlapping)).checkAvailability().build());
+        assertEquals(1, master1.getCompletedServiceCount());
+    }
+
+    @Test
+    void checkedBookingRejectsOverlapWithinTheAppointment() {
+        ServiceInfo first = new ServiceInfo(haircut, NINE, Set.of(master1));
+        ServiceInfo second = new ServiceInfo(coloring, NINE.plusMinutes(20), Set.of(master1));
+
+        assertThrows(IllegalStateException.class, () ->
+                new Appointment.Builder(LocalDate.now(), customer, Set.of(first, second)).checkAvailability().build());
+    }
+
+    @Test
+    void uncheckedBookingStillAllowsOverlap() {
+        book(haircut, NINE, master1);
+        book(haircut, NINE, master1);
+        assertEquals(2, master1.getConflictingServices(NINE, Duration.ofMinutes(1)).size());
+    }
+
+    @Test
+    void findFreeSlotsReturnsEarliestSlotsOfAnyQualifiedMaster() {
+        book(haircut, NINE, master1);
+        book(coloring, NINE, master2);
+
+        List<Slot> slots = haircut.findFreeSlots(NINE, 4);
+
+        assertEquals(4, slots.size());
+        assertSame(master1, slots.get(0).getMaster());
+        assertEquals(NINE.plusMinutes(30), slots.get(0).getStart());
+        assertEquals(NINE.plusMinutes(60), slots.get(0).getEnd());
+        assertEquals(NINE.plusMinutes(60), slots.get(1).getStart());
+        assertEquals(NINE.plusMinutes(90), slots.get(2).getStart());
+        for (Slot slot : slots.subList(0, 3)) {
+            assertSame(master1, slot.getMaster());
+        }
+        assertEquals(NINE.plusMinutes(120), slots.get(3).getStart());
+    }
+
+    @Test
+    void findFreeSlotsRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> haircut.findFreeSlots(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> haircut.findFreeSlots(NINE, -1));
+        assertTrue(haircut.findFreeSlots(NINE, 0).isEmpty());
+    }
+
+    @Test
+    void scheduleIsRebuiltAfterLoad() throws IOException {
+        book(coloring, NINE, master1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        Master loaded = Master.getMasterList().stream()
+                .filter(master -> master.getName().equals("Mike"))
+                .findFirst()
+                .orElseThrow();
+        assertFalse(loaded.isAvailable(NINE.plusHours(1), Duration.ofMinutes(30)));
+    }
+
+    private ProvidedService book(Service service, LocalDateTime time, Master... masters) {
+        ServiceInfo serviceInfo = new ServiceInfo(service, time, Set.of(masters));
+        Appointment appointment = new Appointment.Builder(LocalDate.now(), customer, Set.of(serviceInfo)).build();
+        return appointment.getProvidedServicesView().iterator().next();
+    }
+}
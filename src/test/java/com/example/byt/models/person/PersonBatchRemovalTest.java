@@ -0,0 +1,98 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.Certification;
+import com.example.byt.models.services.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersonBatchRemovalTest {
+
+    private Master manager;
+    private Master first;
+    private Master second;
+    private Master remaining;
+    private Receptionist receptionist;
+    private Service haircut;
+    private Service coloring;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        manager = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        first = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+        second = Worker.createMaster("Anna", "Brown", "777777777", LocalDate.of(1990, 1, 1), 2);
+        remaining = Worker.createMaster("Dana", "Smith", "888888888", LocalDate.of(1991, 1, 1), 4);
+        receptionist = Worker.createReceptionist("Margo", "Bilyk", "999999999", LocalDate.of(1992, 7, 10), WorkType.FULL_TIME);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(manager, first, second, remaining));
+        coloring = new Service(2, "Coloring", 100.0, "Hair coloring", 60, Set.of(first, second));
+        manager.addTrainee(first);
+        manager.addTrainee(remaining);
+        new Certification(first, "Colorist", "C-1", "Advanced coloring", "Academy", LocalDate.of(2020, 1, 1));
+        new Certification(manager, "Stylist", "C-2", "Styling", "Academy", LocalDate.of(2020, 1, 1));
+    }
+
+    @Test
+    void wholeGroupIsRemovedAndUnlinked() {
+        coloring.addMasterSpecializedIn(remaining);
+
+        Person.removeAllFromExtent(List.of(person(manager), person(first), person(receptionist.getWorker())));
+
+        assertEquals(Set.of(second, remaining), Set.copyOf(Master.getMasterList()));
+        assertEquals(Set.of(second, remaining), haircut.getMasterSpecializedIn());
+        assertEquals(Set.of(second, remaining), coloring.getMasterSpecializedIn());
+        assertNull(remaining.getManager());
+        assertFalse(manager.hasTrainees());
+        assertTrue(first.getServiceSpecialisesIn().isEmpty());
+        assertTrue(Certification.getCertificationList().isEmpty());
+        assertTrue(Receptionist.getReceptionistList().isEmpty());
+        assertEquals(2, Worker.getWorkerList().size());
+        assertEquals(2, Person.getPersonList().size());
+    }
+
+    @Test
+    void serviceLeftWithoutMastersStopsTheWholeRemoval() {
+        assertThrows(IllegalStateException.class,
+                () -> Person.removeAllFromExtent(List.of(person(manager), person(first), person(second))));
+
+        assertEquals(4, Master.getMasterList().size());
+        assertEquals(Set.of(first, second), coloring.getMasterSpecializedIn());
+        assertTrue(manager.isTrainee(first));
+        assertSame(manager, remaining.getManager());
+        assertEquals(2, Certification.getCertificationList().size());
+        assertEquals(5, Person.getPersonList().size());
+    }
+
+    @Test
+    void mastersCanBeRemovedTogether() {
+        coloring.addMasterSpecializedIn(remaining);
+
+        Master.removeMasters(List.of(first, second));
+
+        assertEquals(Set.of(remaining), coloring.getMasterSpecializedIn());
+        assertFalse(manager.isTrainee(first));
+        assertEquals(List.of(manager, remaining), Master.getMasterList());
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> Person.removeAllFromExtent(null));
+        assertThrows(IllegalArgumentException.class, () -> Master.removeMasters(null));
+        assertThrows(IllegalArgumentException.class, () -> Master.removeMasters(Arrays.asList(first, null)));
+    }
+
+    private static Person person(Master master) {
+        return person(master.getWorker());
+    }
+
+    private static Person person(Worker worker) {
+        return worker.getPerson();
+    }
+}
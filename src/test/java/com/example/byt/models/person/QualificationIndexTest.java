@@ -0,0 +1,95 @@
+package com.example.byt.models.person;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.Certification;
+import com.example.byt.models.services.Service;
+import com.example.byt.persistence.BinaryExtentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QualificationIndexTest {
+
+    private Master senior;
+    private Master junior;
+    private Service haircut;
+    private Service coloring;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        senior = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        junior = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 30, Set.of(senior, junior));
+        coloring = new Service(2, "Coloring", 100.0, "Hair coloring", 60, Set.of(senior));
+        new Certification(senior, "Colorist", "C-1", "Advanced coloring", "Academy", LocalDate.of(2020, 1, 1));
+        new Certification(junior, "Stylist", "C-2", "Styling", "Institute", LocalDate.of(2021, 1, 1));
+    }
+
+    @Test
+    void compoundQueriesMatchEveryCondition() {
+        assertEquals(List.of(senior, junior), Master.findQualifiedMasters(haircut, null, 0));
+        assertEquals(List.of(senior), Master.findQualifiedMasters(haircut, null, 3));
+        assertEquals(List.of(senior), Master.findQualifiedMasters(coloring, "Academy", 0));
+        assertEquals(List.of(junior), Master.findQualifiedMasters(null, "Institute", 0));
+        assertTrue(Master.findQualifiedMasters(coloring, "Institute", 0).isEmpty());
+        assertEquals(List.of(junior, senior), Master.findQualifiedMasters(null, null, 0));
+    }
+
+    @Test
+    void indexFollowsAssociationChanges() {
+        junior.addServiceSpecialisesIn(coloring);
+        assertEquals(Set.of(senior, junior), Set.copyOf(Master.findQualifiedMasters(coloring, null, 0)));
+
+        new Certification(junior, "Colorist", "C-3", "Advanced coloring", "Academy", LocalDate.of(2022, 1, 1));
+        assertEquals(Set.of(senior, junior), Set.copyOf(Master.findQualifiedMasters(null, "Academy", 0)));
+
+        junior.removeCertification("C-3");
+        assertEquals(List.of(senior), Master.findQualifiedMasters(null, "Academy", 0));
+
+        junior.setExperience(4);
+        assertEquals(Set.of(senior, junior), Set.copyOf(Master.findQualifiedMasters(coloring, null, 3)));
+
+        junior.removeMaster();
+        assertEquals(List.of(senior), Master.findQualifiedMasters(coloring, null, 0));
+    }
+
+    @Test
+    void pendingMasterIsFoundByExperienceOnly() {
+        Master pending = Worker.createMaster("Anna", "Brown", "777777777", LocalDate.of(1990, 1, 1), 8);
+
+        assertEquals(List.of(pending), Master.findQualifiedMasters(null, null, 6));
+        assertFalse(Master.findQualifiedMasters(haircut, null, 0).contains(pending));
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> Master.findQualifiedMasters(haircut, null, -1));
+        assertThrows(IllegalArgumentException.class, () -> junior.setExperience(-1));
+        senior.addTrainee(junior);
+        assertThrows(IllegalStateException.class, () -> senior.setExperience(1));
+        assertEquals(5, senior.getExperience());
+    }
+
+    @Test
+    void indexIsRebuiltAfterLoad() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        assertTrue(Master.findQualifiedMasters(null, null, 0).isEmpty());
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+
+        List<Master> colorists = Master.findQualifiedMasters(null, "Academy", 3);
+        assertEquals(1, colorists.size());
+        assertEquals("Mike", colorists.get(0).getName());
+        assertEquals(2, Master.findQualifiedMasters(null, null, 0).size());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.byt.models.services;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.MasterPair;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MasterPairFinderTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2025, 11, 13, 9, 0);
+
+    private Customer customer;
+    private Master top;
+    private Master junior1;
+    private Master junior2;
+    private Service haircut;
+    private FourHandsService massage;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        customer = Person.createCustomer("John", "Doe", "123456789", LocalDate.of(1990, 1, 1));
+        top = Worker.createMaster("Mike", "Johnson", "555555555", LocalDate.of(1980, 3, 20), 5);
+        junior1 = Worker.createMaster("Sarah", "Williams", "666666666", LocalDate.of(1985, 6, 15), 1);
+        junior2 = Worker.createMaster("Tom", "Davis", "777777777", LocalDate.of(1982, 9, 25), 2);
+        haircut = new Service(1, "Haircut", 50.0, "Basic haircut", 60, Set.of(top, junior1, junior2));
+        massage = Service.createFourHandsService(2, "Four Hands Massage", 200.0, "Luxury massage", 90,
+                Set.of(top, junior1, junior2), false);
+    }
+
+    @Test
+    void freeMastersArePairedAtTheWindowStart() {
+        List<MasterPair> pairs = massage.findMasterPairs(NINE, NINE.plusHours(4), 10);
+
+        assertEquals(3, pairs.size());
+        for (MasterPair pair : pairs) {
+            assertEquals(NINE, pair.getStart());
+            assertEquals(NINE.plusMinutes(90), pair.getEnd());
+        }
+    }
+
+    @Test
+    void busyMasterIsPairedOnceFree() {
+        book(top, NINE);
+        book(junior1, NINE.plusMinutes(30));
+
+        List<MasterPair> pairs = massage.findMasterPairs(NINE, NINE.plusHours(6), 10);
+
+        assertEquals(3, pairs.size());
+        // the top master is free at ten, the first junior half an hour later
+        assertEquals(pairOf(top, junior2), Set.of(pairs.get(0).getFirst(), pairs.get(0).getSecond()));
+        assertEquals(NINE.plusMinutes(60), pairs.get(0).getStart());
+        assertEquals(NINE.plusMinutes(90), pairs.get(1).getStart());
+        assertEquals(NINE.plusMinutes(90), pairs.get(2).getStart());
+    }
+
+    @Test
+    void pairMustFitIntoTheWindow() {
+        book(top, NINE);
+        book(junior1, NINE);
+
+        assertTrue(massage.findMasterPairs(NINE, NINE.plusMinutes(120), 10).isEmpty());
+        List<MasterPair> pairs = massage.findMasterPairs(NINE, NINE.plusMinutes(150), 10);
+        assertEquals(3, pairs.size());
+        assertEquals(NINE.plusMinutes(60), pairs.get(0).getStart());
+    }
+
+    @Test
+    void topMasterPairsComeFirstWhenPreferred() {
+        // only the juniors are free at nine; the top master joins an hour later
+        book(top, NINE);
+
+        List<MasterPair> preferred = massage.findMasterPairs(NINE, NINE.plusHours(4), 3, true);
+        assertTrue(preferred.get(0).hasTopMaster());
+        assertTrue(preferred.get(1).hasTopMaster());
+        assertFalse(preferred.get(2).hasTopMaster());
+
+        List<MasterPair> earliest = massage.findMasterPairs(NINE, NINE.plusHours(4), 1);
+        assertFalse(earliest.get(0).hasTopMaster());
+        assertEquals(NINE, earliest.get(0).getStart());
+    }
+
+    @Test
+    void countLimitsThePairs() {
+        assertEquals(1, massage.findMasterPairs(NINE, NINE.plusHours(4), 1).size());
+        assertTrue(massage.findMasterPairs(NINE, NINE.plusHours(4), 0).isEmpty());
+    }
+
+    @Test
+    void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> massage.findMasterPairs(null, NINE, 1));
+        assertThrows(IllegalArgumentException.class, () -> massage.findMasterPairs(NINE, NINE.minusHours(1), 1));
+        assertThrows(IllegalArgumentException.class, () -> massage.findMasterPairs(NINE, NINE.plusHours(1), -1));
+    }
+
+    @Test
+    void largeRosterFindsPairsBetweenBookings() {
+        Set<Master> roster = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            roster.add(Worker.createMaster("Master" + i, "Smith", String.valueOf(100000000 + i),
+                    LocalDate.of(1980, 1, 1), i % 5));
+        }
+        Service busy = new Service(3, "Styling", 50.0, "Styling", 60, roster);
+        FourHandsService fourHands = Service.createFourHandsService(4, "Four Hands Styling", 150.0, "Styling", 60,
+                roster, false);
+        int m = 0;
+        for (Master master : roster) {
+            // everybody is booked from nine until a staggered time
+            book(busy, master, NINE, 1 + m++ % 8);
+        }
+
+        List<MasterPair> pairs = fourHands.findMasterPairs(NINE, NINE.plusHours(12), 50, true);
+
+        assertEquals(50, pairs.size());
+        for (MasterPair pair : pairs) {
+            assertTrue(pair.hasTopMaster());
+            assertTrue(pair.getFirst().isAvailable(pair.getStart(), fourHands.getService().getBookingDuration()));
+            assertTrue(pair.getSecond().isAvailable(pair.getStart(), fourHands.getService().getBookingDuration()));
+        }
+        assertEquals(NINE.plusHours(1), pairs.get(0).getStart());
+    }
+
+    private void book(Master master, LocalDateTime time) {
+        book(haircut, master, time, 1);
+    }
+
+    private void book(Service service, Master master, LocalDateTime time, int hours) {
+        for (int h = 0; h < hours; h++) {
+            ServiceInfo serviceInfo = new ServiceInfo(service, time.plusHours(h), Set.of(master));
+            new Appointment.Builder(LocalDate.now(), customer, Set.of(serviceInfo)).build();
+        }
+    }
+
+    private static Set<Master> pairOf(Master first, Master second) {
+        return Set.of(first, second);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.*;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.*;
+import com.example.byt.models.services.HairService;
+import com.example.byt.models.services.HairServiceType;
+import com.example.byt.models.services.Service;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryExtentStoreTest {
+
+    private Master master;
+    private HairService service;
+    private Customer customer;
+    private Appointment appointment;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        master = Worker.createMaster("Mike", "Smith", "444555666", LocalDate.of(1985, 3, 20), 5);
+        service = new HairService(1, "Haircut", 50.0, "Basic haircut", 30.0, Set.of(master),
+                HairServiceType.CUT, List.of("Straight", "Curly"));
+        new Promotion("Winter", "Winter sale", 20, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), Set.of(service));
+        new Certification(master, "Colorist", "C-1", "Advanced coloring", "Academy", LocalDate.of(2020, 1, 1));
+        service.addMaterialUsed(new Material("Dye", "Wella"));
+        customer = Person.createCustomer("John", "Doe", "111222333", "john@example.com", LocalDate.of(1990, 5, 15));
+        Receptionist receptionist = Worker.createReceptionist("Anna", "Brown", "777888999", LocalDate.of(1992, 7, 10), WorkType.FULL_TIME);
+        ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(2025, 11, 13, 14, 30), Set.of(master));
+        appointment = new Appointment.Builder(LocalDate.now(), customer, Set.of(serviceInfo))
+                .notes(List.of("Window seat"))
+                .paymentMethod(PaymentMethod.CARD)
+                .receptionist(receptionist)
+                .build();
+        appointment.getProvidedServicesView().iterator().next().setRating(4);
+    }
+
+    @Test
+    void roundTripRestoresExtentsAndAssociations() throws IOException {
+        byte[] data = save();
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(data));
+
+        assertEquals(1, Appointment.getAppointmentList().size());
+        Appointment loaded = Appointment.getAppointmentList().get(0);
+        assertNotSame(appointment, loaded);
+        assertEquals(PaymentMethod.CARD, loaded.getPaymentMethod());
+        assertEquals(List.of("Window seat"), loaded.getNotes());
+
+        ProvidedService providedService = loaded.getProvidedServicesView().iterator().next();
+        assertSame(loaded, providedService.getAppointment());
+        assertEquals(LocalDateTime.of(2025, 11, 13, 14, 30), providedService.getTime());
+        assertEquals(4, providedService.getRating());
+
+        HairService loadedService = (HairService) providedService.getService();
+        assertTrue(HairService.getHairServiceList().contains(loadedService));
+        assertEquals(List.of("Straight", "Curly"), loadedService.getHairTypes());
+        assertEquals(4.0, loadedService.getRating());
+        assertEquals(40.0, loadedService.getTotalPrice());
+        assertEquals(1, loadedService.getMaterialUsedCount());
+
+        Master loadedMaster = providedService.getCompletedByMastersView().iterator().next();
+        assertTrue(Master.getMasterList().contains(loadedMaster));
+        assertTrue(loadedMaster.hasServiceSpecialisesIn(loadedService));
+        assertTrue(loadedService.hasMasterSpecializedIn(loadedMaster));
+        assertSame(loadedMaster, loadedMaster.getCertificationByNumber("C-1").getMaster());
+        assertEquals("Mike", loadedMaster.getName());
+
+        Customer loadedCustomer = Customer.getCustomerList().get(0);
+        assertEquals(1, loadedCustomer.getHistoryCount());
+        assertSame(loaded, loadedCustomer.getHistoryOfStatusesView().iterator().next().getAppointment());
+        assertSame(loadedCustomer.getPerson(), Person.getPersonList().stream()
+                .filter(Person::isCustomer).findFirst().orElseThrow());
+    }
+
+    @Test
+    void loadRebuildsSubtypeRatings() throws IOException {
+        byte[] data = save();
+        HairService.clearExtent();
+        assertEquals(0, HairService.getTotalRatingCount());
+        new BinaryExtentStore().load(new ByteArrayInputStream(data));
+        assertEquals(1, HairService.getTotalRatingCount());
+        assertEquals(4.0, HairService.getAverageRating());
+    }
+
+    @Test
+    void loadReplacesCurrentExtents() throws IOException {
+        byte[] data = save();
+        new Material("Polish", "OPI");
+        new BinaryExtentStore().load(new ByteArrayInputStream(data));
+        assertEquals(1, Material.getMaterialList().size());
+        assertEquals("Dye", Material.getMaterialList().get(0).getName());
+    }
+
+    @Test
+    void saveAndLoadThroughFile() throws IOException {
+        Path file = Files.createTempFile("extents", ".bin");
+        try {
+            ExtentPersistence.save(file);
+            ExtentRegistry.clearAll();
+            ExtentPersistence.load(file);
+            assertEquals(1, Appointment.getAppointmentList().size());
+            assertEquals(1, Certification.getCertificationList().size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void loadRejectsForeignData() {
+        byte[] data = {1, 2, 3, 4, 5};
+        assertThrows(StreamCorruptedException.class,
+                () -> new BinaryExtentStore().load(new ByteArrayInputStream(data)));
+        assertEquals(1, Appointment.getAppointmentList().size(), "Failed load should keep current extents");
+    }
+
+    @Test
+    void loadRejectsClassesOutsideTheModelWithoutInitialisingThem() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GraphWriter writer = new GraphWriter(out);
+        writer.writeHeader();
+        writer.writeExtent(Probe.class, List.of());
+        writer.writeEnd();
+        writer.flush();
+
+        assertThrows(InvalidClassException.class,
+                () -> new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray())));
+        assertFalse(PROBE_INITIALISED.get());
+        assertEquals(1, Appointment.getAppointmentList().size(), "Failed load should keep current extents");
+    }
+
+    @Test
+    void setNullStoreThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ExtentPersistence.setStore(null));
+    }
+
+    private static final AtomicBoolean PROBE_INITIALISED = new AtomicBoolean();
+
+    // a class a crafted file names; loading must not run its static initialiser
+    static class Probe {
+        static {
+            PROBE_INITIALISED.set(true);
+        }
+    }
+
+    private byte[] save() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.AppointmentStatus;
+import com.example.byt.models.Certification;
+import com.example.byt.models.HistoryOfStatus;
+import com.example.byt.models.Material;
+import com.example.byt.models.Promotion;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.HairService;
+import com.example.byt.models.services.HairServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedExtentStoreTest {
+
+    private final MappedExtentStore store = new MappedExtentStore();
+
+    private Master master;
+    private HairService service;
+
+    @BeforeEach
+    void setUp() {
+        ExtentRegistry.clearAll();
+        master = Worker.createMaster("Mike", "Smith", "444555666", LocalDate.of(1985, 3, 20), 5);
+        service = new HairService(1, "Haircut", 50.0, "Basic haircut", 30.0, Set.of(master),
+                HairServiceType.CUT, List.of("Straight", "Curly"));
+        new Promotion("Winter", "Winter sale", 20, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), Set.of(service));
+        new Certification(master, "Colorist", "C-1", "Advanced coloring", "Academy", LocalDate.of(2020, 1, 1));
+        service.addMaterialUsed(new Material("Dye", "Wella"));
+        Customer customer = Person.createCustomer("John", "Doe", "111222333", "john@example.com", LocalDate.of(1990, 5, 15));
+        ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(2025, 11, 13, 14, 30), Set.of(master));
+        Appointment appointment = new Appointment.Builder(LocalDate.now(), customer, Set.of(serviceInfo))
+                .notes(List.of("Window seat"))
+                .paymentMethod(PaymentMethod.CARD)
+                .build();
+        appointment.getProvidedServicesView().iterator().next().setRating(4);
+    }
+
+    @Test
+    void loadFromMappedFileRestoresExtentsAndAssociations() throws IOException {
+        Path file = Files.createTempFile("extents", ".map");
+        try {
+            try (var out = Files.newOutputStream(file)) {
+                store.save(out);
+            }
+            ExtentRegistry.clearAll();
+            store.load(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        Appointment loaded = Appointment.getAppointmentList().get(0);
+        assertEquals(PaymentMethod.CARD, loaded.getPaymentMethod());
+        assertEquals(List.of("Window seat"), loaded.getNotes());
+        ProvidedService providedService = loaded.getProvidedServicesView().iterator().next();
+        assertSame(loaded, providedService.getAppointment());
+        assertEquals(4, providedService.getRating());
+        assertEquals(LocalDateTime.of(2025, 11, 13, 14, 30), providedService.getTime());
+
+        HairService loadedService = (HairService) providedService.getService();
+        assertEquals(List.of("Straight", "Curly"), loadedService.getHairTypes());
+        assertEquals(40.0, loadedService.getTotalPrice());
+        Master loadedMaster = Master.getMasterList().get(0);
+        assertTrue(providedService.isCompletedBy(loadedMaster));
+        assertSame(loadedMaster, loadedMaster.getCertificationByNumber("C-1").getMaster());
+        assertSame(loaded, Customer.getCustomerList().get(0).getHistoryOfStatusesView().iterator().next().getAppointment());
+    }
+
+    @Test
+    void historyObjectsLoadLazily() throws Exception {
+        reload();
+        Appointment appointment = Appointment.getAppointmentList().get(0);
+        HistoryOfStatus history = HistoryOfStatus.getHistoryOfStatusList().get(0);
+        Master loadedMaster = Master.getMasterList().get(0);
+
+        assertNotNull(source(appointment), "Appointments should not be decoded during the load");
+        assertNotNull(source(history), "History should not be decoded during the load");
+        assertNull(source(loadedMaster), "Masters are decoded during the load");
+
+        assertEquals(1, appointment.getHistoryCount());
+        assertNull(source(appointment));
+        assertNotNull(source(history));
+        assertSame(appointment, history.getAppointment());
+        assertNull(source(history));
+    }
+
+    @Test
+    void statusAndDayQueriesReadOnlyRecordHeaders() throws Exception {
+        reload();
+        Appointment appointment = Appointment.getAppointmentList().get(0);
+
+        assertEquals(1, Appointment.getAppointmentCountByStatus(AppointmentStatus.SCHEDULED));
+        assertEquals(Set.of(appointment), Appointment.getAppointmentsByStatus(AppointmentStatus.SCHEDULED));
+        assertEquals(List.of(appointment), Appointment.getAppointmentsOn(LocalDate.now()));
+        assertNotNull(source(appointment), "Index rebuilds should not decode appointments");
+
+        appointment.changeStatus(AppointmentStatus.COMPLETED);
+        reload();
+        assertEquals(1, Appointment.getAppointmentCountByStatus(AppointmentStatus.COMPLETED));
+        assertNotNull(source(Appointment.getAppointmentList().get(0)));
+    }
+
+    @Test
+    void loadRebuildsSubtypeRatingsWithoutLoadingHistory() throws IOException {
+        reload();
+        assertEquals(1, HairService.getTotalRatingCount());
+        assertEquals(4.0, HairService.getAverageRating());
+        assertEquals(4.0, Master.getMasterList().get(0).getRating());
+    }
+
+    @Test
+    void saveAfterLoadWritesUnloadedObjects() throws IOException {
+        reload();
+        reload();
+        ProvidedService providedService = ProvidedService.getProvidedServiceList().get(0);
+        assertEquals(4, providedService.getRating());
+        assertEquals(1, providedService.getCompletedByMasterCount());
+    }
+
+    @Test
+    void binaryStoreSavesUnloadedObjects() throws IOException {
+        reload();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        ExtentRegistry.clearAll();
+        new BinaryExtentStore().load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(List.of("Window seat"), Appointment.getAppointmentList().get(0).getNotes());
+    }
+
+    @Test
+    void loadRejectsForeignData() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinaryExtentStore().save(out);
+        byte[] data = out.toByteArray();
+        assertThrows(StreamCorruptedException.class, () -> store.load(new ByteArrayInputStream(data)));
+        assertEquals(1, Appointment.getAppointmentList().size(), "Failed load should keep current extents");
+    }
+
+    private void reload() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.save(out);
+        ExtentRegistry.clearAll();
+        store.load(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static Object source(Object entity) throws IllegalAccessException {
+        ClassLayout layout = ClassLayout.of(entity.getClass());
+        return layout.isLazy() ? layout.getSourceField().get(entity) : null;
+    }
+}
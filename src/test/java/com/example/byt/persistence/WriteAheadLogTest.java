@@ -0,0 +1,254 @@
+package com.example.byt.persistence;
+
+import com.example.byt.extent.ExtentRegistry;
+import com.example.byt.models.Material;
+import com.example.byt.models.ProvidedService;
+import com.example.byt.models.ServiceInfo;
+import com.example.byt.models.appointment.Appointment;
+import com.example.byt.models.appointment.PaymentMethod;
+import com.example.byt.models.person.Customer;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.person.Person;
+import com.example.byt.models.person.Worker;
+import com.example.byt.models.services.HairService;
+import com.example.byt.models.services.HairServiceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    private Path directory;
+    private WriteAheadLog log;
+    private Master master;
+    private HairService service;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ExtentRegistry.clearAll();
+        directory = Files.createTempDirectory("wal");
+        master = Worker.createMaster("Mike", "Smith", "444555666", LocalDate.of(1985, 3, 20), 5);
+        service = new HairService(1, "Haircut", 50.0, "Basic haircut", 30.0, Set.of(master),
+                HairServiceType.CUT, List.of("Straight"));
+        customer = Person.createCustomer("John", "Doe", "111222333", "john@example.com", LocalDate.of(1990, 5, 15));
+        log = WriteAheadLog.open(directory);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void openOnEmptyDirectoryWritesInitialSnapshot() {
+        assertEquals(1, log.getGeneration());
+        assertTrue(Files.exists(directory.resolve("snapshot-1.bin")));
+        assertTrue(Files.exists(directory.resolve("changes-1.log")));
+        assertEquals(0, log.getPendingChangeCount());
+    }
+
+    @Test
+    void committedChangesSurviveRestart() throws IOException {
+        Appointment appointment = book();
+        service.addMaterialUsed(new Material("Dye", "Wella"));
+        log.commit();
+
+        reopen();
+
+        assertEquals(1, Appointment.getAppointmentList().size());
+        Appointment loaded = Appointment.getAppointmentList().get(0);
+        assertNotSame(appointment, loaded);
+        assertEquals(PaymentMethod.CARD, loaded.getPaymentMethod());
+        ProvidedService providedService = loaded.getProvidedServicesView().iterator().next();
+        assertSame(loaded, providedService.getAppointment());
+        HairService loadedService = (HairService) providedService.getService();
+        assertTrue(HairService.getHairServiceList().contains(loadedService));
+        assertEquals(1, loadedService.getMaterialUsedCount());
+        assertEquals(1, loadedService.getProvidedServiceCount());
+        assertEquals(1, Customer.getCustomerList().get(0).getHistoryCount());
+    }
+
+    @Test
+    void commitAppendsOnlyTheChanges() throws IOException {
+        book();
+        log.commit();
+        long before = log.getLogSize();
+        Appointment.getAppointmentList().get(0).setPaymentMethod(PaymentMethod.CASH);
+        assertEquals(1, log.getPendingChangeCount());
+        log.commit();
+        long snapshotSize = Files.size(directory.resolve("snapshot-1.bin"));
+        assertTrue(log.getLogSize() - before < snapshotSize / 4,
+                "A single field change should append a small batch, not the whole state");
+        assertEquals(0, log.getPendingChangeCount());
+
+        reopen();
+        assertEquals(PaymentMethod.CASH, Appointment.getAppointmentList().get(0).getPaymentMethod());
+    }
+
+    @Test
+    void replayAppliesRemovalsAndRatingChanges() throws IOException {
+        Appointment appointment = book();
+        Material material = new Material("Dye", "Wella");
+        service.addMaterialUsed(material);
+        log.commit();
+
+        appointment.getProvidedServicesView().iterator().next().setRating(4);
+        service.removeMaterialUsed(material);
+        log.commit();
+
+        reopen();
+        HairService loadedService = HairService.getHairServiceList().get(0);
+        assertEquals(0, loadedService.getMaterialUsedCount());
+        assertEquals(4.0, loadedService.getRating());
+        assertEquals(4.0, Master.getMasterList().get(0).getRating());
+        assertEquals(1, HairService.getTotalRatingCount());
+    }
+
+    @Test
+    void removedObjectsAreForgottenOnceTheRemovalIsCommitted() throws IOException {
+        ProvidedService providedService = book().getProvidedServicesView().iterator().next();
+        log.commit();
+        int tracked = log.getObjectIdCount();
+
+        providedService.removeFromExtent();
+        assertEquals(tracked, log.getObjectIdCount());
+        log.commit();
+        assertTrue(log.getObjectIdCount() < tracked);
+
+        new Material("Dye", "Wella");
+        log.commit();
+        reopen();
+
+        assertTrue(ProvidedService.getProvidedServiceExtent().isEmpty());
+        assertEquals(List.of("Dye"), Material.getMaterialList().stream().map(Material::getName).toList());
+        assertEquals(1, HairService.getHairServiceList().size());
+        assertEquals(0, HairService.getHairServiceList().get(0).getProvidedServiceCount());
+    }
+
+    @Test
+    void uncommittedChangesAreLost() throws IOException {
+        new Material("Dye", "Wella");
+        log.commit();
+        new Material("Polish", "OPI");
+
+        simulateCrash();
+        assertEquals(1, Material.getMaterialList().size());
+    }
+
+    @Test
+    void tornBatchIsIgnored() throws IOException {
+        new Material("Dye", "Wella");
+        log.commit();
+        long size = log.getLogSize();
+        new Material("Polish", "OPI");
+        log.commit();
+        Path file = directory.resolve("changes-1.log");
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        simulateCrash();
+        assertEquals(1, Material.getMaterialList().size());
+        assertEquals(size, log.getLogSize(), "The torn batch should be cut off");
+
+        new Material("Gel", "OPI");
+        log.commit();
+        reopen();
+        assertEquals(List.of("Dye", "Gel"), Material.getMaterialList().stream().map(Material::getName).toList());
+    }
+
+    @Test
+    void checkpointStartsNewGeneration() throws IOException {
+        book();
+        log.commit();
+        log.checkpoint();
+
+        assertEquals(2, log.getGeneration());
+        assertFalse(Files.exists(directory.resolve("snapshot-1.bin")));
+        assertFalse(Files.exists(directory.resolve("changes-1.log")));
+        new Material("Dye", "Wella");
+        log.commit();
+
+        reopen();
+        assertEquals(1, Appointment.getAppointmentList().size());
+        assertEquals(1, Material.getMaterialList().size());
+    }
+
+    @Test
+    void commitCheckpointsOnceLogExceedsThreshold() throws IOException {
+        log.setCheckpointThreshold(1);
+        new Material("Dye", "Wella");
+        log.commit();
+        assertEquals(2, log.getGeneration());
+    }
+
+    @Test
+    void loadBehindTheLogForcesCheckpoint() throws IOException {
+        Path file = Files.createTempFile("extents", ".bin");
+        try {
+            ExtentPersistence.save(file);
+            new Material("Dye", "Wella");
+            ExtentPersistence.load(file);
+            assertEquals(0, log.getPendingChangeCount());
+            log.commit();
+            assertEquals(2, log.getGeneration());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void openingSecondLogThrowsException() {
+        assertThrows(IllegalStateException.class, () -> WriteAheadLog.open(directory));
+    }
+
+    @Test
+    void commitAfterCloseThrowsException() throws IOException {
+        log.close();
+        assertThrows(IllegalStateException.class, () -> log.commit());
+    }
+
+    @Test
+    void setNonPositiveThresholdThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> log.setCheckpointThreshold(0));
+    }
+
+    private Appointment book() {
+        ServiceInfo serviceInfo = new ServiceInfo(service, LocalDateTime.of(2025, 11, 13, 14, 30), Set.of(master));
+        return new Appointment.Builder(LocalDate.now(), customer, Set.of(serviceInfo))
+                .paymentMethod(PaymentMethod.CARD)
+                .build();
+    }
+
+    private void reopen() throws IOException {
+        log.close();
+        ExtentRegistry.clearAll();
+        log = WriteAheadLog.open(directory);
+    }
+
+    // drops the log without committing, as a crash would
+    private void simulateCrash() throws IOException {
+        log.abandon();
+        ExtentRegistry.clearAll();
+        log = WriteAheadLog.open(directory);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.byt.validation;
+
+import com.example.byt.models.Material;
+import com.example.byt.models.person.Master;
+import com.example.byt.models.services.FourHandsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModelValidatorTest {
+
+    @BeforeEach
+    void clearExtent() {
+        Material.clearExtent();
+    }
+
+    @Test
+    void validObjectProducesValidResult() {
+        Material material = new Material("Nail Polish", "OPI");
+        ValidationResult<Material> result = ModelValidator.validate(material);
+        assertTrue(result.isValid(), "Expected valid result, but got: " + result);
+        assertTrue(result.getViolations().isEmpty());
+        assertSame(material, result.getObject());
+    }
+
+    @Test
+    void invalidObjectReportsViolationsByProperty() {
+        Material material = new Material(" ", null);
+        ValidationResult<Material> result = ModelValidator.validate(material);
+        assertFalse(result.isValid());
+        assertTrue(result.hasViolationFor("name"));
+        assertTrue(result.hasViolationFor("producer"));
+        assertEquals(2, result.getMessagesByProperty().size());
+        assertFalse(Material.getMaterialList().contains(material), "Invalid material should not be added to the list");
+    }
+
+    @Test
+    void failureListenerReceivesRejectedObjects() {
+        List<ValidationResult<?>> failures = new ArrayList<>();
+        Consumer<ValidationResult<?>> listener = failures::add;
+        ModelValidator.addFailureListener(listener);
+        try {
+            Material invalid = new Material(null, "OPI");
+            new Material("Nail Polish", "OPI");
+            assertEquals(1, failures.size());
+            assertSame(invalid, failures.get(0).getObject());
+            assertEquals(Material.class, failures.get(0).getObjectType());
+        } finally {
+            ModelValidator.removeFailureListener(listener);
+        }
+    }
+
+    @Test
+    void constraintMetadataIsResolvedPerClass() {
+        assertTrue(ModelValidator.isConstrained(Material.class));
+        assertTrue(ModelValidator.isConstrained(Master.class));
+        assertFalse(ModelValidator.isConstrained(FourHandsService.class));
+    }
+
+    @Test
+    void validateNullThrowsException() {
+        assertThrows(NullPointerException.class, () -> ModelValidator.validate(null));
+    }
+
+    @Test
+    void addNullListenerThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ModelValidator.addFailureListener(null));
+    }
+}